@@ -8,9 +8,12 @@ import models.*;
 import preprocessing.*;
 import metrics.*;
 import utils.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Scanner;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.function.Supplier;
 
 
 //  Main file for the ML Paradigms Project - Java OOP Implementation
@@ -21,9 +24,16 @@ public class Main {
     // These are the data objects
     private static DataLoader dataLoader = null;
     private static Preprocessor preprocessor = null;
+    private static PreprocessedCache matrixCache = new PreprocessedCache(Runtime.getRuntime().maxMemory() / 4);
     
-    private static double[][] X_train = null;
-    private static double[][] X_test = null;
+    private static boolean float32 = false;
+    private static boolean offHeap = false;
+    private static boolean sparse = false;
+    private static Path spillDirectory = null;
+    private static double cgTolerance = 0.0;   // > 0 fits Linear Regression by conjugate gradient
+    
+    private static FeatureMatrix X_train = null;
+    private static FeatureMatrix X_test = null;
     private static double[] y_train = null;
     private static double[] y_test = null;
     private static boolean dataLoaded = false;
@@ -34,6 +44,37 @@ public class Main {
     public static void main(String[] args) {
         boolean running = true;
         
+        // --float32 keeps the feature matrices in float, half the memory of double
+        // --offheap keeps them outside the heap, --spill=DIR also backs them with files in DIR
+        // --sparse keeps them as CSR, only the non-zero cells of the one-hot columns are stored
+        // --cg[=TOL] fits Linear Regression by conjugate gradient instead of the normal equations
+        for (String arg : args) {
+            if (arg.equals("--float32")) {
+                float32 = true;
+            } else if (arg.equals("--sparse")) {
+                sparse = true;
+            } else if (arg.equals("--offheap")) {
+                offHeap = true;
+            } else if (arg.startsWith("--spill=")) {
+                offHeap = true;
+                spillDirectory = Paths.get(arg.substring("--spill=".length()));
+            } else if (arg.equals("--cg")) {
+                cgTolerance = 1e-10;
+            } else if (arg.startsWith("--cg=")) {
+                cgTolerance = 1e-10;
+                try {
+                    double tolerance = Double.parseDouble(arg.substring("--cg=".length()).trim());
+                    if (tolerance > 0.0 && !Double.isInfinite(tolerance)) {
+                        cgTolerance = tolerance;
+                    } else {
+                        System.out.println("(Invalid --cg tolerance, using default 1e-10)");
+                    }
+                } catch (NumberFormatException e) {
+                    System.out.println("(Invalid --cg tolerance, using default 1e-10)");
+                }
+            }
+        }
+        
         while (running) {
             printMenu();
             int choice = getChoice();
@@ -60,6 +101,9 @@ public class Main {
                 case 7:
                     printResults();
                     break;
+                case 9:
+                    runCrossValidation();
+                    break;
                 case 8:
                     running = false;
                     System.out.println("Goodbye!");
@@ -74,12 +118,13 @@ public class Main {
     private static void printMenu() {
         System.out.println("\n=== ML Paradigms Project - Java OOP ===");
         System.out.println("(1) Load data");
-        System.out.println("(2) Linear Regression (closed-form)");
+        System.out.println("(2) Linear Regression " + (cgTolerance > 0.0 ? "(conjugate gradient)" : "(closed-form)"));
         System.out.println("(3) Logistic Regression (binary)");
         System.out.println("(4) k-Nearest Neighbors");
         System.out.println("(5) Decision Tree (ID3)");
         System.out.println("(6) Gaussian Naive Bayes");
         System.out.println("(7) Print general results");
+        System.out.println("(9) k-fold cross-validation");
         System.out.println("(8) Quit");
         System.out.print("\nEnter option: ");
     }
@@ -142,17 +187,29 @@ public class Main {
         try {
             //Load the CSV file,make sure its the clean one!
             dataLoader = new DataLoader();
-            dataLoader.loadCSV(dataPath);
+            dataLoader.setKeepRows(false);
+            dataLoader.setUseCache(true);
+            dataLoader.loadCSVMapped(dataPath, Runtime.getRuntime().availableProcessors());
         
             System.out.println();
         
             // Preprocess for the classification
+            matrixCache.clear();
+            if (preprocessor != null) {
+                // The old matrices may hold native memory or a spill file
+                preprocessor.close();
+            }
             preprocessor = new Preprocessor(dataLoader);
+            preprocessor.setCache(matrixCache);
+            preprocessor.setFloat32(float32);
+            preprocessor.setOffHeap(offHeap);
+            preprocessor.setSparse(sparse);
+            preprocessor.setSpillDirectory(spillDirectory);
             preprocessor.preprocess("income", 0.8, 42, true);
         
             //Get preprocessed data
-            X_train = preprocessor.getXTrain();
-            X_test = preprocessor.getXTest();
+            X_train = preprocessor.getXTrainMatrix();
+            X_test = preprocessor.getXTestMatrix();
             y_train = preprocessor.getYTrain();
             y_test = preprocessor.getYTest();
         
@@ -171,43 +228,115 @@ public class Main {
             return;
         }
         
-        System.out.println("\nLinear Regression (closed-form):");
-        System.out.println("********************************");
+        if (cgTolerance > 0.0) {
+            System.out.println("\nLinear Regression (conjugate gradient):");
+            System.out.println("***************************************");
+        } else {
+            System.out.println("\nLinear Regression (closed-form):");
+            System.out.println("********************************");
+        }
         System.out.println("Enter input options:\n");
     
         // Input option 1: the target variable
         System.out.println("Input option 1: Target variable: hours.per.week");
     
-        // Input option 2: the L2 regularization
+        // Input option 2: the L2 regularization, a comma-separated list fits the whole ridge path at once
         System.out.print("Input option 2: L2 = ");
-        double l2 = 0.0;
+        double[] l2Values = {0.0};
         try {
-            String input = scanner.nextLine().trim();
-            l2 = Double.parseDouble(input);
-            System.out.println("  (L2 regularization strength set to " + l2 + ")");
+            String[] parts = scanner.nextLine().trim().split(",");
+            l2Values = new double[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                l2Values[i] = Double.parseDouble(parts[i].trim());
+            }
+            if (l2Values.length == 1) {
+                System.out.println("  (L2 regularization strength set to " + l2Values[0] + ")");
+            } else {
+                System.out.println("  (Fitting a ridge path over " + l2Values.length + " L2 values)");
+                if (cgTolerance > 0.0) {
+                    System.out.println("  (--cg does not apply to a ridge path, every L2 value is solved"
+                            + " from one eigendecomposition)");
+                }
+            }
         } catch (NumberFormatException e) {
             System.out.println("0 (no regularization)");
-            l2 = 0.0;
+            l2Values = new double[] {0.0};
         }
     
-        try {
-            Preprocessor regPreprocessor = new Preprocessor(dataLoader);
+        try (Preprocessor regPreprocessor = new Preprocessor(dataLoader)) {
+            regPreprocessor.setCache(matrixCache);
+            regPreprocessor.setFloat32(float32);
+            regPreprocessor.setOffHeap(offHeap);
+            regPreprocessor.setSparse(sparse);
+            regPreprocessor.setSpillDirectory(spillDirectory);
             regPreprocessor.preprocess("hours.per.week", 0.8, 42, true);
         
-            double[][] X_train_reg = regPreprocessor.getXTrain();
-            double[][] X_test_reg = regPreprocessor.getXTest();
+            FeatureMatrix X_train_reg = regPreprocessor.getXTrainMatrix();
+            FeatureMatrix X_test_reg = regPreprocessor.getXTestMatrix();
             double[] y_train_reg = regPreprocessor.getYTrain();
             double[] y_test_reg = regPreprocessor.getYTest();
         
             // Train the model
             long startTime = System.currentTimeMillis();
         
-            LinearRegression model = new LinearRegression(l2);
-            model.fit(X_train_reg, y_train_reg);
+            LinearRegression model;
+            List<LinearRegression> path = null;
+            String algorithm = "Linear Regression (closed-form)";
+            double[] validationRmse = null;
+            int best = 0;
+            if (l2Values.length == 1) {
+                model = new LinearRegression(l2Values[0]);
+                if (cgTolerance > 0.0) {
+                    model.setSolver(LinearRegression.Solver.CONJUGATE_GRADIENT);
+                    model.setTolerance(cgTolerance);
+                }
+                model.fit(X_train_reg, y_train_reg);
+                if (cgTolerance > 0.0) {
+                    System.out.println("  (Conjugate gradient took " + model.getIterations() + " iterations)");
+                    algorithm = "Linear Regression (conjugate gradient)";
+                } else if (model.getSolverMethod() != LinearSolver.Method.CHOLESKY) {
+                    System.out.println("  (X^T X is not safely positive definite, solved with "
+                            + model.getSolverMethod() + ")");
+                }
+            } else {
+                // Choose L2 on rows held out of the training set, the test rows only score the result
+                // The split already shuffled the rows, so the last fifth of them is a random validation set
+                int nTrain = X_train_reg.getNumRows();
+                int nFit = (int) (nTrain * 0.8);
+                if (nFit == 0 || nFit == nTrain) {
+                    throw new IllegalStateException("Too few training rows to hold out a validation set");
+                }
+                GramAccumulator fitStatistics = new GramAccumulator(X_train_reg.getNumCols());
+                fitStatistics.add(X_train_reg, y_train_reg, 0, nFit);
+                path = LinearRegression.fitPath(fitStatistics, l2Values);
+                
+                validationRmse = new double[path.size()];
+                for (int i = 0; i < path.size(); i++) {
+                    validationRmse[i] = path.get(i).rmse(X_train_reg, y_train_reg, nFit, nTrain);
+                    if (validationRmse[i] < validationRmse[best]) {
+                        best = i;
+                    }
+                }
+                
+                // Refit the chosen L2 on every training row, only the validation rows need a new pass
+                GramAccumulator validationStatistics = new GramAccumulator(X_train_reg.getNumCols());
+                validationStatistics.add(X_train_reg, y_train_reg, nFit, nTrain);
+                fitStatistics.merge(validationStatistics);
+                model = LinearRegression.fitPath(fitStatistics, new double[] {l2Values[best]}).get(0);
+            }
         
             long endTime = System.currentTimeMillis();
             double trainTime = (endTime - startTime) / 1000.0;
         
+            // Show the validation score of every point of the path and which one was kept
+            if (path != null) {
+                System.out.println("\nRidge path (RMSE on the validation rows):");
+                for (int i = 0; i < path.size(); i++) {
+                    System.out.println("  L2 = " + l2Values[i] + ": RMSE " + String.format("%.4f", validationRmse[i])
+                            + (i == best ? "  <- chosen, refit on all training rows" : ""));
+                }
+            }
+        
             // Make predictions
             double[] y_pred_test = model.predict(X_test_reg);
         
@@ -221,7 +350,7 @@ public class Main {
             // Display the results
             System.out.println("\nOutputs:");
             System.out.println("*******");
-            System.out.println("Algorithm: Linear Regression (closed-form)");
+            System.out.println("Algorithm: " + algorithm);
             System.out.println("Train time: " + String.format("%.3f", trainTime) + " seconds");
             System.out.println("Metric 1: RMSE: " + String.format("%.4f", rmse));
             System.out.println("Metric 2: R^2: " + String.format("%.4f", r2));
@@ -470,12 +599,16 @@ public class Main {
         System.out.println("Input option 1: Target variable: income");
         System.out.println("Input option 2: No additional parameters needed");
     
-        try {
-            Preprocessor nbPreprocessor = new Preprocessor(dataLoader);
+        try (Preprocessor nbPreprocessor = new Preprocessor(dataLoader)) {
+            nbPreprocessor.setCache(matrixCache);
+            nbPreprocessor.setFloat32(float32);
+            nbPreprocessor.setOffHeap(offHeap);
+            nbPreprocessor.setSparse(sparse);
+            nbPreprocessor.setSpillDirectory(spillDirectory);
             nbPreprocessor.preprocess("income", 0.8, 42, false);
         
-            double[][] X_train_nb = nbPreprocessor.getXTrain();
-            double[][] X_test_nb = nbPreprocessor.getXTest();
+            FeatureMatrix X_train_nb = nbPreprocessor.getXTrainMatrix();
+            FeatureMatrix X_test_nb = nbPreprocessor.getXTestMatrix();
             double[] y_train_nb = nbPreprocessor.getYTrain();
             double[] y_test_nb = nbPreprocessor.getYTest();
 
@@ -518,6 +651,91 @@ public class Main {
     }
     
     
+    //k-fold cross-validation of one model with its default options, a mean and spread instead of one 80/20 score
+    private static void runCrossValidation() {
+        if (!dataLoaded) {
+            System.out.println("Please load data first (option 1)");
+            return;
+        }
+        
+        System.out.println("\nk-fold cross-validation:");
+        System.out.println("************************");
+        System.out.println("Enter input options:\n");
+        
+        System.out.print("Input option 1: model (2-6, as in the menu) = ");
+        int choice = 2;
+        try {
+            choice = Integer.parseInt(scanner.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("2 (default)");
+        }
+        
+        System.out.print("Input option 2: k = ");
+        int numFolds = 5;
+        try {
+            numFolds = Integer.parseInt(scanner.nextLine().trim());
+            if (numFolds < 2) {
+                System.out.println("  --> Need at least 2 folds, using k = 5");
+                numFolds = 5;
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("5 (default)");
+        }
+        
+        CrossValidator cv = new CrossValidator(numFolds, 42, Parallel.defaultThreads());
+        String name;
+        String target = "income";
+        boolean normalize = true;
+        Supplier<Model> factory;
+        switch (choice) {
+            case 2:
+                name = "Linear Regression";
+                target = "hours.per.week";
+                factory = () -> new LinearRegression(0.0);
+                break;
+            case 3:
+                name = "Logistic Regression";
+                factory = () -> new LogisticRegression(0.2, 400, 0.003, 7);
+                break;
+            case 4:
+                name = "k-Nearest Neighbors";
+                factory = () -> new KNearestNeighbors(5);
+                break;
+            case 5:
+                name = "Decision Tree";
+                factory = () -> new DecisionTree(10);
+                break;
+            case 6:
+                name = "Gaussian Naive Bayes";
+                normalize = false;
+                factory = GaussianNaiveBayes::new;
+                break;
+            default:
+                System.out.println("Invalid model, pick one of options 2-6");
+                return;
+        }
+        
+        if (target.equals("income")) {
+            cv.setStratified(true);
+            cv.addMetric("Accuracy", Metrics::accuracy);
+            cv.addMetric("Macro-F1", Metrics::macroF1);
+        } else {
+            cv.addMetric("RMSE", Metrics::rmse);
+            cv.addMetric("R^2", Metrics::r2Score);
+        }
+        
+        try {
+            CrossValidator.Result result = cv.run(dataLoader, target, normalize, factory);
+            System.out.println("\nOutputs:");
+            System.out.println("*******");
+            System.out.println("Algorithm: " + name + " (" + numFolds + "-fold CV, default options)");
+            System.out.println(result);
+        } catch (Exception e) {
+            System.err.println("Error during cross-validation: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
     //For the SLOC
     private static int countSloc(String filepath) {
     int sloc = 0;
@@ -0,0 +1,109 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: BatchReaderChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Random;
+
+import models.LinearRegression;
+import preprocessing.BatchReader;
+import preprocessing.DataLoader;
+import preprocessing.Dataset;
+import preprocessing.FeaturePipeline;
+import preprocessing.Preprocessor;
+import preprocessing.RowBatch;
+import utils.Matrix;
+
+//BatchReaderChecks - Streamed batches against the Dataset of the same file, and a model trained
+//batch by batch through a FeaturePipeline against one trained on the whole file
+final class BatchReaderChecks {
+
+    private BatchReaderChecks() {
+    }
+
+    static void run() throws IOException {
+        File csv = Reference.peopleCsv(10, 7);
+        File data = new File(csv.getParentFile(), "stream.csv");
+        try {
+            Random random = new Random(7);
+            String[] colors = {"red", "green", "blue", "teal"};
+            try (PrintWriter out = new PrintWriter(data, "UTF-8")) {
+                out.println("age,color,hours,weight,label");
+                for (int i = 0; i < 1000; i++) {
+                    int age = 18 + random.nextInt(60);
+                    int hours = 10 + random.nextInt(50);
+                    out.println(age + "," + colors[random.nextInt(colors.length)] + "," + hours + ".0,"
+                            + (50 + random.nextInt(400) / 4.0) + "," + (2 * age + 0.5 * hours + random.nextGaussian()));
+                }
+            }
+            DataLoader loader = new DataLoader();
+            loader.loadCSV(data.getPath());
+            Dataset dataset = loader.getDataset();
+
+            int mismatches = 0;
+            long rows = 0;
+            try (BatchReader reader = loader.openBatches(data.getPath(), 37)) {
+                for (RowBatch batch = reader.next(); batch != null; batch = reader.next()) {
+                    for (int r = 0; r < batch.size(); r++) {
+                        for (int col = 0; col < dataset.getNumCols(); col++) {
+                            if (!batch.getValue(r, col).equals(dataset.getValue((int) batch.getFirstRow() + r, col))) {
+                                mismatches++;
+                            }
+                        }
+                    }
+                    rows += batch.size();
+                }
+            }
+            Checks.check("Streamed batches print every cell like the Dataset", mismatches == 0 && rows == 1000,
+                    mismatches + " cells differ over " + rows + " rows");
+
+            // Fit the encoding on a split, then train on every row once in memory and once from the stream
+            Preprocessor preprocessor = new Preprocessor(loader);
+            preprocessor.preprocess("label", 0.8, 42, true);
+            FeaturePipeline pipeline = FeaturePipeline.fromPreprocessor(preprocessor);
+            pipeline.bind(dataset.getHeaders());
+            double[][] X = new double[dataset.getNumRows()][];
+            double[] y = dataset.getNumericColumn(dataset.getColumnIndex("label"));
+            for (int i = 0; i < X.length; i++) {
+                X[i] = pipeline.transform(dataset.getRow(i));
+            }
+            LinearRegression whole = new LinearRegression(0.1);
+            whole.fit(X, y);
+
+            LinearRegression streamed = new LinearRegression(0.1);
+            int encodeMismatches = 0;
+            try (BatchReader reader = loader.openBatches(data.getPath(), 64)) {
+                for (RowBatch batch = reader.next(); batch != null; batch = reader.next()) {
+                    Matrix encoded = pipeline.transform(batch);
+                    int first = (int) batch.getFirstRow();
+                    for (int r = 0; r < batch.size(); r++) {
+                        double[] row = new double[encoded.getNumCols()];
+                        encoded.getRow(r, row);
+                        if (!Arrays.equals(row, X[first + r])) {
+                            encodeMismatches++;
+                        }
+                    }
+                    streamed.partialFit(encoded, Arrays.copyOfRange(batch.getNumericColumn(4), 0, batch.size()));
+                }
+            }
+            streamed.solve();
+            double error = Math.abs(streamed.getBias() - whole.getBias());
+            for (int j = 0; j < X[0].length; j++) {
+                error = Math.max(error, Math.abs(streamed.getWeights()[j] - whole.getWeights()[j]));
+            }
+            Checks.check("FeaturePipeline encodes a batch like each of its records", encodeMismatches == 0,
+                    encodeMismatches + " rows differ");
+            Checks.check("Training batch by batch from the stream matches training on the whole file", error < 1e-9,
+                    "max coefficient difference " + error);
+        } finally {
+            Reference.deleteCsv(csv);
+        }
+    }
+}
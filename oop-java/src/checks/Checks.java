@@ -0,0 +1,58 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: Checks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+//Checks - Runs the standalone checks of every suite and counts what failed
+//Each suite compares a fast path with the slow, obviously correct version it replaced, on small
+//inputs with fixed seeds, so a run needs no data files and gives the same answer every time
+//Run from src: javac */*.java *.java && java checks.Checks (exit code 1 if any check fails)
+public class Checks {
+
+    private static int passed = 0;
+    private static int failed = 0;
+
+    public static void main(String[] args) throws Exception {
+        NumberParserChecks.run();
+        DataLoaderChecks.run();
+        DatasetCacheChecks.run();
+        ProjectionFilterChecks.run();
+        BatchReaderChecks.run();
+        PreprocessedCacheChecks.run();
+        NormalizerChecks.run();
+        SplitChecks.run();
+        CrossValidationChecks.run();
+        FeaturePipelineChecks.run();
+        MatrixChecks.run();
+        SolverChecks.run();
+        GramAccumulatorChecks.run();
+        PartialFitChecks.run();
+        RidgePathChecks.run();
+        ConjugateGradientChecks.run();
+        SparseMatrixChecks.run();
+        SparseEncodingChecks.run();
+        FeatureHasherChecks.run();
+        FloatMatrixChecks.run();
+        OffHeapMatrixChecks.run();
+
+        System.out.println();
+        System.out.println(passed + " checks passed, " + failed + " failed");
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    //Record one check, detail says what went wrong and is only printed on failure
+    static void check(String name, boolean ok, String detail) {
+        if (ok) {
+            passed++;
+            System.out.println("PASS " + name);
+        } else {
+            failed++;
+            System.out.println("FAIL " + name + ": " + detail);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: ConjugateGradientChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.util.Random;
+
+import models.LinearRegression;
+import utils.FeatureMatrix;
+import utils.Matrix;
+
+//ConjugateGradientChecks - The PCG solver of LinearRegression against the inverse baseline
+final class ConjugateGradientChecks {
+
+    private ConjugateGradientChecks() {
+    }
+
+    static void run() {
+        Random random = new Random(25);
+        int n = 3000;
+        int d = 20;
+        double[][] X = new double[n][d];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < d; j++) {
+                // Mostly zeros, like one-hot columns, with a few scales to give the preconditioner work
+                X[i][j] = random.nextDouble() < 0.3 ? random.nextGaussian() * (1 + j % 4) : 0.0;
+            }
+        }
+        double[] y = Reference.randomTargets(random, X);
+        double l2 = 0.1;
+        double[] expected = Reference.ridge(X, y, l2);
+
+        FeatureMatrix[] inputs = {Matrix.fromArray(X), Reference.toSparse(X)};
+        String[] names = {"dense", "CSR"};
+        for (int m = 0; m < inputs.length; m++) {
+            LinearRegression model = new LinearRegression(l2);
+            model.setSolver(LinearRegression.Solver.CONJUGATE_GRADIENT);
+            model.setTolerance(1e-12);
+            model.setNumThreads(3);
+            model.fit(inputs[m], y);
+            double worst = Math.abs(model.getBias() - expected[0]);
+            for (int j = 0; j < d; j++) {
+                worst = Math.max(worst, Math.abs(model.getWeights()[j] - expected[j + 1]));
+            }
+            Checks.check("Conjugate gradient on " + names[m] + " rows matches the inverse baseline", worst < 1e-7,
+                    "max error " + worst + " after " + model.getIterations() + " iterations");
+        }
+    }
+}
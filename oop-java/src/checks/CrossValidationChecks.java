@@ -0,0 +1,76 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: CrossValidationChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import metrics.CrossValidator;
+import metrics.Metrics;
+import models.LinearRegression;
+import preprocessing.DataLoader;
+import preprocessing.Preprocessor;
+import preprocessing.TrainTestSplitter;
+
+//CrossValidationChecks - Parallel k-fold cross-validation against the folds run one at a time
+final class CrossValidationChecks {
+
+    private CrossValidationChecks() {
+    }
+
+    static void run() throws IOException {
+        File csv = Reference.peopleCsv(500, 16);
+        try {
+            DataLoader loader = new DataLoader();
+            loader.loadCSV(csv.getPath());
+            int folds = 5;
+            long seed = 42;
+
+            // Each fold by hand: its own Preprocessor and model, nothing shared
+            int[][] foldRows = new TrainTestSplitter(seed).foldIndices(loader.getDataset().getNumRows(), folds);
+            double[] expected = new double[folds];
+            for (int f = 0; f < folds; f++) {
+                Preprocessor preprocessor = new Preprocessor(loader);
+                preprocessor.setNumThreads(1);
+                preprocessor.preprocessFold("score", TrainTestSplitter.trainRowsForFold(foldRows, f), foldRows[f], true);
+                LinearRegression model = new LinearRegression(0.1);
+                model.setNumThreads(1);
+                model.fit(preprocessor.getXTrainMatrix(), preprocessor.getYTrain());
+                expected[f] = Metrics.rmse(preprocessor.getYTest(), model.predict(preprocessor.getXTestMatrix()));
+            }
+
+            boolean same = true;
+            boolean shared = true;
+            Set<Integer> budgets = Collections.synchronizedSet(new HashSet<>());
+            for (int threads : new int[] {1, 3, 12}) {
+                budgets.clear();
+                CrossValidator validator = new CrossValidator(folds, seed, threads);
+                validator.addMetric("RMSE", Metrics::rmse);
+                CrossValidator.Result result = validator.run(loader, "score", true, () -> new LinearRegression(0.1) {
+                    @Override
+                    public void setNumThreads(int numThreads) {
+                        budgets.add(numThreads);
+                        super.setNumThreads(numThreads);
+                    }
+                });
+                same &= Arrays.equals(result.getFoldScores("RMSE"), expected);
+                // 1 and 3 threads run 1 and 3 folds at a time with 1 thread each, 12 run all 5 with 12 / 5 = 2
+                shared &= budgets.equals(Collections.singleton(Math.max(1, threads / Math.min(threads, folds))));
+            }
+            Checks.check("Cross-validation folds score like the folds run one at a time, for 1, 3 and 12 threads",
+                    same, "fold scores differ");
+            Checks.check("Cross-validation splits the thread budget between running folds", shared,
+                    "last run gave its models " + budgets + " threads");
+        } finally {
+            Reference.deleteCsv(csv);
+        }
+    }
+}
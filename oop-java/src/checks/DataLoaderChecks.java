@@ -0,0 +1,154 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: DataLoaderChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import preprocessing.DataLoader;
+import preprocessing.Dataset;
+import preprocessing.DatasetCache;
+
+//DataLoaderChecks - The mapped, columnar load against the CSV text read with split(",") + trim()
+final class DataLoaderChecks {
+
+    private DataLoaderChecks() {
+    }
+
+    static void run() throws IOException {
+        File dir = Files.createTempDirectory("loader").toFile();
+        try {
+            checkMappedLoad(dir);
+            checkDecimalSpelling(dir);
+        } finally {
+            File[] files = dir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            dir.delete();
+        }
+    }
+
+    //Odd spellings spread over many chunks must come back as they were written
+    private static void checkMappedLoad(File dir) throws IOException {
+        File csv = new File(dir, "odd.csv");
+        try (PrintWriter out = new PrintWriter(csv, "UTF-8")) {
+            out.println("a, b ,c,d");
+            out.println("37.0,x,1,?");
+            out.println("-0,y,2.50,4.0");
+            out.println("12.0,x,-0.0,5");
+            out.println("?,z,7,");
+            out.println("5.0,x,1e3, 8 ");
+            out.println("0.0,,9,12345678.0");
+            for (int i = 0; i < 400; i++) {
+                // Whole numbers spelled one way in the first rows and the other way later
+                String d = i < 200 ? Integer.toString(i) : i + ".0";
+                out.println((i % 50) + ".0,q" + (i % 3) + "," + i + "," + d);
+            }
+        }
+
+        List<String[]> expected = new ArrayList<>();
+        String[] headers;
+        try (BufferedReader reader = new BufferedReader(new FileReader(csv))) {
+            headers = trimAll(reader.readLine().split(","));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                expected.add(trimAll(line.split(",")));
+            }
+        }
+
+        DataLoader plain = new DataLoader();
+        plain.loadCSV(csv.getPath());
+        DataLoader mapped = new DataLoader();
+        mapped.loadCSVMapped(csv.getPath(), 8);
+        Dataset data = mapped.getDataset();
+        Checks.check("Mapped load gives the headers, rows and text of the CSV",
+                Arrays.equals(data.getHeaders(), headers) && sameRows(data.toRows(), expected)
+                        && sameRows(mapped.getRows(), expected),
+                "rows differ from the CSV text");
+        Checks.check("Mapped load gives the same columns as the String load",
+                data.fingerprint() == plain.getDataset().fingerprint(), "fingerprints differ");
+
+        // Projection and filter go through the byte path too
+        DataLoader projected = new DataLoader();
+        projected.setProjection("c", "b");
+        projected.addFilter("c > 100");
+        projected.loadCSVMapped(csv.getPath(), 4);
+        List<String[]> kept = new ArrayList<>();
+        for (String[] row : expected) {
+            if (Double.parseDouble(row[2]) > 100) {
+                kept.add(new String[] {row[2], row[1]});
+            }
+        }
+        Checks.check("Mapped load applies projection and filters", sameRows(projected.getRows(), kept),
+                projected.getNumRows() + " rows, expected " + kept.size());
+    }
+
+    //A column written as "37.0" prints back without keeping the text of each cell, so its cache is
+    //no larger than the cache of the same numbers written as "37"
+    private static void checkDecimalSpelling(File dir) throws IOException {
+        File whole = new File(dir, "whole.csv");
+        File decimal = new File(dir, "decimal.csv");
+        try (PrintWriter plainOut = new PrintWriter(whole, "UTF-8");
+             PrintWriter decimalOut = new PrintWriter(decimal, "UTF-8")) {
+            plainOut.println("age,hours");
+            decimalOut.println("age,hours");
+            for (int i = 0; i < 1000; i++) {
+                plainOut.println((18 + i % 60) + "," + (i % 80));
+                decimalOut.println((18 + i % 60) + ".0," + (i % 80) + ".0");
+            }
+        }
+        for (File csv : new File[] {whole, decimal}) {
+            DataLoader loader = new DataLoader();
+            loader.setUseCache(true);
+            loader.loadCSVMapped(csv.getPath(), 4);
+        }
+        long wholeSize = new File(DatasetCache.cachePath(whole.getPath())).length();
+        long decimalSize = new File(DatasetCache.cachePath(decimal.getPath())).length();
+
+        DataLoader reloaded = new DataLoader();
+        reloaded.loadCSVMapped(decimal.getPath(), 4);
+        Checks.check("Columns written as \"37.0\" keep no per-cell text",
+                wholeSize > 0 && decimalSize == wholeSize && reloaded.getDataset().getValue(5, 0).equals("23.0"),
+                "cache sizes " + wholeSize + " and " + decimalSize);
+    }
+
+    private static String[] trimAll(String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = values[i].trim();
+        }
+        return values;
+    }
+
+    // Rows compared field by field, a short CSV row equals a Dataset row padded with ""
+    private static boolean sameRows(List<String[]> actual, List<String[]> expected) {
+        if (actual.size() != expected.size()) {
+            return false;
+        }
+        for (int i = 0; i < actual.size(); i++) {
+            String[] a = actual.get(i);
+            String[] e = expected.get(i);
+            for (int j = 0; j < Math.max(a.length, e.length); j++) {
+                String x = j < a.length ? a[j] : "";
+                String y = j < e.length ? e[j] : "";
+                if (!x.equals(y)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,81 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: DatasetCacheChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import preprocessing.DataLoader;
+import preprocessing.Dataset;
+import preprocessing.DatasetCache;
+
+//DatasetCacheChecks - A cached Dataset against the Dataset parsed from the CSV, and stale or
+//damaged caches against a fresh parse
+final class DatasetCacheChecks {
+
+    private DatasetCacheChecks() {
+    }
+
+    static void run() throws IOException {
+        File csv = Reference.peopleCsv(3000, 4);
+        try {
+            DataLoader first = new DataLoader();
+            first.setUseCache(true);
+            first.loadCSV(csv.getPath());
+            Dataset parsed = first.getDataset();
+            Dataset cached = DatasetCache.read(csv.getPath());
+            Checks.check("Cached Dataset matches the parsed one",
+                    cached != null && cached.fingerprint() == parsed.fingerprint() && sameText(cached, parsed),
+                    cached == null ? "cache missed" : "cells differ");
+
+            // Same size, one byte different: the CRC has to catch it
+            byte[] bytes = Files.readAllBytes(csv.toPath());
+            int last = bytes.length - 2;
+            bytes[last] = (byte) (bytes[last] == 's' ? 'x' : 's');
+            Files.write(csv.toPath(), bytes);
+            Checks.check("Cache is ignored once the CSV changes", DatasetCache.read(csv.getPath()) == null,
+                    "stale cache was read");
+
+            // Rebuild it for the edited CSV, then cut it short
+            DataLoader second = new DataLoader();
+            second.setUseCache(true);
+            second.loadCSV(csv.getPath());
+            File cacheFile = new File(DatasetCache.cachePath(csv.getPath()));
+            boolean rebuilt = DatasetCache.read(csv.getPath()) != null;
+            try (RandomAccessFile file = new RandomAccessFile(cacheFile, "rw")) {
+                file.setLength(file.length() / 2);
+            }
+            Checks.check("Truncated cache reads as a miss", rebuilt && DatasetCache.read(csv.getPath()) == null,
+                    rebuilt ? "truncated cache was read" : "cache was not rebuilt");
+
+            // A miss falls back to parsing the CSV again
+            DataLoader third = new DataLoader();
+            third.setUseCache(true);
+            third.loadCSV(csv.getPath());
+            Dataset reparsed = third.getDataset();
+            String lastRow = String.join(",", reparsed.getRow(reparsed.getNumRows() - 1));
+            Checks.check("Load after a miss parses the CSV",
+                    reparsed.fingerprint() == second.getDataset().fingerprint()
+                            && new String(bytes, StandardCharsets.UTF_8).endsWith(lastRow + "\n"),
+                    "reloaded data differs");
+        } finally {
+            Reference.deleteCsv(csv);
+        }
+    }
+
+    private static boolean sameText(Dataset a, Dataset b) {
+        for (int i = 0; i < a.getNumRows(); i++) {
+            if (!String.join(",", a.getRow(i)).equals(String.join(",", b.getRow(i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
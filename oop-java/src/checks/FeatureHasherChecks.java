@@ -0,0 +1,109 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: FeatureHasherChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import preprocessing.DataLoader;
+import preprocessing.Dataset;
+import preprocessing.FeatureHasher;
+
+//FeatureHasherChecks - Hashed encoding on the Dataset and String row paths, across thread counts,
+//and for categories never seen in fit
+final class FeatureHasherChecks {
+
+    private static final int BUCKETS = 64;
+
+    private FeatureHasherChecks() {
+    }
+
+    static void run() throws IOException {
+        File csv = Reference.peopleCsv(500, 11);
+        try {
+            DataLoader loader = new DataLoader();
+            loader.loadCSV(csv.getPath());
+            Dataset data = loader.getDataset();
+            int numCols = data.getNumCols();
+            int[] featureColumns = new int[numCols];
+            int[] rows = new int[data.getNumRows()];
+            List<Integer> categoricalIndices = new ArrayList<>();
+            for (int col = 0; col < numCols; col++) {
+                featureColumns[col] = col;
+                if (!data.isNumeric(col)) {
+                    categoricalIndices.add(col);
+                }
+            }
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = i;
+            }
+
+            FeatureHasher columnar = new FeatureHasher(BUCKETS, 1);
+            columnar.fit(data, featureColumns, rows);
+            double[][] expected = columnar.transform(data, rows);
+
+            FeatureHasher threaded = new FeatureHasher(BUCKETS, 8);
+            threaded.fit(data, featureColumns, rows);
+            Checks.check("FeatureHasher gives the same matrix on 1 and 8 threads",
+                    Arrays.deepEquals(threaded.transform(data, rows), expected), "matrices differ");
+
+            FeatureHasher onRows = new FeatureHasher(BUCKETS, 4);
+            double[][] fromRows = onRows.fitTransform(data.getHeaders(), loader.getRows(), categoricalIndices);
+            Checks.check("FeatureHasher hashes String rows like Dataset codes",
+                    Arrays.deepEquals(fromRows, expected) && onRows.getEncodedHeaders().equals(columnar.getEncodedHeaders()),
+                    "matrices or headers differ");
+
+            // Numeric columns come first and are copied, each categorical cell adds +1 or -1 to one bucket
+            int numNumeric = numCols - categoricalIndices.size();
+            boolean layout = columnar.getNumEncodedColumns() == numNumeric + BUCKETS;
+            Map<String, double[]> blocks = new HashMap<>();
+            for (int i = 0; i < rows.length; i++) {
+                int out = 0;
+                StringBuilder key = new StringBuilder();
+                for (int col = 0; col < numCols; col++) {
+                    if (data.isNumeric(col)) {
+                        layout &= expected[i][out++] == data.getNumericColumn(col)[i];
+                    } else {
+                        key.append(data.getValue(i, col)).append(',');
+                    }
+                }
+                double[] block = Arrays.copyOfRange(expected[i], numNumeric, numNumeric + BUCKETS);
+                double total = 0.0;
+                for (double value : block) {
+                    layout &= value == Math.rint(value);
+                    total += Math.abs(value);
+                }
+                layout &= total <= categoricalIndices.size() && total % 2 == categoricalIndices.size() % 2;
+                double[] previous = blocks.putIfAbsent(key.toString(), block);
+                layout &= previous == null || Arrays.equals(previous, block);
+            }
+            Checks.check("FeatureHasher copies numbers and hashes each category to one signed bucket", layout,
+                    "a numeric cell moved or equal categories hashed apart");
+
+            // A category not seen in fit still gets a bucket, the width stays the same
+            List<String[]> unseen = new ArrayList<>();
+            unseen.add(new String[] {"30", "purple", "1.5", "yes"});
+            unseen.add(new String[] {"30", "red", "1.5", "yes"});
+            double[][] encoded = onRows.transform(unseen, categoricalIndices);
+            double purple = 0.0;
+            for (int j = numNumeric; j < encoded[0].length; j++) {
+                purple += Math.abs(encoded[0][j]);
+            }
+            Checks.check("FeatureHasher encodes unseen categories without growing",
+                    encoded[0].length == numNumeric + BUCKETS && purple > 0.0
+                            && !Arrays.equals(encoded[0], encoded[1]),
+                    "width " + encoded[0].length + ", hashed mass " + purple);
+        } finally {
+            Reference.deleteCsv(csv);
+        }
+    }
+}
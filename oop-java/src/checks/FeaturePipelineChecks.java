@@ -0,0 +1,75 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: FeaturePipelineChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import preprocessing.DataLoader;
+import preprocessing.Dataset;
+import preprocessing.FeaturePipeline;
+import preprocessing.Preprocessor;
+import preprocessing.TrainTestSplitter;
+import utils.FeatureMatrix;
+
+//FeaturePipelineChecks - A saved and reloaded pipeline must encode raw records like the Preprocessor
+final class FeaturePipelineChecks {
+
+    private FeaturePipelineChecks() {
+    }
+
+    static void run() throws IOException {
+        File csv = Reference.peopleCsv(400, 17);
+        File saved = new File(csv.getParentFile(), "pipeline.bin");
+        try {
+            DataLoader loader = new DataLoader();
+            loader.loadCSV(csv.getPath());
+            Dataset data = loader.getDataset();
+
+            for (boolean normalize : new boolean[] {true, false}) {
+                Preprocessor preprocessor = new Preprocessor(loader);
+                preprocessor.preprocess("label", 0.8, 42, normalize);
+                FeaturePipeline.fromPreprocessor(preprocessor).save(saved.getPath());
+                FeaturePipeline pipeline = FeaturePipeline.load(saved.getPath());
+                pipeline.bind(data.getHeaders());
+
+                // The same seed gives the same test rows the Preprocessor used
+                TrainTestSplitter splitter = new TrainTestSplitter(42);
+                splitter.splitIndices(data.getNumRows(), 0.8);
+                int[] testRows = splitter.getTestIndices();
+                FeatureMatrix expected = preprocessor.getXTestMatrix();
+
+                int mismatches = 0;
+                int paddedMismatches = 0;
+                double[] row = new double[expected.getNumCols()];
+                for (int i = 0; i < testRows.length; i++) {
+                    String[] record = data.getRow(testRows[i]);
+                    expected.getRow(i, row);
+                    if (!Arrays.equals(pipeline.transform(record), row)) {
+                        mismatches++;
+                    }
+                    String[] padded = new String[record.length];
+                    for (int j = 0; j < record.length; j++) {
+                        padded[j] = " " + record[j] + " ";
+                    }
+                    if (!Arrays.equals(pipeline.transform(padded), row)) {
+                        paddedMismatches++;
+                    }
+                }
+                String mode = normalize ? "normalized" : "raw";
+                Checks.check("Reloaded FeaturePipeline matches Preprocessor (" + mode + ")",
+                        mismatches == 0 && pipeline.getNumFeatures() == expected.getNumCols(),
+                        mismatches + " of " + testRows.length + " rows differ");
+                Checks.check("FeaturePipeline trims padded fields (" + mode + ")", paddedMismatches == 0,
+                        paddedMismatches + " of " + testRows.length + " rows differ");
+            }
+        } finally {
+            Reference.deleteCsv(csv);
+        }
+    }
+}
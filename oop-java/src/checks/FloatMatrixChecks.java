@@ -0,0 +1,97 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: FloatMatrixChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import models.GaussianNaiveBayes;
+import models.KNearestNeighbors;
+import models.LogisticRegression;
+import models.Model;
+import preprocessing.DataLoader;
+import preprocessing.Preprocessor;
+import utils.FeatureMatrix;
+import utils.FloatMatrix;
+import utils.Matrix;
+
+//FloatMatrixChecks - float32 preprocessing against double, and the models on float storage against
+//the same values widened to a Matrix
+final class FloatMatrixChecks {
+
+    private FloatMatrixChecks() {
+    }
+
+    static void run() throws IOException {
+        File csv = Reference.peopleCsv(600, 19);
+        try {
+            DataLoader loader = new DataLoader();
+            loader.loadCSV(csv.getPath());
+            Preprocessor wide = preprocess(loader, false);
+            Preprocessor compact = preprocess(loader, true);
+
+            FeatureMatrix X = compact.getXTrainMatrix();
+            double[][] expected = wide.getXTrain();
+            double worst = 0.0;
+            for (int i = 0; i < expected.length; i++) {
+                for (int j = 0; j < expected[i].length; j++) {
+                    worst = Math.max(worst, Math.abs(X.get(i, j) - expected[i][j]) / Math.max(1.0, Math.abs(expected[i][j])));
+                }
+            }
+            Checks.check("float32 preprocessing matches double within float precision",
+                    X instanceof FloatMatrix && worst < 1e-6, X.getClass().getSimpleName() + ", max relative error " + worst);
+
+            // Kernels read the floats and sum in double, so they agree exactly with the widened values
+            FloatMatrix train = (FloatMatrix) X;
+            FloatMatrix test = (FloatMatrix) compact.getXTestMatrix();
+            Matrix widenedTrain = Matrix.fromArray(train.toArray());
+            Matrix widenedTest = Matrix.fromArray(test.toArray());
+            double[] w = Reference.randomArray(new Random(19), 1, train.getNumCols())[0];
+            double[] accFloat = new double[train.getNumCols()];
+            double[] accWide = new double[train.getNumCols()];
+            boolean kernels = true;
+            for (int i = 0; i < train.getNumRows(); i++) {
+                kernels &= train.rowDot(i, w, 0.5) == widenedTrain.rowDot(i, w, 0.5);
+                kernels &= train.squaredDistance(i, w) == widenedTrain.squaredDistance(i, w);
+                train.addRowTo(i, w[i % w.length], accFloat);
+                widenedTrain.addRowTo(i, w[i % w.length], accWide);
+            }
+            kernels &= Arrays.equals(accFloat, accWide);
+            Checks.check("FloatMatrix row kernels sum in double like a Matrix of the same values", kernels,
+                    "a rowDot, squaredDistance or addRowTo differs");
+
+            // Classify whether the score is above 0
+            double[] y = new double[train.getNumRows()];
+            for (int i = 0; i < y.length; i++) {
+                y[i] = compact.getYTrain()[i] > 0.0 ? 1.0 : 0.0;
+            }
+            Model[][] models = {
+                    {new LogisticRegression(0.1, 50, 0.01, 19), new LogisticRegression(0.1, 50, 0.01, 19)},
+                    {new KNearestNeighbors(5), new KNearestNeighbors(5)},
+                    {new GaussianNaiveBayes(), new GaussianNaiveBayes()}};
+            for (Model[] pair : models) {
+                pair[0].fit(train, y);
+                pair[1].fit(widenedTrain, y);
+                double[] onFloat = pair[0].predict(test);
+                double[] onWide = pair[1].predict(widenedTest);
+                Checks.check(pair[0].getClass().getSimpleName() + " on a FloatMatrix predicts like on the widened Matrix",
+                        Arrays.equals(onFloat, onWide), "predictions differ");
+            }
+        } finally {
+            Reference.deleteCsv(csv);
+        }
+    }
+
+    private static Preprocessor preprocess(DataLoader loader, boolean float32) {
+        Preprocessor preprocessor = new Preprocessor(loader);
+        preprocessor.setFloat32(float32);
+        preprocessor.preprocess("score", 0.75, 19, true);
+        return preprocessor;
+    }
+}
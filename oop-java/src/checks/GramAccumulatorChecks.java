@@ -0,0 +1,154 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: GramAccumulatorChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.util.Random;
+
+import utils.FeatureMatrix;
+import utils.FloatMatrix;
+import utils.GramAccumulator;
+import utils.Matrix;
+
+//GramAccumulatorChecks - Tiled, threaded Gram sums against the naive sums of [1, x, y] z^T,
+//on sizes that leave partial tiles and blocks
+final class GramAccumulatorChecks {
+
+    private GramAccumulatorChecks() {
+    }
+
+    static void run() {
+        Random random = new Random(22);
+        int n = 1037;
+        int d = 150;
+        double[][] X = Reference.randomArray(random, n, d);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < d; j += 3) {
+                X[i][j] = 0.0;   // some zeros for the CSR copy to skip
+            }
+        }
+        double[] y = Reference.randomTargets(random, X);
+
+        // Naive sums of z_a z_b over z = [1, x, y], and the scale of each for a relative tolerance
+        int size = d + 2;
+        double[][] naive = new double[size][size];
+        double[][] scale = new double[size][size];
+        double[] z = new double[size];
+        for (int i = 0; i < n; i++) {
+            z[0] = 1.0;
+            System.arraycopy(X[i], 0, z, 1, d);
+            z[d + 1] = y[i];
+            for (int a = 0; a < size; a++) {
+                for (int b = a; b < size; b++) {
+                    naive[a][b] += z[a] * z[b];
+                    scale[a][b] += Math.abs(z[a] * z[b]);
+                }
+            }
+        }
+
+        for (int threads : new int[] {1, 8}) {
+            GramAccumulator gram = new GramAccumulator(d);
+            gram.setNumThreads(threads);
+            gram.add(Matrix.fromArray(X), y);
+            double error = error(gram, naive, scale);
+            Checks.check("Gram sums on " + threads + " thread(s) match the naive X^T X", error < 1e-12
+                    && gram.getCount() == n, "max relative error " + error + ", count " + gram.getCount());
+        }
+
+        GramAccumulator ranges = new GramAccumulator(d);
+        ranges.add(Matrix.fromArray(X), y, 0, 0);
+        ranges.add(Matrix.fromArray(X), y, 0, 389);
+        ranges.add(Reference.toSparse(X), y, 389, n);
+        double rangeError = error(ranges, naive, scale);
+        Checks.check("Gram sums added in ranges and from CSR rows match the naive X^T X",
+                rangeError < 1e-12 && ranges.getCount() == n, "max relative error " + rangeError);
+
+        // Float storage is summed in double, so it matches the naive sums of the rounded values
+        FloatMatrix compact = FloatMatrix.fromArray(X);
+        GramAccumulator floats = new GramAccumulator(d);
+        floats.add(compact, y);
+        GramAccumulator widened = new GramAccumulator(d);
+        widened.add(Matrix.fromArray(compact.toArray()), y);
+        double floatError = error(floats, widened);
+        Checks.check("Gram sums over a FloatMatrix match the sums of its widened values", floatError < 1e-12,
+                "max relative error " + floatError);
+
+        // Centered sums against a two-pass computation, on rows with a large common offset
+        double[][] far = new double[n][d];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < d; j++) {
+                far[i][j] = 1e6 + X[i][j];
+            }
+        }
+        GramAccumulator shifted = new GramAccumulator(d);
+        shifted.add(Matrix.fromArray(far), y);
+        double[] means = new double[d];
+        double meanY = 0.0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < d; j++) {
+                means[j] += far[i][j] / n;
+            }
+            meanY += y[i] / n;
+        }
+        double[][] centered = new double[d][d];
+        double[] centeredY = new double[d];
+        for (int i = 0; i < n; i++) {
+            for (int a = 0; a < d; a++) {
+                double da = far[i][a] - means[a];
+                centeredY[a] += da * (y[i] - meanY);
+                for (int b = a; b < d; b++) {
+                    centered[a][b] += da * (far[i][b] - means[b]);
+                }
+            }
+        }
+        double[][] actual = shifted.getCenteredXTX();
+        double[] actualY = shifted.getCenteredXTy();
+        double centeredError = 0.0;
+        for (int a = 0; a < d; a++) {
+            centeredError = Math.max(centeredError, Math.abs(actualY[a] - centeredY[a]) / Math.max(1.0, Math.abs(centeredY[a])));
+            for (int b = a; b < d; b++) {
+                centeredError = Math.max(centeredError,
+                        Math.abs(actual[a][b] - centered[a][b]) / Math.max(1.0, Math.abs(centered[a][b])));
+            }
+        }
+        Checks.check("Centered Gram sums keep their digits on features with a large mean", centeredError < 1e-9,
+                "max relative error " + centeredError);
+    }
+
+    // Largest error of the accumulator's raw sums against the naive ones, relative to the sum of |terms|
+    private static double error(GramAccumulator gram, double[][] naive, double[][] scale) {
+        int d = gram.getNumFeatures();
+        double[][] xtx = gram.getXTX();
+        double[] xty = gram.getXTy();
+        double worst = relative(gram.getSumYSquared(), naive[d + 1][d + 1], scale[d + 1][d + 1]);
+        worst = Math.max(worst, relative(gram.getSumY(), naive[0][d + 1], scale[0][d + 1]));
+        for (int a = 0; a <= d; a++) {
+            worst = Math.max(worst, relative(xty[a], naive[a][d + 1], scale[a][d + 1]));
+            for (int b = a; b <= d; b++) {
+                worst = Math.max(worst, relative(xtx[a][b], naive[a][b], scale[a][b]));
+            }
+        }
+        return worst;
+    }
+
+    // An all-zero column has scale 0 and must come out exactly 0
+    private static double relative(double actual, double expected, double scale) {
+        return Math.abs(actual - expected) / Math.max(Double.MIN_NORMAL, scale);
+    }
+
+    private static double error(GramAccumulator actual, GramAccumulator expected) {
+        int d = expected.getNumFeatures();
+        double[][] a = actual.getXTX();
+        double[][] e = expected.getXTX();
+        double worst = 0.0;
+        for (int i = 0; i <= d; i++) {
+            for (int j = i; j <= d; j++) {
+                worst = Math.max(worst, Math.abs(a[i][j] - e[i][j]) / Math.max(1.0, Math.abs(e[i][j])));
+            }
+        }
+        return Math.max(worst, Reference.maxError(actual.getXTy(), expected.getXTy()) / Math.max(1.0, Reference.maxAbs(expected.getXTy())));
+    }
+}
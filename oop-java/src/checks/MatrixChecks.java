@@ -0,0 +1,114 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: MatrixChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import utils.Matrix;
+import utils.TransposedMatrix;
+
+//MatrixChecks - Flat row-major Matrix and its TransposedMatrix view against plain double[][] loops
+final class MatrixChecks {
+
+    private MatrixChecks() {
+    }
+
+    static void run() {
+        Random random = new Random(18);
+        int n = 37;
+        int d = 11;
+        double[][] X = Reference.randomArray(random, n, d);
+        double[][] T = new double[d][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < d; j++) {
+                T[j][i] = X[i][j];
+            }
+        }
+        Matrix M = Matrix.fromArray(X);
+        double[] w = Reference.randomArray(random, 1, d)[0];
+        double[] v = Reference.randomArray(random, 1, n)[0];
+
+        boolean cells = Arrays.deepEquals(M.toArray(), X) && M.getNumRows() == n && M.getNumCols() == d;
+        double[] column = new double[n];
+        for (int j = 0; j < d; j++) {
+            M.getColumn(j, column);
+            cells &= Arrays.equals(column, T[j]);
+        }
+        for (int i = 0; i < n; i++) {
+            cells &= M.get(i, 3) == X[i][3] && M.getData()[M.rowOffset(i) + 3] == X[i][3];
+        }
+        Checks.check("Matrix holds the cells of the double[][] it was built from", cells, "a cell or column differs");
+
+        // Same summation order as the plain loops, so the results match exactly
+        double[] product = new double[n];
+        double[] transposed = new double[d];
+        double[] distances = new double[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < d; j++) {
+                product[i] += w[j] * X[i][j];
+                transposed[j] += X[i][j] * v[i];
+                distances[i] += (w[j] - X[i][j]) * (w[j] - X[i][j]);
+            }
+        }
+        boolean kernels = Arrays.equals(M.multiply(w), product) && Arrays.equals(M.transposeMultiply(v), transposed);
+        for (int i = 0; i < n; i++) {
+            kernels &= M.squaredDistance(i, w) == distances[i] && M.rowDot(i, w, 0.0) == product[i];
+        }
+        Checks.check("Matrix multiply, transposeMultiply and distances match plain loops", kernels, "a kernel differs");
+
+        Matrix copy = M.copy();
+        Matrix picked = M.selectRows(new int[] {5, 0, 5});
+        copy.set(0, 0, 99.0);
+        boolean copies = M.get(0, 0) == X[0][0] && Arrays.equals(picked.toArray()[0], X[5])
+                && Arrays.equals(picked.toArray()[1], X[0]) && Arrays.equals(picked.toArray()[2], X[5]);
+        Checks.check("Matrix copy and selectRows do not share storage", copies, "a copy or selected row is wrong");
+
+        boolean rejected = throwsIllegalArgument(() -> Matrix.fromArray(new double[][] {{1, 2}, {3}}))
+                && throwsIllegalArgument(() -> new Matrix(2, 3, new double[5]))
+                && throwsIllegalArgument(() -> new Matrix(-1, 3))
+                && throwsIllegalArgument(() -> new Matrix(1 << 16, 1 << 16))
+                && throwsIllegalArgument(() -> M.multiply(new double[d + 1]));
+        Checks.check("Matrix rejects ragged, mismatched and oversized input", rejected, "bad input was accepted");
+
+        // The view reads the same array column-major
+        TransposedMatrix view = M.transpose();
+        boolean viewCells = view.getNumRows() == d && view.getNumCols() == n && view.transpose() == M
+                && Arrays.deepEquals(view.toArray(), T) && Arrays.deepEquals(view.toMatrix().toArray(), T);
+        double[] acc = new double[n];
+        double[] expectedAcc = new double[n];
+        double[] halves = new double[n];
+        Arrays.fill(halves, 0.5);
+        for (int j = 0; j < d; j++) {
+            double dot = 0.25;
+            double distance = 0.0;
+            for (int i = 0; i < n; i++) {
+                dot += halves[i] * T[j][i];
+                distance += (v[i] - T[j][i]) * (v[i] - T[j][i]);
+                expectedAcc[i] += w[j] * T[j][i];
+            }
+            view.addRowTo(j, w[j], acc);
+            viewCells &= view.rowDot(j, halves, 0.25) == dot && view.squaredDistance(j, v) == distance;
+        }
+        viewCells &= Arrays.equals(acc, expectedAcc);
+        Checks.check("TransposedMatrix rows are the columns of its Matrix", viewCells, "a view row differs");
+
+        view.set(2, 7, -1.0);
+        M.set(8, 4, -2.0);
+        Checks.check("TransposedMatrix shares storage with its Matrix", M.get(7, 2) == -1.0 && view.get(4, 8) == -2.0
+                && view.getSizeBytes() == M.getSizeBytes(), "a write did not show through");
+    }
+
+    private static boolean throwsIllegalArgument(Runnable action) {
+        try {
+            action.run();
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+}
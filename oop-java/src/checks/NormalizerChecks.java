@@ -0,0 +1,170 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: NormalizerChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import preprocessing.DataLoader;
+import preprocessing.Normalizer;
+import preprocessing.Preprocessor;
+import utils.FeatureMatrix;
+import utils.FloatMatrix;
+import utils.Matrix;
+import utils.OffHeapMatrix;
+
+//NormalizerChecks - Merged moments against two passes, the in-place transforms of every matrix
+//layout against transform(double[][]), and the Normalizer the Dataset path hands out
+final class NormalizerChecks {
+
+    private NormalizerChecks() {
+    }
+
+    static void run() throws IOException {
+        checkMomentsMerge();
+        checkInPlace();
+        checkDatasetNormalizer();
+    }
+
+    //Welford moments merged with Chan's formula must match a two-pass mean and standard deviation,
+    //and the Normalizer must give the same bits however many threads it uses
+    private static void checkMomentsMerge() {
+        Random random = new Random(12);
+        int n = 10007;
+        int d = 5;
+        double[][] X = new double[n][d];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < d; j++) {
+                // A large offset is where a one-pass sum of squares loses every digit
+                X[i][j] = 1e8 * (j + 1) + random.nextGaussian() * (j + 1);
+            }
+        }
+
+        Normalizer.Moments merged = new Normalizer.Moments(d);
+        int[] cuts = {0, 1, 2000, 2001, 7500, n};
+        for (int c = 0; c + 1 < cuts.length; c++) {
+            Normalizer.Moments part = new Normalizer.Moments(d);
+            part.add(X, cuts[c], cuts[c + 1]);
+            merged.merge(part);
+        }
+
+        double worst = 0.0;
+        double[] means = merged.getMeans();
+        double[] stds = merged.getStds();
+        for (int j = 0; j < d; j++) {
+            double mean = 0.0;
+            for (int i = 0; i < n; i++) {
+                mean += X[i][j];
+            }
+            mean /= n;
+            double sumSquares = 0.0;
+            for (int i = 0; i < n; i++) {
+                sumSquares += (X[i][j] - mean) * (X[i][j] - mean);
+            }
+            double std = Math.sqrt(sumSquares / n);
+            worst = Math.max(worst, Math.abs(means[j] - mean) / Math.abs(mean));
+            worst = Math.max(worst, Math.abs(stds[j] - std) / std);
+        }
+        // Values near 1e8 carry about 1e-8 of rounding each, so agreement to 1e-7 of a unit std is exact
+        // for this data, where a one-pass sum of squares would be wrong in every digit
+        Checks.check("Moments merged over uneven parts match the two-pass statistics", merged.getCount() == n && worst < 1e-7,
+                "count " + merged.getCount() + ", worst relative error " + worst);
+
+        Matrix M = Matrix.fromArray(X);
+        Normalizer one = new Normalizer();
+        one.setNumThreads(1);
+        one.fit(M);
+        boolean same = true;
+        for (int threads : new int[] {2, 3, 8}) {
+            Normalizer many = new Normalizer();
+            many.setNumThreads(threads);
+            many.fit(M);
+            same &= Arrays.equals(one.getMeans(), many.getMeans()) && Arrays.equals(one.getStds(), many.getStds());
+        }
+        Checks.check("Normalizer statistics are bit-identical for 1, 2, 3 and 8 threads", same, "results differ");
+    }
+
+    //Stratified splits and folds must partition the rows and keep every class within one row of its share
+
+    //The Dataset path must fit a Normalizer that keeps its Moments, so partialFit still works,
+    //and its output must be the raw encoding scaled by that Normalizer
+    private static void checkDatasetNormalizer() throws IOException {
+        File csv = Reference.peopleCsv(300, 12);
+        try {
+            DataLoader loader = new DataLoader();
+            loader.loadCSV(csv.getPath());
+            Preprocessor raw = new Preprocessor(loader);
+            raw.preprocess("label", 0.8, 42, false);
+            Preprocessor scaled = new Preprocessor(loader);
+            scaled.preprocess("label", 0.8, 42, true);
+
+            double[][] rawTrain = raw.getXTrainMatrix().toArray();
+            Normalizer normalizer = scaled.getNormalizer();
+            Normalizer reference = new Normalizer();
+            reference.fit(rawTrain);
+            Checks.check("Dataset path fits its Normalizer on the encoded train rows",
+                    normalizer.getMoments() != null && Arrays.equals(normalizer.getMeans(), reference.getMeans())
+                            && Arrays.equals(normalizer.getStds(), reference.getStds()),
+                    "statistics differ from a Normalizer fitted on the raw encoding");
+            Checks.check("Dataset path output is its Normalizer applied to the raw encoding",
+                    Arrays.deepEquals(scaled.getXTrainMatrix().toArray(), reference.transform(rawTrain))
+                            && Arrays.deepEquals(scaled.getXTestMatrix().toArray(),
+                                    reference.transform(raw.getXTestMatrix().toArray())),
+                    "values differ");
+
+            String error = "";
+            try {
+                normalizer.partialFit(raw.getXTestMatrix().toArray());
+            } catch (IllegalStateException e) {
+                error = e.getMessage();
+            }
+            long count = rawTrain.length + raw.getXTestMatrix().getNumRows();
+            Checks.check("Normalizer from the Dataset path takes more rows with partialFit",
+                    error.isEmpty() && normalizer.getMoments().getCount() == count,
+                    error.isEmpty() ? "count " + normalizer.getMoments().getCount() : error);
+        } finally {
+            Reference.deleteCsv(csv);
+        }
+    }
+
+    //Scaling a Matrix, FloatMatrix or OffHeapMatrix in place must give what transform returns
+    private static void checkInPlace() {
+        Random random = new Random(13);
+        double[][] X = Reference.randomArray(random, 1001, 7);
+        Normalizer normalizer = new Normalizer();
+        normalizer.setNumThreads(3);
+        normalizer.fit(X);
+        double[][] expected = normalizer.transform(X);
+
+        Matrix dense = Matrix.fromArray(X);
+        normalizer.transformInPlace((FeatureMatrix) dense);
+        Checks.check("Normalizer scales a Matrix in place like transform", Arrays.deepEquals(dense.toArray(), expected),
+                "values differ");
+
+        try (OffHeapMatrix offHeap = OffHeapMatrix.copyOf(Matrix.fromArray(X), null)) {
+            normalizer.transformInPlace((FeatureMatrix) offHeap);
+            Checks.check("Normalizer scales an OffHeapMatrix in place like transform",
+                    Arrays.deepEquals(offHeap.toArray(), expected), "values differ");
+        }
+
+        FloatMatrix compact = FloatMatrix.fromArray(X);
+        normalizer.transformInPlace((FeatureMatrix) compact);
+        int wrong = 0;
+        for (int i = 0; i < X.length; i++) {
+            for (int j = 0; j < X[i].length; j++) {
+                // Rounded once to float from the double result of the float input
+                double scaled = ((float) X[i][j] - normalizer.getMeans()[j]) / normalizer.getStds()[j];
+                if (Math.abs(compact.get(i, j) - scaled) > Math.ulp((float) scaled)) {
+                    wrong++;
+                }
+            }
+        }
+        Checks.check("Normalizer scales a FloatMatrix in place like transform", wrong == 0, wrong + " values differ");
+    }
+}
@@ -0,0 +1,80 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: NumberParserChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import preprocessing.NumberParser;
+
+//NumberParserChecks - NumberParser must give the same bits as Double.parseDouble
+final class NumberParserChecks {
+
+    private NumberParserChecks() {
+    }
+
+    static void run() {
+        Random random = new Random(6);
+        List<String> cells = new ArrayList<>(Arrays.asList("0", "-0", "+7", "007", ".5", "5.", "1e3", "-2.5E-3",
+                " 42 ", "123456789012345", "1234567890123456789", "0.1", "9007199254740993", "1e-320", "1e308",
+                "Infinity", "NaN"));
+        for (int k = 0; k < 20000; k++) {
+            switch (k % 4) {
+                case 0:
+                    cells.add(Integer.toString(random.nextInt()));
+                    break;
+                case 1:
+                    cells.add(String.format(Locale.ROOT, "%." + random.nextInt(12) + "f", random.nextGaussian() * 1e5));
+                    break;
+                case 2:
+                    cells.add(Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20)));
+                    break;
+                default:
+                    cells.add(Long.toString(random.nextLong() >>> random.nextInt(64)) + "." + random.nextInt(1000));
+            }
+        }
+
+        NumberParser parser = new NumberParser();
+        int mismatches = 0;
+        int byteMismatches = 0;
+        String first = null;
+        for (String cell : cells) {
+            long expected = Double.doubleToLongBits(Double.parseDouble(cell.trim()));
+            double actual = parser.parse(cell, -1.0);
+            if (Double.doubleToLongBits(actual) != expected) {
+                mismatches++;
+                if (first == null) {
+                    first = "'" + cell + "' gave " + actual;
+                }
+            }
+            // The mapped loader parses straight from the bytes, with other fields around the cell
+            byte[] bytes = ("x," + cell + ",y").getBytes(StandardCharsets.US_ASCII);
+            double fromBytes = parser.parse(ByteBuffer.wrap(bytes), 2, bytes.length - 2, -1.0);
+            if (Double.doubleToLongBits(fromBytes) != expected) {
+                byteMismatches++;
+            }
+        }
+        Checks.check("NumberParser matches Double.parseDouble on " + cells.size() + " cells", mismatches == 0,
+                mismatches + " mismatches, first " + first);
+        Checks.check("NumberParser on byte ranges matches Double.parseDouble", byteMismatches == 0,
+                byteMismatches + " mismatches");
+
+        NumberParser badParser = new NumberParser();
+        String[] bad = {"", "?", "abc", "1.2.3", "--1", "1e", "e5"};
+        boolean fallbacks = true;
+        for (String cell : bad) {
+            fallbacks &= badParser.parse(cell, -1.0) == -1.0;
+        }
+        Checks.check("NumberParser returns the fallback and counts bad cells",
+                fallbacks && badParser.getBadCells() == bad.length, "bad cells counted " + badParser.getBadCells());
+    }
+}
@@ -0,0 +1,120 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: OffHeapMatrixChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import preprocessing.DataLoader;
+import preprocessing.Preprocessor;
+import utils.Matrix;
+import utils.OffHeapMatrix;
+
+//OffHeapMatrixChecks - Direct and file-backed matrices against the heap Matrix they copy, and the
+//spill files they leave behind once closed
+final class OffHeapMatrixChecks {
+
+    private OffHeapMatrixChecks() {
+    }
+
+    static void run() throws IOException {
+        Random random = new Random(20);
+        double[][] X = Reference.randomArray(random, 53, 9);
+        Matrix heap = Matrix.fromArray(X);
+        double[] w = Reference.randomArray(random, 1, 9)[0];
+        Path spill = Files.createTempDirectory("spill");
+        try {
+            try (OffHeapMatrix direct = OffHeapMatrix.copyOf(heap, null);
+                 OffHeapMatrix mapped = OffHeapMatrix.copyOf(heap, spill)) {
+                boolean same = true;
+                for (OffHeapMatrix m : new OffHeapMatrix[] {direct, mapped}) {
+                    same &= Arrays.deepEquals(m.toArray(), X) && m.getSizeBytes() == heap.getSizeBytes();
+                    double[] acc = new double[9];
+                    double[] expectedAcc = new double[9];
+                    for (int i = 0; i < X.length; i++) {
+                        same &= m.rowDot(i, w, 1.5) == heap.rowDot(i, w, 1.5)
+                                && m.squaredDistance(i, w) == heap.squaredDistance(i, w);
+                        m.addRowTo(i, 0.5, acc);
+                        heap.addRowTo(i, 0.5, expectedAcc);
+                    }
+                    same &= Arrays.equals(acc, expectedAcc);
+                }
+                Checks.check("Off-heap matrices hold and compute like the heap Matrix", same && !direct.isFileBacked()
+                        && mapped.isFileBacked() && Files.exists(mapped.getFile()), "a value or kernel differs");
+
+                // A block lands at its first row and leaves the rest alone
+                direct.setRows(10, Matrix.fromArray(new double[][] {w, w}));
+                double[] row = new double[9];
+                direct.getRow(11, row);
+                boolean placed = Arrays.equals(row, w) && direct.get(9, 0) == X[9][0] && direct.get(12, 0) == X[12][0];
+                Checks.check("Off-heap setRows writes a block at its first row", placed, "rows around the block changed");
+            }
+            Checks.check("Closing a spilled matrix deletes its file", countFiles(spill) == 0,
+                    countFiles(spill) + " files left in the spill directory");
+
+            // map() keeps its file, so a later run opens the same values
+            Path kept = spill.resolve("kept.bin");
+            try (OffHeapMatrix written = OffHeapMatrix.map(kept, X.length, 9)) {
+                written.setRows(0, heap);
+            }
+            OffHeapMatrix reopened = OffHeapMatrix.map(kept, X.length, 9);
+            boolean reread = Arrays.deepEquals(reopened.toArray(), X);
+            reopened.close();
+            boolean closed;
+            try {
+                reopened.get(0, 0);
+                closed = false;
+            } catch (IllegalStateException e) {
+                closed = true;
+            }
+            Checks.check("A mapped file keeps its values across opens and a closed matrix refuses reads",
+                    reread && closed && Files.exists(kept), "values lost or a closed matrix was read");
+            Files.delete(kept);
+
+            checkPreprocessor(spill);
+        } finally {
+            Files.deleteIfExists(spill);
+        }
+    }
+
+    // A spilling Preprocessor gives the heap matrices and deletes its files on every re-run and close
+    private static void checkPreprocessor(Path spill) throws IOException {
+        File csv = Reference.peopleCsv(300, 20);
+        try {
+            DataLoader loader = new DataLoader();
+            loader.loadCSV(csv.getPath());
+            Preprocessor onHeap = new Preprocessor(loader);
+            onHeap.preprocess("score", 0.75, 20, true);
+
+            int filesWhileOpen;
+            boolean same;
+            try (Preprocessor spilled = new Preprocessor(loader)) {
+                spilled.setSpillDirectory(spill);
+                spilled.preprocess("score", 0.75, 7, true);
+                spilled.preprocess("score", 0.75, 20, true);
+                filesWhileOpen = countFiles(spill);
+                same = spilled.getXTrainMatrix() instanceof OffHeapMatrix
+                        && Arrays.deepEquals(spilled.getXTrain(), onHeap.getXTrain())
+                        && Arrays.deepEquals(spilled.getXTest(), onHeap.getXTest());
+            }
+            Checks.check("Spilled preprocessing matches the heap matrices", same, "a spilled matrix differs");
+            Checks.check("Preprocessor deletes its spill files on re-run and close", filesWhileOpen == 2
+                    && countFiles(spill) == 0, filesWhileOpen + " files while open, " + countFiles(spill) + " after close");
+        } finally {
+            Reference.deleteCsv(csv);
+        }
+    }
+
+    private static int countFiles(Path directory) {
+        String[] names = directory.toFile().list();
+        return names == null ? 0 : names.length;
+    }
+}
@@ -0,0 +1,104 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: PartialFitChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import models.LinearRegression;
+import utils.GramAccumulator;
+import utils.Matrix;
+
+//PartialFitChecks - LinearRegression trained batch by batch, and across a save/load of its
+//statistics, against a single fit on all the rows
+final class PartialFitChecks {
+
+    // Uneven batch edges, including an empty batch
+    private static final int[] EDGES = {0, 1, 97, 97, 260, 511, 512, 800};
+
+    private PartialFitChecks() {
+    }
+
+    static void run() throws IOException {
+        Random random = new Random(23);
+        double[][] X = Reference.randomArray(random, EDGES[EDGES.length - 1], 9);
+        double[] y = Reference.randomTargets(random, X);
+        double l2 = 0.5;
+
+        LinearRegression single = new LinearRegression(l2);
+        single.fit(X, y);
+        double[] expected = coefficients(single);
+        double baseline = Reference.maxError(expected, Reference.ridge(X, y, l2));
+        Checks.check("Single fit matches the inverse baseline", baseline < 1e-8, "max error " + baseline);
+
+        LinearRegression batched = new LinearRegression(l2);
+        for (int b = 0; b + 1 < EDGES.length; b++) {
+            batched.partialFit(batch(X, b), Arrays.copyOfRange(y, EDGES[b], EDGES[b + 1]));
+        }
+        batched.solve();
+        double batchError = Reference.maxError(coefficients(batched), expected);
+        Checks.check("partialFit over uneven batches matches a single fit", batchError < 1e-9
+                && batched.getStatistics().getCount() == X.length, "max coefficient error " + batchError);
+
+        // Save after some batches, then carry on in a new model from the loaded statistics
+        int half = EDGES.length / 2;
+        LinearRegression first = new LinearRegression(l2);
+        for (int b = 0; b < half; b++) {
+            first.partialFit(batch(X, b), Arrays.copyOfRange(y, EDGES[b], EDGES[b + 1]));
+        }
+        File file = File.createTempFile("partial", ".gram");
+        try {
+            first.getStatistics().save(file.getPath());
+            GramAccumulator loaded = GramAccumulator.load(file.getPath());
+            LinearRegression resumed = new LinearRegression(l2);
+            resumed.setStatistics(loaded);
+            for (int b = half; b + 1 < EDGES.length; b++) {
+                resumed.partialFit(batch(X, b), Arrays.copyOfRange(y, EDGES[b], EDGES[b + 1]));
+            }
+            resumed.solve();
+            double resumedError = Reference.maxError(coefficients(resumed), expected);
+            Checks.check("partialFit resumed from saved statistics matches a single fit", resumedError < 1e-9
+                    && loaded.getCount() == EDGES[half] && resumed.getStatistics().getCount() == X.length,
+                    "max coefficient error " + resumedError + ", loaded count " + loaded.getCount());
+        } finally {
+            file.delete();
+        }
+
+        // fit() starts over, whatever partialFit saw before
+        LinearRegression refit = new LinearRegression(l2);
+        refit.partialFit(Reference.randomArray(random, 40, 9), new double[40]);
+        refit.fit(X, y);
+        boolean emptySolve;
+        try {
+            new LinearRegression(l2).solve();
+            emptySolve = false;
+        } catch (IllegalStateException e) {
+            emptySolve = true;
+        }
+        Checks.check("fit discards earlier batches and solve needs a batch",
+                Arrays.equals(coefficients(refit), expected) && emptySolve, "stale rows were kept or solve ran empty");
+    }
+
+    // An empty batch still has the feature columns, which fromArray cannot tell from no rows
+    private static Matrix batch(double[][] X, int b) {
+        if (EDGES[b] == EDGES[b + 1]) {
+            return new Matrix(0, X[0].length);
+        }
+        return Matrix.fromArray(Arrays.copyOfRange(X, EDGES[b], EDGES[b + 1]));
+    }
+
+    // [bias, w] of a fitted model, the layout Reference.ridge returns
+    private static double[] coefficients(LinearRegression model) {
+        double[] w = model.getWeights();
+        double[] result = new double[w.length + 1];
+        result[0] = model.getBias();
+        System.arraycopy(w, 0, result, 1, w.length);
+        return result;
+    }
+}
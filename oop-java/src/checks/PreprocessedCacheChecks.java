@@ -0,0 +1,118 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: PreprocessedCacheChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import preprocessing.DataLoader;
+import preprocessing.PreprocessedCache;
+import preprocessing.Preprocessor;
+import utils.Matrix;
+
+//PreprocessedCacheChecks - Cache hits against fresh preprocessing, isolation of the copies handed out,
+//the key and the memory budget
+final class PreprocessedCacheChecks {
+
+    private PreprocessedCacheChecks() {
+    }
+
+    static void run() throws IOException {
+        File csv = Reference.peopleCsv(400, 14);
+        try {
+            DataLoader loader = new DataLoader();
+            loader.loadCSV(csv.getPath());
+            Preprocessor fresh = preprocess(loader, null, 42, true);
+
+            PreprocessedCache cache = new PreprocessedCache(1L << 30);
+            Preprocessor first = preprocess(loader, cache, 42, true);
+            Preprocessor hit = preprocess(loader, cache, 42, true);
+            Checks.check("Cache hit gives the matrices of a fresh preprocess",
+                    cache.getMisses() == 1 && cache.getHits() == 1 && sameResult(hit, fresh) && sameResult(first, fresh),
+                    cache.getHits() + " hits, " + cache.getMisses() + " misses");
+
+            // Scribble over everything the first two callers got, then ask again
+            for (Preprocessor used : new Preprocessor[] {first, hit}) {
+                Matrix X = (Matrix) used.getXTrainMatrix();
+                Arrays.fill(X.getData(), 7.0);
+                Arrays.fill(used.getYTrain(), 7.0);
+                used.getNormalizer().getMeans()[0] = 7.0;
+                List<Integer> categorical = new ArrayList<>();
+                categorical.add(0);
+                used.getEncoder().fit(new String[] {"other"}, loader.getRows(), categorical);
+            }
+            Preprocessor again = preprocess(loader, cache, 42, true);
+            Checks.check("Cache hits are copies that later callers cannot change",
+                    sameResult(again, fresh) && again.getXTrainMatrix() != hit.getXTrainMatrix(),
+                    "a change to a handed-out entry reached the cache");
+
+            // Every part of the key decides, a different seed, target, normalize or float32 is a miss
+            long misses = cache.getMisses();
+            preprocess(loader, cache, 43, true);
+            preprocess(loader, cache, 42, false);
+            Preprocessor compact = new Preprocessor(loader);
+            compact.setCache(cache);
+            compact.setFloat32(true);
+            compact.preprocess("score", 0.75, 42, true);
+            Preprocessor age = new Preprocessor(loader);
+            age.setCache(cache);
+            age.preprocess("age", 0.75, 42, true);
+            Checks.check("Cache misses when any part of the key changes", cache.getMisses() == misses + 4
+                    && cache.size() == 5, (cache.getMisses() - misses) + " misses, " + cache.size() + " entries");
+
+            // Off-heap and sparse matrices never go through the cache
+            long before = cache.getHits() + cache.getMisses();
+            try (Preprocessor offHeap = new Preprocessor(loader)) {
+                offHeap.setCache(cache);
+                offHeap.setOffHeap(true);
+                offHeap.preprocess("score", 0.75, 42, true);
+            }
+            Preprocessor sparse = new Preprocessor(loader);
+            sparse.setCache(cache);
+            sparse.setSparse(true);
+            sparse.preprocess("score", 0.75, 42, true);
+            Checks.check("Off-heap and sparse preprocessing skip the cache",
+                    cache.getHits() + cache.getMisses() == before && cache.size() == 5, "the cache was used");
+
+            // A budget of one entry keeps only the most recent one, and nothing bigger than the budget
+            long entryBytes = fresh.getXTrainMatrix().getSizeBytes() + fresh.getXTestMatrix().getSizeBytes()
+                    + 8L * (fresh.getYTrain().length + fresh.getYTest().length);
+            PreprocessedCache small = new PreprocessedCache(entryBytes + entryBytes / 2);
+            preprocess(loader, small, 1, true);
+            preprocess(loader, small, 2, true);
+            preprocess(loader, small, 2, true);
+            preprocess(loader, small, 1, true);
+            PreprocessedCache tiny = new PreprocessedCache(entryBytes - 1);
+            preprocess(loader, tiny, 1, true);
+            Checks.check("Cache keeps to its budget and drops the least recently used entry",
+                    small.size() == 1 && small.getSizeBytes() <= small.getMaxBytes() && small.getHits() == 1
+                            && small.getMisses() == 3 && tiny.size() == 0,
+                    small.size() + " entries, " + small.getHits() + " hits, tiny cache holds " + tiny.size());
+        } finally {
+            Reference.deleteCsv(csv);
+        }
+    }
+
+    private static Preprocessor preprocess(DataLoader loader, PreprocessedCache cache, long seed, boolean normalize) {
+        Preprocessor preprocessor = new Preprocessor(loader);
+        preprocessor.setCache(cache);
+        preprocessor.preprocess("score", 0.75, seed, normalize);
+        return preprocessor;
+    }
+
+    private static boolean sameResult(Preprocessor actual, Preprocessor expected) {
+        return Arrays.deepEquals(actual.getXTrain(), expected.getXTrain())
+                && Arrays.deepEquals(actual.getXTest(), expected.getXTest())
+                && Arrays.equals(actual.getYTrain(), expected.getYTrain())
+                && Arrays.equals(actual.getYTest(), expected.getYTest())
+                && Arrays.equals(actual.getNormalizer().getMeans(), expected.getNormalizer().getMeans())
+                && actual.getEncoder().getEncodedHeaders().equals(expected.getEncoder().getEncodedHeaders());
+    }
+}
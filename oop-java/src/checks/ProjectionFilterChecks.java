@@ -0,0 +1,108 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: ProjectionFilterChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import preprocessing.DataLoader;
+import preprocessing.DatasetCache;
+import preprocessing.RowFilter;
+
+//ProjectionFilterChecks - Projected and filtered loads against filtering the full load by hand
+final class ProjectionFilterChecks {
+
+    private ProjectionFilterChecks() {
+    }
+
+    static void run() throws IOException {
+        checkFilterOnBytes();
+
+        File csv = Reference.peopleCsv(2000, 5);
+        try {
+            DataLoader full = new DataLoader();
+            full.loadCSV(csv.getPath());
+            List<String[]> expected = new ArrayList<>();
+            for (String[] row : full.getRows()) {
+                if (Integer.parseInt(row[0]) >= 40 && !row[1].equals("red")) {
+                    expected.add(new String[] {row[2], row[1]});
+                }
+            }
+
+            boolean same = true;
+            for (boolean mapped : new boolean[] {false, true}) {
+                DataLoader loader = new DataLoader();
+                loader.setUseCache(true);
+                loader.setProjection("score", "COLOR");
+                loader.addFilter("age >= 40");
+                loader.addFilter("color != red");
+                if (mapped) {
+                    loader.loadCSVMapped(csv.getPath(), 4);
+                } else {
+                    loader.loadCSV(csv.getPath());
+                }
+                same &= Arrays.equals(loader.getHeaders(), new String[] {"score", "color"})
+                        && loader.getNumRows() == expected.size();
+                for (int i = 0; same && i < expected.size(); i++) {
+                    same = Arrays.equals(loader.getRows().get(i), expected.get(i));
+                }
+            }
+            Checks.check("Projected and filtered loads keep the matching rows and columns", same,
+                    "rows differ from filtering the full load");
+            Checks.check("Projected and filtered loads do not write the cache",
+                    !new File(DatasetCache.cachePath(csv.getPath())).exists(), "a partial load was cached");
+
+            boolean rejected = true;
+            for (String column : new String[] {"height", "colour"}) {
+                DataLoader loader = new DataLoader();
+                if (column.equals("height")) {
+                    loader.setProjection(column);
+                } else {
+                    loader.addFilter(column + " == red");
+                }
+                try {
+                    loader.loadCSVMapped(csv.getPath(), 2);
+                    rejected = false;
+                } catch (IllegalArgumentException e) {
+                    // expected
+                }
+            }
+            Checks.check("Unknown projection and filter columns are rejected", rejected, "a load went through");
+        } finally {
+            Reference.deleteCsv(csv);
+        }
+    }
+
+    //The byte path of a filter must decide every cell like the String path
+    private static void checkFilterOnBytes() {
+        String[] cells = {"30", "30.0", "29.5", "31", "-4", "", "?", "abc", "3e1", "United-States"};
+        String[] expressions = {"x > 30", "x >= 30", "x < 30", "x <= 30", "x == 30", "x != 30",
+                "x == United-States", "x != United-States"};
+        int disagreements = 0;
+        for (String expression : expressions) {
+            RowFilter filter = RowFilter.parse(expression);
+            filter.bind(new String[] {"x"});
+            for (String cell : cells) {
+                ByteBuffer buffer = ByteBuffer.wrap(cell.getBytes(StandardCharsets.UTF_8));
+                if (filter.matches(new String[] {cell}) != filter.matches(buffer, 0, buffer.limit())) {
+                    disagreements++;
+                }
+            }
+        }
+        RowFilter atLeast = RowFilter.parse("x >= 30");
+        atLeast.bind(new String[] {"x"});
+        boolean numeric = atLeast.matches(new String[] {"30.0"}) && atLeast.matches(new String[] {"3e1"})
+                && !atLeast.matches(new String[] {"29.5"}) && !atLeast.matches(new String[] {"?"});
+        Checks.check("Filters decide bytes like Strings and compare numbers by value",
+                disagreements == 0 && numeric, disagreements + " cells decided differently");
+    }
+}
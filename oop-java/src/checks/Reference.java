@@ -0,0 +1,196 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: Reference.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import utils.SparseMatrix;
+
+//Reference - Slow, obviously correct versions the checks compare against, and seeded test data
+final class Reference {
+
+    private Reference() {
+    }
+
+    //Small CSV of people in a new temporary directory: age, color, score and a yes/no label
+    //Delete it with deleteCsv when done
+    static File peopleCsv(int rows, long seed) throws IOException {
+        File dir = Files.createTempDirectory("checks").toFile();
+        File csv = new File(dir, "people.csv");
+        String[] colors = {"red", "green", "blue", "teal"};
+        Random random = new Random(seed);
+        try (PrintWriter out = new PrintWriter(csv, "UTF-8")) {
+            out.println("age,color,score,label");
+            for (int i = 0; i < rows; i++) {
+                out.println((18 + random.nextInt(60)) + "," + colors[random.nextInt(colors.length)] + ","
+                        + String.format(Locale.ROOT, "%.3f", random.nextGaussian() * 10) + ","
+                        + (random.nextBoolean() ? "yes" : "no"));
+            }
+        }
+        return csv;
+    }
+
+    //Remove a CSV from peopleCsv with everything written next to it
+    static void deleteCsv(File csv) {
+        File dir = csv.getParentFile();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    //Weights and bias [b, w] of ridge regression by the original method: invert the normal equations
+    //The bias is not penalized and l2 has the same 1e-8 floor as LinearRegression
+    static double[] ridge(double[][] X, double[] y, double l2) {
+        int d = X[0].length;
+        double[][] A = new double[d + 1][d + 1];
+        double[] rhs = new double[d + 1];
+        double[] z = new double[d + 1];
+        for (int i = 0; i < X.length; i++) {
+            z[0] = 1.0;
+            System.arraycopy(X[i], 0, z, 1, d);
+            for (int a = 0; a <= d; a++) {
+                for (int b = 0; b <= d; b++) {
+                    A[a][b] += z[a] * z[b];
+                }
+                rhs[a] += z[a] * y[i];
+            }
+        }
+        for (int a = 1; a <= d; a++) {
+            A[a][a] += Math.max(l2, 1e-8);
+        }
+        return multiply(inverse(A), rhs);
+    }
+
+    //Gauss-Jordan inverse with partial pivoting, as in the first LinearRegression
+    static double[][] inverse(double[][] matrix) {
+        int n = matrix.length;
+        double[][] augmented = new double[n][2 * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(matrix[i], 0, augmented[i], 0, n);
+            augmented[i][i + n] = 1.0;
+        }
+
+        for (int i = 0; i < n; i++) {
+            int maxRow = i;
+            for (int k = i + 1; k < n; k++) {
+                if (Math.abs(augmented[k][i]) > Math.abs(augmented[maxRow][i])) {
+                    maxRow = k;
+                }
+            }
+            double[] tmp = augmented[i];
+            augmented[i] = augmented[maxRow];
+            augmented[maxRow] = tmp;
+
+            double pivot = augmented[i][i];
+            for (int j = 0; j < 2 * n; j++) {
+                augmented[i][j] /= pivot;
+            }
+            for (int k = 0; k < n; k++) {
+                if (k != i) {
+                    double factor = augmented[k][i];
+                    for (int j = 0; j < 2 * n; j++) {
+                        augmented[k][j] -= factor * augmented[i][j];
+                    }
+                }
+            }
+        }
+
+        double[][] inverse = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(augmented[i], n, inverse[i], 0, n);
+        }
+        return inverse;
+    }
+
+    static double[] multiply(double[][] A, double[] x) {
+        double[] result = new double[A.length];
+        for (int i = 0; i < A.length; i++) {
+            for (int j = 0; j < x.length; j++) {
+                result[i] += A[i][j] * x[j];
+            }
+        }
+        return result;
+    }
+
+    //CSR copy of X keeping only its nonzero cells
+    static SparseMatrix toSparse(double[][] X) {
+        int[] rowPtr = new int[X.length + 1];
+        List<Integer> cols = new ArrayList<>();
+        List<Double> values = new ArrayList<>();
+        for (int i = 0; i < X.length; i++) {
+            for (int j = 0; j < X[i].length; j++) {
+                if (X[i][j] != 0.0) {
+                    cols.add(j);
+                    values.add(X[i][j]);
+                }
+            }
+            rowPtr[i + 1] = cols.size();
+        }
+        int[] colArray = new int[cols.size()];
+        double[] valueArray = new double[values.size()];
+        for (int k = 0; k < colArray.length; k++) {
+            colArray[k] = cols.get(k);
+            valueArray[k] = values.get(k);
+        }
+        return new SparseMatrix(X.length, X[0].length, rowPtr, colArray, valueArray);
+    }
+
+    //Standard normal cells
+    static double[][] randomArray(Random random, int rows, int cols) {
+        double[][] X = new double[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                X[i][j] = random.nextGaussian();
+            }
+        }
+        return X;
+    }
+
+    //y = 3 + sum((j + 1) x_j) + noise
+    static double[] randomTargets(Random random, double[][] X) {
+        double[] y = new double[X.length];
+        for (int i = 0; i < X.length; i++) {
+            y[i] = 3.0 + random.nextGaussian();
+            for (int j = 0; j < X[i].length; j++) {
+                y[i] += (j + 1) * X[i][j];
+            }
+        }
+        return y;
+    }
+
+    //|actual - expected| everywhere within tolerance, relative to the size of expected
+    static boolean close(double[] actual, double[] expected, double tolerance) {
+        return maxError(actual, expected) <= tolerance * (1.0 + maxAbs(expected));
+    }
+
+    static double maxError(double[] actual, double[] expected) {
+        double worst = 0.0;
+        for (int i = 0; i < expected.length; i++) {
+            worst = Math.max(worst, Math.abs(actual[i] - expected[i]));
+        }
+        return worst;
+    }
+
+    static double maxAbs(double[] values) {
+        double max = 0.0;
+        for (double v : values) {
+            max = Math.max(max, Math.abs(v));
+        }
+        return max;
+    }
+}
@@ -0,0 +1,149 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: RidgePathChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import models.LinearRegression;
+import utils.GramAccumulator;
+import utils.Matrix;
+
+//RidgePathChecks - The eigen ridge path and the shifted statistics it is read from, against
+//ridge solved by the inverse on explicitly centered rows
+final class RidgePathChecks {
+
+    private RidgePathChecks() {
+    }
+
+    static void run() throws IOException {
+        Random random = new Random(24);
+        double[][] X = Reference.randomArray(random, 400, 6);
+        double[] y = Reference.randomTargets(random, X);
+        double[] l2Values = {0.0, 0.1, 10.0, 1000.0};
+
+        List<LinearRegression> path = LinearRegression.fitPath(Matrix.fromArray(X), y, l2Values);
+        double worst = 0.0;
+        for (int k = 0; k < l2Values.length; k++) {
+            worst = Math.max(worst, Reference.maxError(coefficients(path.get(k)), Reference.ridge(X, y, l2Values[k])));
+        }
+        Checks.check("Ridge path matches the inverse baseline at every L2", worst < 1e-8, "max error " + worst);
+
+        boolean shared = true;
+        for (LinearRegression model : path) {
+            shared &= model.getStatistics() == path.get(0).getStatistics();
+        }
+        Checks.check("Ridge path models share one copy of the statistics", shared, "models hold separate copies");
+
+        // Adding rows to one model of the path must not reach the others
+        long before = path.get(1).getStatistics().getCount();
+        path.get(0).partialFit(Matrix.fromArray(X), y);
+        Checks.check("partialFit on a path model leaves the shared statistics alone",
+                path.get(1).getStatistics().getCount() == before
+                        && path.get(0).getStatistics().getCount() == 2 * before,
+                "counts " + path.get(0).getStatistics().getCount() + " and " + path.get(1).getStatistics().getCount());
+
+        // Features around 1e6 with unit spread: X^T X - n mean mean^T loses about 12 of the 16 digits
+        double[][] far = new double[X.length][X[0].length];
+        for (int i = 0; i < X.length; i++) {
+            for (int j = 0; j < X[i].length; j++) {
+                far[i][j] = 1e6 * (j + 1) + X[i][j];
+            }
+        }
+        double[] farY = new double[y.length];
+        for (int i = 0; i < y.length; i++) {
+            farY[i] = 5e5 + y[i];
+        }
+        double[] expected = centeredRidge(far, farY, 0.1);
+        double[] actual = coefficients(LinearRegression.fitPath(Matrix.fromArray(far), farY, new double[]{0.1}).get(0));
+        double weightError = 0.0;
+        for (int j = 1; j < expected.length; j++) {
+            weightError = Math.max(weightError, Math.abs(actual[j] - expected[j]));
+        }
+        Checks.check("Ridge path keeps its weights on features with a large mean", weightError < 1e-8,
+                "max weight error " + weightError);
+
+        // Halves with different first rows merge, and save/load, to the statistics of all the rows
+        GramAccumulator all = new GramAccumulator(far[0].length);
+        all.add(Matrix.fromArray(far), farY);
+        GramAccumulator merged = new GramAccumulator(far[0].length);
+        merged.add(Matrix.fromArray(far), farY, 0, far.length / 2);
+        GramAccumulator second = new GramAccumulator(far[0].length);
+        second.add(Matrix.fromArray(far), farY, far.length / 2, far.length);
+        merged.merge(second);
+        File file = File.createTempFile("gram", ".bin");
+        try {
+            merged.save(file.getPath());
+            GramAccumulator loaded = GramAccumulator.load(file.getPath());
+            double centeredError = 0.0;
+            double[][] expectedC = all.getCenteredXTX();
+            double[][] mergedC = merged.getCenteredXTX();
+            double[][] loadedC = loaded.getCenteredXTX();
+            for (int a = 0; a < expectedC.length; a++) {
+                for (int b = a; b < expectedC.length; b++) {
+                    double scale = Math.max(1.0, Math.abs(expectedC[a][b]));
+                    centeredError = Math.max(centeredError, Math.abs(mergedC[a][b] - expectedC[a][b]) / scale);
+                    centeredError = Math.max(centeredError, Math.abs(loadedC[a][b] - expectedC[a][b]) / scale);
+                }
+            }
+            double meanError = Math.max(Reference.maxError(merged.getMeans(), all.getMeans()),
+                    Reference.maxError(loaded.getMeans(), all.getMeans()));
+            Checks.check("Merged and reloaded statistics match the statistics of all the rows",
+                    centeredError < 1e-10 && meanError < 1e-6 && loaded.getCount() == all.getCount(),
+                    "centered error " + centeredError + ", mean error " + meanError);
+        } finally {
+            file.delete();
+        }
+    }
+
+    // [bias, w] of a fitted model, the layout Reference.ridge returns
+    private static double[] coefficients(LinearRegression model) {
+        double[] w = model.getWeights();
+        double[] result = new double[w.length + 1];
+        result[0] = model.getBias();
+        System.arraycopy(w, 0, result, 1, w.length);
+        return result;
+    }
+
+    // Ridge with the means taken out first in a separate pass, the bias put back from them
+    private static double[] centeredRidge(double[][] X, double[] y, double l2) {
+        int n = X.length;
+        int d = X[0].length;
+        double[] means = new double[d];
+        double yMean = 0.0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < d; j++) {
+                means[j] += X[i][j] / n;
+            }
+            yMean += y[i] / n;
+        }
+        double[][] A = new double[d][d];
+        double[] b = new double[d];
+        for (int i = 0; i < n; i++) {
+            for (int a = 0; a < d; a++) {
+                double xa = X[i][a] - means[a];
+                for (int c = 0; c < d; c++) {
+                    A[a][c] += xa * (X[i][c] - means[c]);
+                }
+                b[a] += xa * (y[i] - yMean);
+            }
+        }
+        for (int a = 0; a < d; a++) {
+            A[a][a] += l2;
+        }
+        double[] w = Reference.multiply(Reference.inverse(A), b);
+        double[] result = new double[d + 1];
+        result[0] = yMean;
+        for (int j = 0; j < d; j++) {
+            result[0] -= means[j] * w[j];
+            result[j + 1] = w[j];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,103 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: SolverChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+import models.LinearRegression;
+import utils.LinearSolver;
+import utils.Matrix;
+
+//SolverChecks - Cholesky, LDL^T and QR against x = A^-1 b from the Gauss-Jordan baseline
+final class SolverChecks {
+
+    private SolverChecks() {
+    }
+
+    static void run() {
+        Random random = new Random(21);
+        int d = 12;
+        double[][] B = Reference.randomArray(random, 40, d);
+        double[][] A = new double[d][d];
+        for (int a = 0; a < d; a++) {
+            for (int b = 0; b < d; b++) {
+                for (double[] row : B) {
+                    A[a][b] += row[a] * row[b];
+                }
+            }
+            A[a][a] += 1.0;
+        }
+        double[] rhs = Reference.randomArray(random, 1, d)[0];
+        double[] expected = Reference.multiply(Reference.inverse(A), rhs);
+
+        double[][] L = LinearSolver.cholesky(A);
+        Checks.check("Cholesky matches the inverse baseline",
+                L != null && Reference.close(LinearSolver.choleskySolve(L, rhs), expected, 1e-9),
+                L == null ? "no factor" : "max error " + Reference.maxError(LinearSolver.choleskySolve(L, rhs), expected));
+
+        double[] D = new double[d];
+        double[][] Ld = LinearSolver.ldlt(A, D);
+        Checks.check("LDL^T matches the inverse baseline",
+                Ld != null && Reference.close(LinearSolver.ldltSolve(Ld, D, rhs), expected, 1e-9),
+                Ld == null ? "no factor" : "max error " + Reference.maxError(LinearSolver.ldltSolve(Ld, D, rhs), expected));
+
+        double[] qr = LinearSolver.qrSolve(A, rhs);
+        Checks.check("QR matches the inverse baseline", Reference.close(qr, expected, 1e-9),
+                "max error " + Reference.maxError(qr, expected));
+
+        // An indefinite but invertible system has no Cholesky factor
+        double[][] indefinite = new double[d][];
+        for (int a = 0; a < d; a++) {
+            indefinite[a] = A[a].clone();
+        }
+        indefinite[0][0] = -indefinite[0][0];
+        LinearSolver.Solution solution = LinearSolver.solveSymmetric(indefinite, rhs);
+        double[] indefiniteExpected = Reference.multiply(Reference.inverse(indefinite), rhs);
+        Checks.check("solveSymmetric uses LDL^T on an indefinite system",
+                solution.getMethod() == LinearSolver.Method.LDLT && Reference.close(solution.getX(), indefiniteExpected, 1e-8),
+                solution.getMethod() + ", max error " + Reference.maxError(solution.getX(), indefiniteExpected));
+
+        // Positive semi-definite and nearly singular: the last pivot is about 2e-15 of its diagonal,
+        // too small for Cholesky's margin but a usable LDL^T pivot
+        double[][] nearlySingular = {{1.0, 1.0}, {1.0, 1.0 + 2e-15}};
+        double[] nearRhs = {2.0, 2.0 + 2e-15};
+        solution = LinearSolver.solveSymmetric(nearlySingular, nearRhs);
+        double[] residual = Reference.multiply(nearlySingular, solution.getX());
+        Checks.check("solveSymmetric falls back to LDL^T when Cholesky turns a PSD pivot down",
+                solution.getMethod() == LinearSolver.Method.LDLT && Reference.close(residual, nearRhs, 1e-12),
+                solution.getMethod() + ", residual error " + Reference.maxError(residual, nearRhs));
+
+        // A singular system falls through to QR, which still returns a least-squares answer
+        double[][] singular = {{1.0, 2.0, 3.0}, {2.0, 4.0, 6.0}, {3.0, 6.0, 9.0}};
+        double[] consistent = {1.0, 2.0, 3.0};
+        solution = LinearSolver.solveSymmetric(singular, consistent);
+        residual = Reference.multiply(singular, solution.getX());
+        Checks.check("solveSymmetric solves a singular consistent system by QR",
+                solution.getMethod() == LinearSolver.Method.QR && Reference.close(residual, consistent, 1e-12),
+                solution.getMethod() + ", residual error " + Reference.maxError(residual, consistent));
+
+        // The model reports the factorisation it used instead of printing from library code
+        double[][] X = Reference.randomArray(random, 200, 3);
+        for (double[] row : X) {
+            row[2] = row[1];
+        }
+        double[] y = Reference.randomTargets(random, X);
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        LinearRegression model = new LinearRegression(0.0);
+        try {
+            System.setOut(new PrintStream(captured));
+            model.fit(Matrix.fromArray(X), y);
+        } finally {
+            System.setOut(stdout);
+        }
+        Checks.check("LinearRegression reports its solver without printing", captured.size() == 0
+                && model.getSolverMethod() != null, "printed '" + captured.toString().trim() + "'");
+    }
+}
@@ -0,0 +1,103 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: SparseEncodingChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.io.File;
+import java.io.IOException;
+
+import models.LinearRegression;
+import preprocessing.DataLoader;
+import preprocessing.Dataset;
+import preprocessing.Preprocessor;
+import utils.FeatureMatrix;
+import utils.SparseMatrix;
+
+//SparseEncodingChecks - CSR output of the Preprocessor against the dense matrices, on the Dataset
+//path and on the String row path
+final class SparseEncodingChecks {
+
+    private SparseEncodingChecks() {
+    }
+
+    static void run() throws IOException {
+        File csv = Reference.peopleCsv(400, 10);
+        try {
+            DataLoader loader = new DataLoader();
+            loader.loadCSV(csv.getPath());
+            // Without a Dataset the Preprocessor encodes the String rows
+            DataLoader rowLoader = new DataLoader() {
+                @Override
+                public Dataset getDataset() {
+                    return null;
+                }
+            };
+            rowLoader.loadCSV(csv.getPath());
+
+            checkPath("Dataset", loader);
+            checkPath("String row", rowLoader);
+        } finally {
+            Reference.deleteCsv(csv);
+        }
+    }
+
+    private static void checkPath(String path, DataLoader loader) {
+        Preprocessor dense = preprocess(loader, false, false);
+        Preprocessor sparse = preprocess(loader, true, false);
+        FeatureMatrix X = sparse.getXTrainMatrix();
+        boolean same = X instanceof SparseMatrix
+                && sameCells(X.toArray(), dense.getXTrain()) && sameCells(sparse.getXTest(), dense.getXTest());
+        Checks.check("Sparse encoding on the " + path + " path holds the dense cells", same,
+                X.getClass().getSimpleName() + " differs from the dense encoding");
+
+        int nonZeros = 0;
+        for (double[] row : dense.getXTrain()) {
+            for (double value : row) {
+                nonZeros += value != 0.0 ? 1 : 0;
+            }
+        }
+        SparseMatrix csr = (SparseMatrix) X;
+        Checks.check("Sparse encoding on the " + path + " path allocates exactly the non-zero cells",
+                csr.getNonZeros() == nonZeros && csr.getValues().length == nonZeros
+                        && csr.getColIndices().length == nonZeros,
+                csr.getValues().length + " entries allocated for " + nonZeros + " non-zero cells");
+
+        // Normalized CSR is only scaled, the bias takes up the shift so the fitted model predicts the same
+        Preprocessor denseScaled = preprocess(loader, false, true);
+        Preprocessor sparseScaled = preprocess(loader, true, true);
+        LinearRegression onDense = new LinearRegression(0.0);
+        onDense.fit(denseScaled.getXTrainMatrix(), denseScaled.getYTrain());
+        LinearRegression onSparse = new LinearRegression(0.0);
+        onSparse.fit(sparseScaled.getXTrainMatrix(), sparseScaled.getYTrain());
+        double error = Reference.maxError(onSparse.predict(sparseScaled.getXTestMatrix()),
+                onDense.predict(denseScaled.getXTestMatrix()));
+        Checks.check("Normalized sparse encoding on the " + path + " path predicts like the dense one",
+                sparseScaled.getXTrainMatrix() instanceof SparseMatrix && error < 1e-8,
+                "max prediction difference " + error);
+    }
+
+    // Cell by cell with ==, so a -0.0 the CSR does not store still matches
+    private static boolean sameCells(double[][] actual, double[][] expected) {
+        if (actual.length != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < actual.length; i++) {
+            for (int j = 0; j < expected[i].length; j++) {
+                if (actual[i][j] != expected[i][j]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Preprocessor preprocess(DataLoader loader, boolean sparse, boolean normalize) {
+        Preprocessor preprocessor = new Preprocessor(loader);
+        preprocessor.setSparse(sparse);
+        preprocessor.preprocess("score", 0.75, 10, normalize);
+        return preprocessor;
+    }
+}
@@ -0,0 +1,60 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: SparseMatrixChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import models.KNearestNeighbors;
+import utils.Matrix;
+import utils.SparseMatrix;
+
+//SparseMatrixChecks - CSR row distances against the dense rows they store
+final class SparseMatrixChecks {
+
+    private SparseMatrixChecks() {
+    }
+
+    static void run() {
+        Random random = new Random(26);
+        int n = 300;
+        int d = 12;
+        double[][] X = new double[n][d];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < d; j++) {
+                // Large values with small differences, where |x|^2 minus corrections cancels
+                X[i][j] = random.nextDouble() < 0.4 ? 1e8 + random.nextInt(3) : 0.0;
+            }
+        }
+        SparseMatrix sparse = Reference.toSparse(X);
+        Matrix dense = Matrix.fromArray(X);
+
+        double worst = 0.0;
+        boolean selfZero = true;
+        for (int i = 0; i < n; i++) {
+            selfZero &= sparse.squaredDistance(i, X[i]) == 0.0;
+            double[] x = X[(i * 7 + 3) % n];
+            double expected = dense.squaredDistance(i, x);
+            worst = Math.max(worst, Math.abs(sparse.squaredDistance(i, x) - expected) / Math.max(1.0, expected));
+        }
+        Checks.check("CSR squared distance of a row to itself is exactly 0", selfZero, "a self-distance is not 0");
+        Checks.check("CSR squared distance matches the dense rows", worst < 1e-12, "max relative error " + worst);
+
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            y[i] = X[i][0] > 0.0 ? 1.0 : 0.0;
+        }
+        KNearestNeighbors onDense = new KNearestNeighbors(5);
+        onDense.fit(dense, y);
+        KNearestNeighbors onSparse = new KNearestNeighbors(5);
+        onSparse.fit(sparse, y);
+        double[] expected = onDense.predict(dense);
+        double[] actual = onSparse.predict(sparse);
+        Checks.check("KNN on CSR rows predicts like KNN on dense rows", Arrays.equals(actual, expected),
+                "predictions differ");
+    }
+}
@@ -0,0 +1,120 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: SplitChecks.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package checks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import preprocessing.TrainTestSplitter;
+
+//SplitChecks - Index splits and folds must partition the rows, stratified ones class by class
+final class SplitChecks {
+
+    private SplitChecks() {
+    }
+
+    static void run() {
+        int[] classSizes = {700, 251, 49};
+        int[] labels = shuffledLabels(classSizes, new Random(15));
+        int n = labels.length;
+
+        TrainTestSplitter plain = new TrainTestSplitter(42);
+        plain.splitIndices(n, 0.8);
+        Checks.check("Index split is a partition with the requested train size",
+                isPartition(n, plain.getTrainIndices(), plain.getTestIndices()) && plain.getTrainIndices().length == 800,
+                "train size " + plain.getTrainIndices().length);
+
+        checkStratified(classSizes, labels, 0.8);
+
+        // Floors of size * ratio used to add up to more than (int) (n * ratio) for these, which
+        // overran the train index array
+        int[][] regressions = {{160, 20}, {40, 140}, {60, 120}, {60, 280}, {80, 100}};
+        for (int[] sizes : regressions) {
+            checkStratified(sizes, shuffledLabels(sizes, new Random(3)), 0.35);
+        }
+
+        int k = 5;
+        int[][] folds = new TrainTestSplitter(42).stratifiedFoldIndices(labels, k);
+        boolean foldsBalanced = true;
+        for (int[] fold : folds) {
+            int[] counts = countClasses(labels, fold, classSizes.length);
+            for (int c = 0; c < classSizes.length; c++) {
+                foldsBalanced &= Math.abs(counts[c] - (double) classSizes[c] / k) <= 1.0;
+            }
+        }
+        Checks.check("Stratified folds are a partition of the rows", isPartition(n, folds), "rows lost or repeated");
+        Checks.check("Stratified folds keep each class within one row of its share", foldsBalanced,
+                "a fold is off balance");
+    }
+
+    private static void checkStratified(int[] classSizes, int[] labels, double ratio) {
+        String name = "Stratified split of " + Arrays.toString(classSizes) + " at " + ratio;
+        int n = labels.length;
+        TrainTestSplitter splitter = new TrainTestSplitter(42);
+        try {
+            splitter.splitStratifiedIndices(labels, ratio);
+        } catch (RuntimeException e) {
+            Checks.check(name, false, e.toString());
+            return;
+        }
+        int[] train = splitter.getTrainIndices();
+        int[] counts = countClasses(labels, train, classSizes.length);
+        boolean balanced = true;
+        for (int c = 0; c < classSizes.length; c++) {
+            balanced &= Math.abs(counts[c] - classSizes[c] * ratio) <= 1.0;
+        }
+        Checks.check(name + " is a partition of the rows", isPartition(n, train, splitter.getTestIndices()),
+                "rows lost or repeated");
+        Checks.check(name + " keeps each class within one row of its share",
+                balanced && train.length == (int) (n * ratio),
+                "train size " + train.length + ", class counts " + Arrays.toString(counts));
+    }
+
+    private static int[] shuffledLabels(int[] classSizes, Random random) {
+        int n = 0;
+        for (int size : classSizes) {
+            n += size;
+        }
+        int[] labels = new int[n];
+        int i = 0;
+        for (int c = 0; c < classSizes.length; c++) {
+            for (int k = 0; k < classSizes[c]; k++) {
+                labels[i++] = c;
+            }
+        }
+        for (i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = labels[i];
+            labels[i] = labels[j];
+            labels[j] = tmp;
+        }
+        return labels;
+    }
+
+    private static int[] countClasses(int[] labels, int[] rows, int numClasses) {
+        int[] counts = new int[numClasses];
+        for (int row : rows) {
+            counts[labels[row]]++;
+        }
+        return counts;
+    }
+
+    private static boolean isPartition(int n, int[]... parts) {
+        boolean[] seen = new boolean[n];
+        int total = 0;
+        for (int[] part : parts) {
+            for (int row : part) {
+                if (row < 0 || row >= n || seen[row]) {
+                    return false;
+                }
+                seen[row] = true;
+                total++;
+            }
+        }
+        return total == n;
+    }
+}
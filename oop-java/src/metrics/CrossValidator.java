@@ -0,0 +1,209 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: CrossValidator.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import models.Model;
+import preprocessing.DataLoader;
+import preprocessing.Dataset;
+import preprocessing.Preprocessor;
+import preprocessing.TrainTestSplitter;
+
+//CrossValidator - k-fold cross-validation for any Model
+//Fold rows are index sets over the loaded Dataset, each fold fits its own encoder and normalizer
+//on its training rows only, and folds run at the same time on a fixed-size pool
+//The thread budget is shared: each running fold's preprocessing and model get an equal slice of it
+public class CrossValidator {
+
+    //Scorer - Any metric with the shape of the Metrics methods, e.g. Metrics::rmse
+    public interface Scorer {
+        double score(double[] yTrue, double[] yPred);
+    }
+
+    private int numFolds;
+    private long seed;
+    private int numThreads;
+    private boolean stratified;
+    private Map<String, Scorer> scorers = new LinkedHashMap<>();
+
+    //Constructor
+    public CrossValidator(int numFolds, long seed, int numThreads) {
+        if (numFolds < 2) {
+            throw new IllegalArgumentException("Need at least 2 folds");
+        }
+        this.numFolds = numFolds;
+        this.seed = seed;
+        this.numThreads = Math.max(1, numThreads);
+    }
+
+    //Keep the class balance of a categorical target in every fold
+    public void setStratified(boolean stratified) {
+        this.stratified = stratified;
+    }
+
+    //Add a metric to report, in the order they should be printed
+    public void addMetric(String name, Scorer scorer) {
+        scorers.put(name, scorer);
+    }
+
+    //Run k-fold CV, modelFactory must return a new untrained model on every call
+    public Result run(DataLoader dataLoader, String targetColumn, boolean normalize, Supplier<Model> modelFactory) {
+        Dataset data = dataLoader.getDataset();
+        if (data == null) {
+            throw new IllegalStateException("Cross-validation needs a DataLoader with a Dataset");
+        }
+        if (scorers.isEmpty()) {
+            throw new IllegalStateException("Add at least one metric before running");
+        }
+
+        int[][] folds = buildFolds(data, targetColumn);
+        double[][] scores = new double[scorers.size()][numFolds];
+        double[] foldTimes = new double[numFolds];
+        List<Scorer> scorerList = new ArrayList<>(scorers.values());
+
+        long start = System.nanoTime();
+        int poolSize = Math.min(numThreads, numFolds);
+        int foldThreads = Math.max(1, numThreads / poolSize);
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int f = 0; f < numFolds; f++) {
+                int fold = f;
+                futures.add(pool.submit(() -> {
+                    long foldStart = System.nanoTime();
+                    Preprocessor preprocessor = new Preprocessor(dataLoader);
+                    preprocessor.setNumThreads(foldThreads);
+                    preprocessor.preprocessFold(targetColumn, TrainTestSplitter.trainRowsForFold(folds, fold),
+                            folds[fold], normalize);
+
+                    Model model = modelFactory.get();
+                    model.setNumThreads(foldThreads);
+                    model.fit(preprocessor.getXTrainMatrix(), preprocessor.getYTrain());
+                    double[] yPred = model.predict(preprocessor.getXTestMatrix());
+
+                    for (int m = 0; m < scorerList.size(); m++) {
+                        scores[m][fold] = scorerList.get(m).score(preprocessor.getYTest(), yPred);
+                    }
+                    foldTimes[fold] = (System.nanoTime() - foldStart) / 1e9;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during cross-validation", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Cross-validation fold failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        double wallTime = (System.nanoTime() - start) / 1e9;
+
+        return new Result(new ArrayList<>(scorers.keySet()), scores, foldTimes, wallTime);
+    }
+
+    private int[][] buildFolds(Dataset data, String targetColumn) {
+        TrainTestSplitter splitter = new TrainTestSplitter(seed);
+        if (!stratified) {
+            return splitter.foldIndices(data.getNumRows(), numFolds);
+        }
+
+        int targetIndex = data.getColumnIndex(targetColumn);
+        if (targetIndex == -1) {
+            throw new IllegalArgumentException("Target column '" + targetColumn + "' not found");
+        }
+        if (data.isNumeric(targetIndex)) {
+            throw new IllegalArgumentException("Stratified folds need a categorical target, '"
+                    + targetColumn + "' is numeric");
+        }
+        return splitter.stratifiedFoldIndices(data.getCodes(targetIndex), numFolds);
+    }
+
+    //Result - Per-fold scores and times of one cross-validation run
+    public static class Result {
+        private List<String> metricNames;
+        private double[][] scores;
+        private double[] foldTimes;
+        private double wallTime;
+
+        Result(List<String> metricNames, double[][] scores, double[] foldTimes, double wallTime) {
+            this.metricNames = metricNames;
+            this.scores = scores;
+            this.foldTimes = foldTimes;
+            this.wallTime = wallTime;
+        }
+
+        public List<String> getMetricNames() {
+            return metricNames;
+        }
+
+        //Score of every fold for one metric
+        public double[] getFoldScores(String metric) {
+            int m = metricNames.indexOf(metric);
+            if (m == -1) {
+                throw new IllegalArgumentException("Unknown metric '" + metric + "'");
+            }
+            return scores[m];
+        }
+
+        public double getMean(String metric) {
+            return mean(getFoldScores(metric));
+        }
+
+        //Population standard deviation across folds
+        public double getStd(String metric) {
+            double[] values = getFoldScores(metric);
+            double mean = mean(values);
+            double sumSquaredDiff = 0.0;
+            for (double v : values) {
+                sumSquaredDiff += (v - mean) * (v - mean);
+            }
+            return Math.sqrt(sumSquaredDiff / values.length);
+        }
+
+        //Seconds each fold took, preprocessing included
+        public double[] getFoldTimes() {
+            return foldTimes;
+        }
+
+        //Seconds for the whole run
+        public double getWallTime() {
+            return wallTime;
+        }
+
+        private static double mean(double[] values) {
+            double sum = 0.0;
+            for (double v : values) {
+                sum += v;
+            }
+            return sum / values.length;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (String metric : metricNames) {
+                sb.append(String.format("%s: %.4f +/- %.4f%n", metric, getMean(metric), getStd(metric)));
+            }
+            for (int f = 0; f < foldTimes.length; f++) {
+                sb.append(String.format("Fold %d: %.3f seconds%n", f + 1, foldTimes[f]));
+            }
+            sb.append(String.format("Total: %.3f seconds", wallTime));
+            return sb.toString();
+        }
+    }
+}
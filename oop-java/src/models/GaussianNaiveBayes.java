@@ -8,6 +8,9 @@ package models;
 
 import java.util.*;
 
+import utils.FeatureMatrix;
+import utils.Matrix;
+
 //Gaussian Naive Bayes
 public class GaussianNaiveBayes implements Model {
     
@@ -26,8 +29,14 @@ public class GaussianNaiveBayes implements Model {
      //Train the model
     @Override
     public void fit(double[][] X, double[] y) {
-        int n = X.length;
-        numFeatures = X[0].length;
+        fit(Matrix.fromArray(X), y);
+    }
+    
+    @Override
+    public void fit(FeatureMatrix X, double[] y) {
+        int n = X.getNumRows();
+        numFeatures = X.getNumCols();
+        double[] row = new double[numFeatures];
         
         // Find the unique classes
         Set<Double> classSet = new HashSet<>();
@@ -53,15 +62,14 @@ public class GaussianNaiveBayes implements Model {
             double classLabel = classes[c];
             
             // Try to find the  samples belonging to this class
-            List<double[]> classSamples = new ArrayList<>();
+            int[] classRows = new int[n];
+            int classCount = 0;
             for (int i = 0; i < n; i++) {
                 if (Math.abs(y[i] - classLabel) < 0.5) {
-                    classSamples.add(X[i]);
+                    classRows[classCount++] = i;
                 }
             }
             
-            int classCount = classSamples.size();
-            
             if (classCount == 0) {
                 throw new IllegalStateException("No samples found for class " + classLabel);
             }
@@ -69,22 +77,26 @@ public class GaussianNaiveBayes implements Model {
             // Compute the class prior
             classPriors[c] = (double) classCount / n;
             
-            // Compute the mean for each feature
+            // Compute the mean for each feature, one pass over the class rows
+            double[] sums = new double[numFeatures];
+            for (int r = 0; r < classCount; r++) {
+                X.addRowTo(classRows[r], 1.0, sums);
+            }
             for (int j = 0; j < numFeatures; j++) {
-                double sum = 0.0;
-                for (double[] sample : classSamples) {
-                    sum += sample[j];
-                }
-                means[c][j] = sum / classCount;
+                means[c][j] = sums[j] / classCount;
             }
             
             // Compute the variance for each feature
-            for (int j = 0; j < numFeatures; j++) {
-                double sumSquaredDiff = 0.0;
-                for (double[] sample : classSamples) {
-                    double diff = sample[j] - means[c][j];
-                    sumSquaredDiff += diff * diff;
+            double[] sumSquaredDiffs = new double[numFeatures];
+            for (int r = 0; r < classCount; r++) {
+                X.getRow(classRows[r], row);
+                for (int j = 0; j < numFeatures; j++) {
+                    double diff = row[j] - means[c][j];
+                    sumSquaredDiffs[j] += diff * diff;
                 }
+            }
+            for (int j = 0; j < numFeatures; j++) {
+                double sumSquaredDiff = sumSquaredDiffs[j];
                 
                 // Use the variance calculation
                 if (classCount > 1) {
@@ -110,11 +122,18 @@ public class GaussianNaiveBayes implements Model {
     //Make predictions
     @Override
     public double[] predict(double[][] X) {
-        int n = X.length;
+        return predict(Matrix.fromArray(X));
+    }
+    
+    @Override
+    public double[] predict(FeatureMatrix X) {
+        int n = X.getNumRows();
         double[] predictions = new double[n];
+        double[] x = new double[X.getNumCols()];
         
         for (int i = 0; i < n; i++) {
-            predictions[i] = predictSingle(X[i]);
+            X.getRow(i, x);
+            predictions[i] = predictSingle(x);
         }
         
         return predictions;
@@ -158,8 +177,15 @@ public class GaussianNaiveBayes implements Model {
     // Compute the accuracy score
     @Override
     public double score(double[][] X, double[] y) {
-        double[] predictions = predict(X);
-        
+        return accuracy(predict(X), y);
+    }
+    
+    @Override
+    public double score(FeatureMatrix X, double[] y) {
+        return accuracy(predict(X), y);
+    }
+    
+    private double accuracy(double[] predictions, double[] y) {
         int correct = 0;
         for (int i = 0; i < y.length; i++) {
             if (Math.abs(predictions[i] - y[i]) < 0.5) {
@@ -9,11 +9,14 @@ package models;
 import java.util.Arrays;
 import java.util.Comparator;
 
+import utils.FeatureMatrix;
+import utils.Matrix;
+
 //k-Nearest Neighbors - Distance-based classification
 public class KNearestNeighbors implements Model {
     
     private int k;
-    private double[][] X_train;
+    private FeatureMatrix X_train;
     private double[] y_train;
     
     //Constructor
@@ -27,6 +30,11 @@ public class KNearestNeighbors implements Model {
     // Train the model
     @Override
     public void fit(double[][] X, double[] y) {
+        fit(Matrix.fromArray(X), y);
+    }
+    
+    @Override
+    public void fit(FeatureMatrix X, double[] y) {
         // Store the data
         this.X_train = X;
         this.y_train = y;
@@ -35,22 +43,31 @@ public class KNearestNeighbors implements Model {
     //Make predictions for the test data
     @Override
     public double[] predict(double[][] X) {
-        double[] predictions = new double[X.length];
+        return predict(Matrix.fromArray(X));
+    }
+    
+    @Override
+    public double[] predict(FeatureMatrix X) {
+        if (X.getNumCols() != X_train.getNumCols()) {
+            throw new IllegalArgumentException("Vectors must have same length");
+        }
+        double[] predictions = new double[X.getNumRows()];
+        double[] distances = new double[X_train.getNumRows()];
+        double[] x = new double[X.getNumCols()];
         
-        for (int i = 0; i < X.length; i++) {
-            predictions[i] = predictSingle(X[i]);
+        for (int i = 0; i < X.getNumRows(); i++) {
+            X.getRow(i, x);
+            predictions[i] = predictSingle(x, distances);
         }
         
         return predictions;
     }
     
-    //Predict labels for a test sample
-    private double predictSingle(double[] x_test) {
-        // Calculate the distances to the training points
-        double[] distances = new double[X_train.length];
-        
-        for (int i = 0; i < X_train.length; i++) {
-            distances[i] = euclideanDistance(x_test, X_train[i]);
+    //Predict labels for one test sample
+    private double predictSingle(double[] x, double[] distances) {
+        // Calculate the distances to the training points, summed in double whatever the storage
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = Math.sqrt(X_train.squaredDistance(i, x));
         }
         
         // Find the indices for thje knn
@@ -65,21 +82,6 @@ public class KNearestNeighbors implements Model {
         return majorityVote(neighborLabels);
     }
     
-     //Calculate the euclidean distance between two points
-    private double euclideanDistance(double[] a, double[] b) {
-        if (a.length != b.length) {
-            throw new IllegalArgumentException("Vectors must have same length");
-        }
-        
-        double sum = 0.0;
-        for (int i = 0; i < a.length; i++) {
-            double diff = a[i] - b[i];
-            sum += diff * diff;
-        }
-        
-        return Math.sqrt(sum);
-    }
-    
     //Find indices of k smallest distances
     private int[] findKNearest(double[] distances, int k) {
         // Make sure to create array of pairs
@@ -119,8 +121,15 @@ public class KNearestNeighbors implements Model {
     //Calculate the  accuracy on a test set
     @Override
     public double score(double[][] X, double[] y) {
-        double[] predictions = predict(X);
-        
+        return accuracy(predict(X), y);
+    }
+    
+    @Override
+    public double score(FeatureMatrix X, double[] y) {
+        return accuracy(predict(X), y);
+    }
+    
+    private double accuracy(double[] predictions, double[] y) {
         int correct = 0;
         for (int i = 0; i < y.length; i++) {
             if (Math.abs(predictions[i] - y[i]) < 0.5) {
@@ -6,11 +6,37 @@
 //--------------------------------------------------------
 package models;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import utils.ConjugateGradient;
+import utils.FeatureMatrix;
+import utils.GramAccumulator;
+import utils.LinearSolver;
+import utils.Matrix;
+import utils.Parallel;
+import utils.SymmetricEigen;
+
 public class LinearRegression implements Model {
     
+    //Solver - How fit() finds the weights
+    //NORMAL_EQUATIONS builds the (d+1) x (d+1) matrix X^T X and factorises it, exact and fast for
+    //a few hundred features; CONJUGATE_GRADIENT only multiplies by X and X^T, so memory stays at a
+    //few vectors of length d and sparse rows cost only their nonzeros
+    public enum Solver { NORMAL_EQUATIONS, CONJUGATE_GRADIENT }
+    
     private double[] weights;
     private double bias;
     private double l2;
+    private LinearSolver.Method solverMethod;
+    private GramAccumulator stats;
+    private boolean statsShared = false; // stats belongs to a whole ridge path, copy before adding
+    private int numThreads = Parallel.defaultThreads();
+    private Solver solver = Solver.NORMAL_EQUATIONS;
+    private double tolerance = 1e-10;
+    private int maxIterations = 1000;
+    private int iterations;
     
     
     //Constructor
@@ -18,20 +44,173 @@ public class LinearRegression implements Model {
         this.l2 = l2;
     }
     
+    //Threads used to build X^T X, 1 keeps everything on the calling thread
+    @Override
+    public void setNumThreads(int numThreads) {
+        this.numThreads = Math.max(1, numThreads);
+    }
+    
+    public void setSolver(Solver solver) {
+        this.solver = solver;
+    }
+    
+    //Conjugate gradient stops once |X^T y - (X^T X + lambda I) w| <= tolerance * |X^T y|
+    public void setTolerance(double tolerance) {
+        if (!(tolerance > 0.0)) {
+            throw new IllegalArgumentException("Tolerance must be positive");
+        }
+        this.tolerance = tolerance;
+    }
+    
+    //Conjugate gradient gives up after this many passes over the data
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("Max iterations must be at least 1");
+        }
+        this.maxIterations = maxIterations;
+    }
+    
     //Train the model using the closed-form normal equation 
     @Override
     public void fit(double[][] X, double[] y) {
-        int n = X.length;        //# of samples
-        int d = X[0].length;     //#of features
+        fit(Matrix.fromArray(X), y);
+    }
+    
+    //Train on a feature matrix, X^T X and X^T y are built straight from the rows
+    //The bias column of 1's is implicit, so no X_bias or X_T copies are made
+    @Override
+    public void fit(FeatureMatrix X, double[] y) {
+        stats = null;
+        statsShared = false;
+        if (solver == Solver.CONJUGATE_GRADIENT) {
+            fitConjugateGradient(X, y);
+            return;
+        }
+        partialFit(X, y);
+        solve();
+    }
+    
+    //Jacobi-preconditioned conjugate gradient on (X^T X + lambda I) [w, b] = X^T y, bias last so
+    //rowDot and addRowTo work on the vectors in place
+    //Each iteration is one pass computing t = X w + b and then X^T t, split over threads like the
+    //Gram matrix; a SparseMatrix only touches its stored entries, so no d x d array is ever made
+    //One thread pool and one accumulator per block serve every iteration
+    private void fitConjugateGradient(FeatureMatrix X, double[] y) {
+        if (y.length != X.getNumRows()) {
+            throw new IllegalArgumentException("X has " + X.getNumRows() + " rows but y has " + y.length + " values");
+        }
+        if (y.length == 0) {
+            throw new IllegalStateException("LinearRegression needs at least one row to fit");
+        }
+        int n = X.getNumRows();
+        int d = X.getNumCols();
+        double regularization = Math.max(l2, 1e-8);
+        int blocks = Parallel.blockCount(n, numThreads);
+        double[][] partials = new double[blocks][d + 1];
+        ConjugateGradient.Result result;
         
-        // Add a bias column of 1's to X
-        double[][] X_bias = addBiasColumn(X);
+        try (Parallel.Pool pool = new Parallel.Pool(blocks)) {
+            // Right-hand side [X^T y, sum(y)]
+            pool.forBlocks(n, blocks, (block, from, to) -> {
+                double[] acc = partials[block];
+                for (int i = from; i < to; i++) {
+                    X.addRowTo(i, y[i], acc);
+                    acc[d] += y[i];
+                }
+            });
+            double[] XTy = sumPartials(partials, d + 1);
+            
+            // diag(X^T X + lambda I) for the preconditioner, the bias entry is n
+            double[] diagonal = new double[d + 1];
+            double[] sumsOfSquares = X.columnSumsOfSquares();
+            for (int j = 0; j < d; j++) {
+                diagonal[j] = sumsOfSquares[j] + regularization;
+            }
+            diagonal[d] = n;
+            
+            ConjugateGradient.Operator operator = (v, out) -> {
+                pool.forBlocks(n, blocks, (block, from, to) -> {
+                    double[] acc = partials[block];
+                    Arrays.fill(acc, 0.0);
+                    for (int i = from; i < to; i++) {
+                        double t = X.rowDot(i, v, v[d]);
+                        X.addRowTo(i, t, acc);
+                        acc[d] += t;
+                    }
+                });
+                double[] sum = sumPartials(partials, d + 1);
+                for (int j = 0; j < d; j++) {
+                    out[j] = sum[j] + regularization * v[j];
+                }
+                out[d] = sum[d];
+            };
+            
+            result = ConjugateGradient.solve(operator, XTy, diagonal, tolerance, maxIterations);
+        }
         
-        // Compute X^T
-        double[][] X_T = transpose(X_bias);
+        iterations = result.getIterations();
+        solverMethod = LinearSolver.Method.CONJUGATE_GRADIENT;
+        if (!result.isConverged()) {
+            System.out.println("Warning: conjugate gradient stopped after " + iterations
+                    + " iterations with relative residual " + String.format("%.2e", result.getRelativeResidual()));
+        }
         
-        // Compute X^T * X
-        double[][] XTX = matrixMultiply(X_T, X_bias);
+        double[] w_with_bias = result.getX();
+        weights = new double[d];
+        System.arraycopy(w_with_bias, 0, weights, 0, d);
+        bias = w_with_bias[d];
+    }
+    
+    // Add per-block vectors in block order, so the result does not depend on thread timing
+    private static double[] sumPartials(double[][] partials, int length) {
+        double[] sum = new double[length];
+        for (double[] partial : partials) {
+            for (int j = 0; j < length; j++) {
+                sum[j] += partial[j];
+            }
+        }
+        return sum;
+    }
+    
+    //Add a batch of rows to the sufficient statistics (n, sum(y), X^T X, X^T y) without solving
+    //Batches can come one at a time from a file too large to load, only the statistics are kept
+    public void partialFit(double[][] X, double[] y) {
+        partialFit(Matrix.fromArray(X), y);
+    }
+    
+    public void partialFit(FeatureMatrix X, double[] y) {
+        if (stats == null) {
+            stats = new GramAccumulator(X.getNumCols());
+        } else if (statsShared) {
+            stats = stats.copy();
+            statsShared = false;
+        }
+        // Compute X^T * X and X^T * y, index 0 is the bias
+        // Cache-blocked and split over threads, only the upper triangle is computed
+        stats.setNumThreads(numThreads);
+        stats.add(X, y);
+    }
+    
+    //Start from statistics gathered elsewhere, e.g. saved by an earlier run, later batches add to them
+    public void setStatistics(GramAccumulator statistics) {
+        this.stats = statistics.copy();
+        this.statsShared = false;
+    }
+    
+    //The statistics of every row seen so far, null before the first batch
+    //Read-only: models from one fitPath call share the same object
+    public GramAccumulator getStatistics() {
+        return stats;
+    }
+    
+    //Fit the weights to all the rows given to partialFit so far
+    public void solve() {
+        if (stats == null || stats.getCount() == 0) {
+            throw new IllegalStateException("LinearRegression needs at least one batch before solve()");
+        }
+        int d = stats.getNumFeatures();  //#of features
+        double[][] XTX = stats.getXTX();
+        double[] XTy = stats.getXTy();
         
         // Add the L2 regularization: X^T X + lambda * I
         double epsilon = 1e-8;
@@ -41,14 +220,10 @@ public class LinearRegression implements Model {
             XTX[i][i] += regularization;
         }
         
-        // Compute (X^T X)^-1
-        double[][] XTX_inv = inverse(XTX);
-        
-        // Compute X^T * y
-        double[] XTy = matrixVectorMultiply(X_T, y);
-        
-        // Compute w = (X^T X)^-1 * X^T * y
-        double[] w_with_bias = matrixVectorMultiply(XTX_inv, XTy);
+        // Solve (X^T X) w = X^T y by factorisation, only the upper triangle is read
+        LinearSolver.Solution solution = LinearSolver.solveSymmetric(XTX, XTy);
+        solverMethod = solution.getMethod();
+        double[] w_with_bias = solution.getX();
         
         // Extract the bias and the weights
         bias = w_with_bias[0];
@@ -58,27 +233,116 @@ public class LinearRegression implements Model {
         }
     }
     
+    //Fit one model per L2 value with a single pass over the rows and a single eigendecomposition
+    public static List<LinearRegression> fitPath(FeatureMatrix X, double[] y, double[] l2Values) {
+        GramAccumulator statistics = new GramAccumulator(X.getNumCols());
+        statistics.add(X, y);
+        return fitPath(statistics, l2Values);
+    }
+    
+    //Ridge path from statistics: the bias is not penalized, so it is solved out by centering,
+    //C = sum((x - mean(x)) (x - mean(x))^T), and with C = V diag(e) V^T every L2 value costs only
+    //w = V diag(1 / (e + l2)) V^T sum((x - mean(x)) (y - mean(y))), bias = mean(y) - mean(x) . w
+    //The centered sums come straight from the accumulator rather than X^T X - n mean mean^T,
+    //which loses the small variances of features with a large mean
+    public static List<LinearRegression> fitPath(GramAccumulator statistics, double[] l2Values) {
+        if (statistics.getCount() == 0) {
+            throw new IllegalStateException("LinearRegression needs at least one batch before solve()");
+        }
+        int d = statistics.getNumFeatures();
+        double[] xMean = statistics.getMeans();
+        double yMean = statistics.getMeanY();
+        
+        // Centered X^T X (upper triangle) and X^T y
+        double[][] C = statistics.getCenteredXTX();
+        double[] c = statistics.getCenteredXTy();
+        
+        SymmetricEigen eigen = new SymmetricEigen(C);
+        double[] values = eigen.getValues();
+        double[][] vectors = eigen.getVectors();
+        
+        // Project X^T y onto the eigenvectors once, every L2 value only rescales these
+        double[] projected = new double[d];
+        for (int k = 0; k < d; k++) {
+            double sum = 0.0;
+            for (int a = 0; a < d; a++) {
+                sum += vectors[k][a] * c[a];
+            }
+            projected[k] = sum;
+        }
+        
+        // One copy for the whole path, a model copies it again only if it is given more rows
+        GramAccumulator shared = statistics.copy();
+        List<LinearRegression> models = new ArrayList<>();
+        for (double l2 : l2Values) {
+            // Same floor as solve(), eigenvalues below 0 are rounding noise
+            double regularization = Math.max(l2, 1e-8);
+            double[] w = new double[d];
+            for (int k = 0; k < d; k++) {
+                double scale = projected[k] / (Math.max(values[k], 0.0) + regularization);
+                double[] v = vectors[k];
+                for (int a = 0; a < d; a++) {
+                    w[a] += scale * v[a];
+                }
+            }
+            
+            LinearRegression model = new LinearRegression(l2);
+            model.weights = w;
+            model.bias = yMean;
+            for (int a = 0; a < d; a++) {
+                model.bias -= xMean[a] * w[a];
+            }
+            model.solverMethod = LinearSolver.Method.EIGEN;
+            model.stats = shared;
+            model.statsShared = true;
+            models.add(model);
+        }
+        return models;
+    }
+    
     //Make predictions
     @Override
     public double[] predict(double[][] X) {
-        int n = X.length;
+        return predict(Matrix.fromArray(X));
+    }
+    
+    @Override
+    public double[] predict(FeatureMatrix X) {
+        int n = X.getNumRows();
         double[] predictions = new double[n];
         
         for (int i = 0; i < n; i++) {
-            predictions[i] = bias;
-            for (int j = 0; j < weights.length; j++) {
-                predictions[i] += weights[j] * X[i][j];
-            }
+            predictions[i] = X.rowDot(i, weights, bias);
         }
         
         return predictions;
     }
     
+    //RMSE over the rows [from, to) of X, e.g. validation rows that were left out of the fit
+    public double rmse(FeatureMatrix X, double[] y, int from, int to) {
+        if (to <= from) {
+            throw new IllegalArgumentException("Need at least one row to score, got [" + from + ", " + to + ")");
+        }
+        double sumSquaredError = 0.0;
+        for (int i = from; i < to; i++) {
+            double error = y[i] - X.rowDot(i, weights, bias);
+            sumSquaredError += error * error;
+        }
+        return Math.sqrt(sumSquaredError / (to - from));
+    }
+    
     //Compute R^2 score
     @Override
     public double score(double[][] X, double[] y) {
-        double[] predictions = predict(X);
-        
+        return score(predict(X), y);
+    }
+    
+    @Override
+    public double score(FeatureMatrix X, double[] y) {
+        return score(predict(X), y);
+    }
+    
+    private double score(double[] predictions, double[] y) {
         // Compute the mean of y
         double y_mean = 0.0;
         for (double val : y) {
@@ -99,131 +363,10 @@ public class LinearRegression implements Model {
         return 1.0 - (ss_residual / ss_total);
     }
     
-    //Add a column of 1s to the left of X
-    private double[][] addBiasColumn(double[][] X) {
-        int n = X.length;
-        int d = X[0].length;
-        double[][] X_bias = new double[n][d + 1];
-        
-        for (int i = 0; i < n; i++) {
-            X_bias[i][0] = 1.0;
-            for (int j = 0; j < d; j++) {
-                X_bias[i][j + 1] = X[i][j];
-            }
-        }
-        return X_bias;
-    }
-    
-    //Matrix transpose
-    private double[][] transpose(double[][] matrix) {
-        int rows = matrix.length;
-        int cols = matrix[0].length;
-        double[][] result = new double[cols][rows];
-        
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                result[j][i] = matrix[i][j];
-            }
-        }
-        return result;
-    }
-    
-    //Matrix multiplication: A * B
-    private double[][] matrixMultiply(double[][] A, double[][] B) {
-        int rowsA = A.length;
-        int colsA = A[0].length;
-        int colsB = B[0].length;
-        
-        double[][] result = new double[rowsA][colsB];
-        
-        for (int i = 0; i < rowsA; i++) {
-            for (int j = 0; j < colsB; j++) {
-                for (int k = 0; k < colsA; k++) {
-                    result[i][j] += A[i][k] * B[k][j];
-                }
-            }
-        }
-        return result;
-    }
-    
-    //Matrix-vector multiplication: A * v
-    private double[] matrixVectorMultiply(double[][] A, double[] v) {
-        int rows = A.length;
-        int cols = A[0].length;
-        double[] result = new double[rows];
-        
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                result[i] += A[i][j] * v[j];
-            }
-        }
-        return result;
-    }
-    
-    //Matrix inverse
-    private double[][] inverse(double[][] matrix) {
-        int n = matrix.length;
-        double[][] augmented = new double[n][2 * n];
-        
-        // Create the augmented matrix [A | I]
-    for (int i = 0; i < n; i++) {
-        for (int j = 0; j < n; j++) {
-            augmented[i][j] = matrix[i][j];
-        }
-        augmented[i][i + n] = 1.0;
-    }
-    
-    for (int i = 0; i < n; i++) {
-        // Find the largest element in the column
-        int maxRow = i;
-        for (int k = i + 1; k < n; k++) {
-            if (Math.abs(augmented[k][i]) > Math.abs(augmented[maxRow][i])) {
-                maxRow = k;
-            }
-        }
-        
-        if (maxRow != i) {
-            double[] temp = augmented[i];
-            augmented[i] = augmented[maxRow];
-            augmented[maxRow] = temp;
-        }
-        
-        double pivot = augmented[i][i];
-        
-        if (Math.abs(pivot) < 1e-10) {
-            System.out.println("Warning: Nearly singular matrix detected. Adding regularization...");
-            augmented[i][i] += 1e-8;
-            pivot = augmented[i][i];
-        }
-        
-        // Divide the row by pivot
-        for (int j = 0; j < 2 * n; j++) {
-            augmented[i][j] /= pivot;
-        }
-        
-        // Get rid of the column
-        for (int k = 0; k < n; k++) {
-            if (k != i) {
-                double factor = augmented[k][i];
-                for (int j = 0; j < 2 * n; j++) {
-                    augmented[k][j] -= factor * augmented[i][j];
-                }
-            }
-        }
-    }
-    
-    // Extract the inverse
-    double[][] inverse = new double[n][n];
-    for (int i = 0; i < n; i++) {
-        for (int j = 0; j < n; j++) {
-            inverse[i][j] = augmented[i][j + n];
-        }
-    }
-    
-    return inverse;
-}
-    
     // Getters
     public double[] getWeights() { return weights; }
     public double getBias() { return bias; }
+    public LinearSolver.Method getSolverMethod() { return solverMethod; }
+    public Solver getSolver() { return solver; }
+    public int getIterations() { return iterations; }
 }
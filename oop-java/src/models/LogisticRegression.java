@@ -8,6 +8,9 @@ package models;
 
 import java.util.Random;
 
+import utils.FeatureMatrix;
+import utils.Matrix;
+
 
 public class LogisticRegression implements Model {
     
@@ -29,8 +32,15 @@ public class LogisticRegression implements Model {
     //Train the model using gradient descent
     @Override
     public void fit(double[][] X, double[] y) {
-        int n = X.length;        //#of samples
-        int d = X[0].length;     //# of features
+        fit(Matrix.fromArray(X), y);
+    }
+    
+    //Train on a feature matrix, each epoch reads the rows front to back
+    //A FloatMatrix is read as float but z and the gradients are still summed in double
+    @Override
+    public void fit(FeatureMatrix X, double[] y) {
+        int n = X.getNumRows();  //#of samples
+        int d = X.getNumCols();  //# of features
         
         // Initialize the weights randomly
         weights = new double[d];
@@ -44,11 +54,7 @@ public class LogisticRegression implements Model {
             // Compute the predictions
             double[] predictions = new double[n];
             for (int i = 0; i < n; i++) {
-                double z = bias;
-                for (int j = 0; j < d; j++) {
-                    z += weights[j] * X[i][j];
-                }
-                predictions[i] = sigmoid(z);
+                predictions[i] = sigmoid(X.rowDot(i, weights, bias));
             }
             
             // Compute the gradients
@@ -58,9 +64,7 @@ public class LogisticRegression implements Model {
             for (int i = 0; i < n; i++) {
                 double error = predictions[i] - y[i];
                 db += error;
-                for (int j = 0; j < d; j++) {
-                    dw[j] += error * X[i][j];
-                }
+                X.addRowTo(i, error, dw);
             }
             
             db /= n;
@@ -79,7 +83,7 @@ public class LogisticRegression implements Model {
             }
             
             if ((epoch + 1) % 100 == 0) {
-                double loss = computeLoss(X, y, predictions);
+                double loss = computeLoss(y, predictions);
                 // System.out.println("Epoch " + (epoch + 1) + ", Loss: " + String.format("%.4f", loss));
             }
         }
@@ -87,15 +91,15 @@ public class LogisticRegression implements Model {
     
     //Make predictions (probabilities)
     public double[] predictProba(double[][] X) {
-        int n = X.length;
+        return predictProba(Matrix.fromArray(X));
+    }
+    
+    public double[] predictProba(FeatureMatrix X) {
+        int n = X.getNumRows();
         double[] probabilities = new double[n];
         
         for (int i = 0; i < n; i++) {
-            double z = bias;
-            for (int j = 0; j < weights.length; j++) {
-                z += weights[j] * X[i][j];
-            }
-            probabilities[i] = sigmoid(z);
+            probabilities[i] = sigmoid(X.rowDot(i, weights, bias));
         }
         
         return probabilities;
@@ -104,6 +108,11 @@ public class LogisticRegression implements Model {
     // Make some predictions
     @Override
     public double[] predict(double[][] X) {
+        return predict(Matrix.fromArray(X));
+    }
+    
+    @Override
+    public double[] predict(FeatureMatrix X) {
         double[] probabilities = predictProba(X);
         double[] predictions = new double[probabilities.length];
         
@@ -117,8 +126,15 @@ public class LogisticRegression implements Model {
     //Compute accuracy score
     @Override
     public double score(double[][] X, double[] y) {
-        double[] predictions = predict(X);
-        
+        return accuracy(predict(X), y);
+    }
+    
+    @Override
+    public double score(FeatureMatrix X, double[] y) {
+        return accuracy(predict(X), y);
+    }
+    
+    private double accuracy(double[] predictions, double[] y) {
         int correct = 0;
         for (int i = 0; i < y.length; i++) {
             if (Math.abs(predictions[i] - y[i]) < 0.5) {
@@ -138,8 +154,8 @@ public class LogisticRegression implements Model {
     }
     
     //Compute binary cross-entropy loss
-    private double computeLoss(double[][] X, double[] y, double[] predictions) {
-        int n = X.length;
+    private double computeLoss(double[] y, double[] predictions) {
+        int n = y.length;
         double loss = 0.0;
         
         for (int i = 0; i < n; i++) {
@@ -6,6 +6,8 @@
 //--------------------------------------------------------
 package models;
 
+import utils.FeatureMatrix;
+
 //Base interface for all of the ML models
 public interface Model {
     
@@ -17,4 +19,23 @@ public interface Model {
     
     //Evaluate the model performance
     double score(double[][] X, double[] y);
+    
+    //Train on a FeatureMatrix (Matrix, FloatMatrix, ...), models without their own version go through double[][]
+    default void fit(FeatureMatrix X, double[] y) {
+        fit(X.toArray(), y);
+    }
+    
+    //Predict on a FeatureMatrix
+    default double[] predict(FeatureMatrix X) {
+        return predict(X.toArray());
+    }
+    
+    //Evaluate on a FeatureMatrix
+    default double score(FeatureMatrix X, double[] y) {
+        return score(X.toArray(), y);
+    }
+    
+    //Most threads fit may use, models that always run on one thread ignore it
+    default void setNumThreads(int numThreads) {
+    }
 }
@@ -0,0 +1,321 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: BatchReader.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package preprocessing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+//BatchReader - Streams a CSV file as fixed-size RowBatches so it never has to fit in memory
+//Only one read block and one batch of column buffers are held at a time, both filled on the
+//calling thread
+public class BatchReader implements AutoCloseable {
+
+    private static final int READ_BLOCK = 4 << 20;
+    private static final int TYPE_SAMPLE_ROWS = 10;
+
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private boolean eof;
+
+    private String[] headers;
+    private int[] sourceColumns;
+    private List<RowFilter> filters;
+    private boolean[] numeric;
+    private ByteDictionary[] dictionaries;
+    private byte[] spellings;   // per numeric column, how its whole numbers are written
+    private NumberParser parser = new NumberParser();
+    private FieldRanges ranges = new FieldRanges();
+    private RowBatch batch;
+    private long rowsRead;
+
+    // The current line is [lineStart, lineEnd) inside buffer
+    private int lineStart;
+    private int lineEnd;
+
+    //Open a file, projection may be null and filters may be empty
+    public BatchReader(String filePath, int batchSize, String[] projection, List<RowFilter> filters) throws IOException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.filters = filters;
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocate(READ_BLOCK);
+        buffer.flip();
+
+        try {
+            if (!nextLine()) {
+                throw new IOException("CSV file is empty");
+            }
+            bindHeader(projection);
+            inferTypes();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        List<List<String>> values = new ArrayList<>();
+        for (ByteDictionary dictionary : dictionaries) {
+            values.add(dictionary == null ? null : dictionary.values);
+        }
+        batch = new RowBatch(headers, numeric, values, batchSize);
+    }
+
+    public String[] getHeaders() {
+        return headers;
+    }
+
+    public boolean isNumeric(int col) {
+        return numeric[col];
+    }
+
+    //Numeric cells that could not be parsed so far (they are stored as 0.0)
+    public long getBadCells() {
+        return parser.getBadCells();
+    }
+
+    //Fill the next batch, returns null once the file is used up
+    //The same RowBatch object is returned every time
+    public RowBatch next() throws IOException {
+        batch.reset(rowsRead);
+        while (batch.size() < batch.getCapacity() && nextLine()) {
+            ranges.split(buffer, lineStart, lineEnd);
+            if (!passesFilters()) {
+                continue;
+            }
+
+            for (int col = 0; col < headers.length; col++) {
+                int src = sourceColumns[col];
+                boolean present = src < ranges.count;
+                int start = present ? ranges.starts[src] : 0;
+                int end = present ? ranges.ends[src] : 0;
+
+                if (numeric[col]) {
+                    batch.setNumeric(col, parser.parse(buffer, start, end, 0.0));
+                    if (spellings[col] == Dataset.Builder.SPELLING_UNKNOWN) {
+                        // The first "37" or "37.0" decides, like in Dataset
+                        spellings[col] = Dataset.Builder.wholeSpelling(buffer, start, end);
+                        batch.setDecimalText(col, spellings[col] == Dataset.Builder.SPELLING_DECIMAL);
+                    }
+                } else {
+                    batch.setCode(col, dictionaries[col].code(buffer, start, end));
+                }
+            }
+            batch.commitRow();
+        }
+
+        rowsRead += batch.size();
+        return batch.size() > 0 ? batch : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    //Parse the header line and resolve projection and filter columns
+    private void bindHeader(String[] projection) {
+        ranges.split(buffer, lineStart, lineEnd);
+        byte[] scratch = new byte[lineEnd - lineStart];
+        String[] fileHeaders = new String[ranges.count];
+        for (int i = 0; i < ranges.count; i++) {
+            fileHeaders[i] = MappedCSVReader.decode(buffer, ranges.starts[i], ranges.ends[i], scratch);
+        }
+
+        for (RowFilter filter : filters) {
+            filter.bind(fileHeaders);
+        }
+        if (projection == null) {
+            headers = fileHeaders;
+            sourceColumns = new int[fileHeaders.length];
+            for (int i = 0; i < sourceColumns.length; i++) {
+                sourceColumns[i] = i;
+            }
+        } else {
+            sourceColumns = MappedCSVReader.resolveProjection(fileHeaders, projection);
+            headers = new String[sourceColumns.length];
+            for (int p = 0; p < sourceColumns.length; p++) {
+                headers[p] = fileHeaders[sourceColumns[p]];
+            }
+        }
+    }
+
+    //Peek at the first rows to pick column types, without consuming them
+    private void inferTypes() throws IOException {
+        int mark = buffer.position();
+        List<String[]> sample = new ArrayList<>();
+        byte[] scratch = new byte[256];
+
+        while (sample.size() < TYPE_SAMPLE_ROWS && nextLine(false)) {
+            ranges.split(buffer, lineStart, lineEnd);
+            if (!passesFilters()) {
+                continue;
+            }
+            if (lineEnd - lineStart > scratch.length) {
+                scratch = new byte[lineEnd - lineStart];
+            }
+            String[] row = new String[headers.length];
+            for (int col = 0; col < headers.length; col++) {
+                int src = sourceColumns[col];
+                row[col] = src < ranges.count
+                        ? MappedCSVReader.decode(buffer, ranges.starts[src], ranges.ends[src], scratch) : "";
+            }
+            sample.add(row);
+        }
+        buffer.position(mark);
+
+        numeric = Dataset.inferNumeric(headers.length, sample);
+        dictionaries = new ByteDictionary[headers.length];
+        spellings = new byte[headers.length];
+        for (int col = 0; col < headers.length; col++) {
+            dictionaries[col] = numeric[col] ? null : new ByteDictionary();
+        }
+    }
+
+    private boolean passesFilters() {
+        for (RowFilter filter : filters) {
+            int col = filter.getColumnIndex();
+            boolean present = col < ranges.count;
+            if (!filter.matches(buffer, present ? ranges.starts[col] : 0, present ? ranges.ends[col] : 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean nextLine() throws IOException {
+        return nextLine(true);
+    }
+
+    //Find the next line, reading more of the file when the buffer runs out
+    //When compact is false earlier bytes are kept so the caller can rewind
+    private boolean nextLine(boolean compact) throws IOException {
+        while (true) {
+            int pos = buffer.position();
+            int limit = buffer.limit();
+            int end = pos;
+            while (end < limit && buffer.get(end) != '\n' && buffer.get(end) != '\r') {
+                end++;
+            }
+
+            // A '\r' at the very end might be followed by '\n' in the next read
+            boolean complete = end < limit && !(buffer.get(end) == '\r' && end == limit - 1 && !eof);
+            if (complete || (eof && end > pos)) {
+                lineStart = pos;
+                lineEnd = end;
+                int next = end;
+                if (next < limit && buffer.get(next) == '\r') {
+                    next++;
+                }
+                if (next < limit && buffer.get(next) == '\n') {
+                    next++;
+                }
+                buffer.position(next);
+                return true;
+            }
+            if (eof) {
+                return false;
+            }
+            fill(compact);
+        }
+    }
+
+    //Read another block from the file, growing the buffer for very long lines
+    private void fill(boolean compact) throws IOException {
+        int pos = buffer.position();
+        if (compact) {
+            buffer.compact();
+            pos = 0;
+        } else {
+            buffer.position(buffer.limit());
+            buffer.limit(buffer.capacity());
+        }
+        readMore();
+        buffer.limit(buffer.position());
+        buffer.position(pos);
+    }
+
+    private void readMore() throws IOException {
+        if (!buffer.hasRemaining()) {
+            ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+        if (channel.read(buffer) < 0) {
+            eof = true;
+        }
+    }
+
+    //ByteDictionary - Maps category bytes to codes, only new categories allocate a String
+    private static class ByteDictionary {
+        private List<String> values = new ArrayList<>();
+        private List<byte[]> keys = new ArrayList<>();
+        private int[] table = new int[64];
+
+        int code(ByteBuffer buffer, int start, int end) {
+            int hash = 0x811C9DC5;
+            for (int i = start; i < end; i++) {
+                hash = (hash ^ buffer.get(i)) * 0x01000193;
+            }
+
+            int mask = table.length - 1;
+            int slot = hash & mask;
+            while (table[slot] != 0) {
+                int code = table[slot] - 1;
+                if (sameBytes(keys.get(code), buffer, start, end)) {
+                    return code;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            byte[] key = new byte[end - start];
+            buffer.get(start, key, 0, key.length);
+            keys.add(key);
+            values.add(new String(key, StandardCharsets.UTF_8));
+            table[slot] = keys.size();
+
+            if (keys.size() * 2 > table.length) {
+                rehash();
+            }
+            return keys.size() - 1;
+        }
+
+        private void rehash() {
+            table = new int[table.length * 2];
+            int mask = table.length - 1;
+            for (int code = 0; code < keys.size(); code++) {
+                int hash = 0x811C9DC5;
+                for (byte b : keys.get(code)) {
+                    hash = (hash ^ b) * 0x01000193;
+                }
+                int slot = hash & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = code + 1;
+            }
+        }
+
+        private static boolean sameBytes(byte[] key, ByteBuffer buffer, int start, int end) {
+            if (key.length != end - start) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != buffer.get(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
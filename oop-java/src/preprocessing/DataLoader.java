@@ -20,12 +20,46 @@ public class DataLoader {
     private List<String[]> rows;
     private int numRows;
     private int numCols;
+    private Dataset dataset;
+    private boolean keepRows = true;
+    private boolean useCache = false;
+    private String[] projection = null;
+    private List<RowFilter> filters = new ArrayList<>();
+    
+    //Only load these columns, in this order (null loads every column)
+    public void setProjection(String... columns) {
+        this.projection = columns;
+    }
+    
+    //Only load rows matching an expression like "age > 30" or "native.country == United-States"
+    public void addFilter(String expression) {
+        filters.add(RowFilter.parse(expression));
+    }
+    
+    //Remove all row filters
+    public void clearFilters() {
+        filters.clear();
+    }
+    
+    //Choose whether a binary cache is written after parsing and read on later loads
+    public void setUseCache(boolean useCache) {
+        this.useCache = useCache;
+    }
+    
+    //Choose whether the String rows of loadCSV are kept after the columnar Dataset is built
+    //loadCSVMapped never makes them, getRows() rebuilds them from the Dataset when asked
+    public void setKeepRows(boolean keepRows) {
+        this.keepRows = keepRows;
+    }
     
     //Load the CSV file from the path
     public void loadCSV(String filePath) throws IOException {
         long startTime = System.currentTimeMillis();
         
         System.out.println("[" + new java.util.Date() + "] Starting Script");
+        if (loadFromCache(filePath, startTime)) {
+            return;
+        }
     
         BufferedReader reader = new BufferedReader(new FileReader(filePath));
         rows = new ArrayList<>();
@@ -40,12 +74,31 @@ public class DataLoader {
         }
         
         headers = headerLine.split(",");
-        numCols = headers.length;
         
         for (int i = 0; i < headers.length; i++) {
             headers[i] = headers[i].trim();
         }
         
+        // Resolve the filter and projection columns against the file header
+        for (RowFilter filter : filters) {
+            filter.bind(headers);
+        }
+        int[] projectedIndices = null;
+        if (projection != null) {
+            projectedIndices = new int[projection.length];
+            String[] projectedHeaders = new String[projection.length];
+            for (int p = 0; p < projection.length; p++) {
+                projectedIndices[p] = findIndex(headers, projection[p].trim());
+                if (projectedIndices[p] == -1) {
+                    reader.close();
+                    throw new IllegalArgumentException("Column '" + projection[p] + "' not found");
+                }
+                projectedHeaders[p] = headers[projectedIndices[p]];
+            }
+            headers = projectedHeaders;
+        }
+        numCols = headers.length;
+        
         System.out.println("[" + new java.util.Date() + "] Total Columns Read: " + numCols);
         
         // Reads from the data rows
@@ -57,27 +110,155 @@ public class DataLoader {
                 values[i] = values[i].trim();
             }
             
-            rows.add(values);
+            if (!passesFilters(values)) {
+                continue;
+            }
+            rows.add(projectedIndices == null ? values : project(values, projectedIndices));
         }
         
         reader.close();
         numRows = rows.size();
         
         System.out.println("[" + new java.util.Date() + "] Total Rows Read: " + numRows);
+        buildDataset(filePath);
     
         long endTime = System.currentTimeMillis();
         System.out.println("\nTime to load is: " + (endTime - startTime) / 1000.0 + " seconds");
     }
 
+    //Load the CSV file by memory-mapping it and parsing chunks on numThreads threads
+    public void loadCSVMapped(String filePath, int numThreads) throws IOException {
+        long startTime = System.currentTimeMillis();
+        
+        System.out.println("[" + new java.util.Date() + "] Starting Script");
+        if (loadFromCache(filePath, startTime)) {
+            return;
+        }
+        System.out.println("[" + new java.util.Date() + "] Loading training data set");
+        
+        // The columns are filled straight from the mapped bytes, String rows are only rebuilt on request
+        MappedCSVReader reader = new MappedCSVReader(numThreads);
+        reader.setProjection(projection);
+        reader.setFilters(filters);
+        dataset = reader.read(filePath);
+        rows = null;
+        
+        headers = reader.getHeaders();
+        numCols = headers.length;
+        System.out.println("[" + new java.util.Date() + "] Total Columns Read: " + numCols);
+        
+        numRows = dataset.getNumRows();
+        System.out.println("[" + new java.util.Date() + "] Total Rows Read: " + numRows);
+        writeCache(filePath);
+    
+        long endTime = System.currentTimeMillis();
+        System.out.println("\nTime to load is: " + (endTime - startTime) / 1000.0 + " seconds");
+    }
+
+    //Stream the CSV in batches of batchSize rows instead of loading it all
+    //The projection and filters set on this loader are applied to the stream
+    public BatchReader openBatches(String filePath, int batchSize) throws IOException {
+        return new BatchReader(filePath, batchSize, projection, filters);
+    }
+
+    //Fill the columnar Dataset once, and drop the String rows if they are not wanted
+    private void buildDataset(String filePath) {
+        dataset = Dataset.fromRows(headers, rows);
+        if (!keepRows) {
+            rows = null;
+        }
+        writeCache(filePath);
+    }
+    
+    private void writeCache(String filePath) {
+        if (useCache && isFullLoad()) {
+            try {
+                DatasetCache.write(filePath, dataset);
+            } catch (IOException e) {
+                System.err.println("Warning: Could not write dataset cache: " + e.getMessage());
+            }
+        }
+    }
+    
+    //Use the binary cache if it matches the CSV, returns false on a miss
+    private boolean loadFromCache(String filePath, long startTime) throws IOException {
+        if (!useCache || !isFullLoad()) {
+            return false;
+        }
+        Dataset cached = DatasetCache.read(filePath);
+        if (cached == null) {
+            return false;
+        }
+        
+        System.out.println("[" + new java.util.Date() + "] Loading training data set from cache");
+        dataset = cached;
+        headers = dataset.getHeaders();
+        numCols = headers.length;
+        numRows = dataset.getNumRows();
+        rows = null;
+        System.out.println("[" + new java.util.Date() + "] Total Columns Read: " + numCols);
+        System.out.println("[" + new java.util.Date() + "] Total Rows Read: " + numRows);
+        
+        long endTime = System.currentTimeMillis();
+        System.out.println("\nTime to load is: " + (endTime - startTime) / 1000.0 + " seconds");
+        return true;
+    }
+
+    //The cache only holds complete files, so projected or filtered loads skip it
+    private boolean isFullLoad() {
+        return projection == null && filters.isEmpty();
+    }
+    
+    private boolean passesFilters(String[] values) {
+        for (RowFilter filter : filters) {
+            if (!filter.matches(values)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    //Keep only the projected fields, missing fields become ""
+    private static String[] project(String[] values, int[] indices) {
+        String[] projected = new String[indices.length];
+        for (int p = 0; p < indices.length; p++) {
+            projected[p] = indices[p] < values.length ? values[indices[p]] : "";
+        }
+        return projected;
+    }
+    
+    private static int findIndex(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     public String[] getHeaders() {
         return headers;
     }
     
-    //Get all data rows
+    //Get all data rows, rebuilt from the Dataset if they were not kept
+    //Rebuilt rows hold the same text as the CSV, numeric cells keep their original spelling
     public List<String[]> getRows() {
+        if (rows == null && dataset != null) {
+            rows = dataset.toRows();
+        }
         return rows;
     }
     
+    //Get the columnar copy of the data
+    public Dataset getDataset() {
+        return dataset;
+    }
+    
+    //Get the column metadata cached at load time
+    public Schema getSchema() {
+        return dataset == null ? null : dataset.getSchema();
+    }
+    
     //Get the number of rows loaded
     public int getNumRows() {
         return numRows;
@@ -108,69 +289,59 @@ public class DataLoader {
         
         String[] column = new String[numRows];
         for (int i = 0; i < numRows; i++) {
-            column[i] = rows.get(i)[colIndex];
+            column[i] = rows != null ? rows.get(i)[colIndex] : dataset.getValue(i, colIndex);
         }
         return column;
     }
     
-    //Extracts a column as a double array
+    //Extracts a column as a double array, a copy the caller is free to modify
     public double[] getNumericColumn(String columnName) {
-        String[] strColumn = getColumn(columnName);
-        if (strColumn == null) {
+        int colIndex = getColumnIndex(columnName);
+        if (colIndex == -1) {
+            System.err.println("Column '" + columnName + "' not found!");
             return null;
         }
+        if (dataset.isNumeric(colIndex)) {
+            return dataset.getNumericColumn(colIndex).clone();
+        }
         
-        double[] numColumn = new double[strColumn.length];
-        for (int i = 0; i < strColumn.length; i++) {
-            try {
-                numColumn[i] = Double.parseDouble(strColumn[i]);
-            } catch (NumberFormatException e) {
-                System.err.println("Warning: Could not parse '" + strColumn[i] + "' as number. Using 0.0");
-                numColumn[i] = 0.0;
-            }
+        // Parse each category once instead of once per row
+        String[] dictionary = dataset.getDictionary(colIndex);
+        NumberParser parser = new NumberParser();
+        double[] parsed = new double[dictionary.length];
+        for (int c = 0; c < dictionary.length; c++) {
+            parsed[c] = parser.parse(dictionary[c], 0.0);
+        }
+        if (parser.getBadCells() > 0) {
+            System.err.println("Warning: " + parser.getBadCells() + " values in '" + columnName
+                    + "' could not be parsed as numbers. Using 0.0");
+        }
+        
+        int[] codes = dataset.getCodes(colIndex);
+        double[] numColumn = new double[numRows];
+        for (int i = 0; i < numRows; i++) {
+            numColumn[i] = parsed[codes[i]];
         }
         return numColumn;
     }
     
     //Checks if a column contains numeric data
     public boolean isNumericColumn(String columnName) {
-        String[] column = getColumn(columnName);
-        if (column == null || column.length == 0) {
+        int colIndex = getColumnIndex(columnName);
+        if (colIndex == -1 || numRows == 0) {
             return false;
         }
-        
-        // Checks the first few values
-        int samplesToCheck = Math.min(10, column.length);
-        for (int i = 0; i < samplesToCheck; i++) {
-            try {
-                Double.parseDouble(column[i]);
-            } catch (NumberFormatException e) {
-                return false;
-            }
-        }
-        return true;
+        return getSchema().getColumn(colIndex).isNumeric();
     }
     
     //Get all column names that are numeric
     public List<String> getNumericColumns() {
-        List<String> numericCols = new ArrayList<>();
-        for (String header : headers) {
-            if (isNumericColumn(header)) {
-                numericCols.add(header);
-            }
-        }
-        return numericCols;
+        return getSchema().getNumericColumns();
     }
     
     //Gets all of the column names that are categorical
     public List<String> getCategoricalColumns() {
-        List<String> categoricalCols = new ArrayList<>();
-        for (String header : headers) {
-            if (!isNumericColumn(header)) {
-                categoricalCols.add(header);
-            }
-        }
-        return categoricalCols;
+        return getSchema().getCategoricalColumns();
     }
     
     //Prints a summary of the loaded data
@@ -179,9 +350,15 @@ public class DataLoader {
         System.out.println("Rows: " + numRows);
         System.out.println("Columns: " + numCols);
         System.out.println("\nColumn Names:");
+        Schema schema = getSchema();
         for (int i = 0; i < headers.length; i++) {
-            String type = isNumericColumn(headers[i]) ? "numeric" : "categorical";
-            System.out.println("  " + (i+1) + ". " + headers[i] + " (" + type + ")");
+            Schema.ColumnInfo info = schema.getColumn(i);
+            String type = info.isNumeric() ? "numeric" : "categorical";
+            String details = "distinct: " + info.getDistinctCount() + ", nulls: " + info.getNullCount();
+            if (info.isNumeric()) {
+                details += ", min: " + info.getMin() + ", max: " + info.getMax();
+            }
+            System.out.println("  " + (i+1) + ". " + headers[i] + " (" + type + ") " + details);
         }
         System.out.println("===================\n");
     }
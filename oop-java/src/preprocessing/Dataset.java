@@ -0,0 +1,499 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: Dataset.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package preprocessing;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//Dataset - Columnar storage for a loaded CSV
+//Numeric columns are kept as double[], categorical columns as int[] codes plus a dictionary
+//Numeric cells whose text does not print back the same way ("?", "", "1.50") also keep their
+//original text, so rows rebuilt from the columns match the CSV
+//Whole numbers print as "37", or as "37.0" in a column whose first whole number was spelled that
+//way, so a column written with decimals does not keep the text of every cell
+public class Dataset {
+
+    // Same rule as the old DataLoader.isNumericColumn
+    static final int TYPE_SAMPLE_SIZE = 10;
+
+    private String[] headers;
+    private int numRows;
+    private boolean[] numeric;
+    private double[][] numericColumns;
+    private int[][] codeColumns;
+    private String[][] dictionaries;
+    private List<Map<Integer, String>> originals;   // per column, row -> CSV text, null for categorical
+    private boolean[] decimalText;                   // per column, whole numbers print as "37.0"
+    private Schema schema;
+    private long fingerprint;
+    private boolean fingerprinted;
+
+    Dataset(String[] headers, int numRows, boolean[] numeric, double[][] numericColumns, int[][] codeColumns,
+            String[][] dictionaries, List<Map<Integer, String>> originals, boolean[] decimalText, Schema schema) {
+        this.headers = headers;
+        this.numRows = numRows;
+        this.numeric = numeric;
+        this.numericColumns = numericColumns;
+        this.codeColumns = codeColumns;
+        this.dictionaries = dictionaries;
+        this.originals = originals;
+        this.decimalText = decimalText;
+        this.schema = schema;
+    }
+
+    //Build a dataset from parsed rows, column types come from the first few rows
+    public static Dataset fromRows(String[] headers, List<String[]> rows) {
+        Builder builder = new Builder(headers, inferNumeric(headers.length, rows), rows.size());
+        for (String[] row : rows) {
+            builder.addRow(row);
+        }
+        return builder.build();
+    }
+
+    //Decide which columns are numeric by trying to parse the first few values
+    public static boolean[] inferNumeric(int numCols, List<String[]> sampleRows) {
+        boolean[] numeric = new boolean[numCols];
+        int samplesToCheck = Math.min(TYPE_SAMPLE_SIZE, sampleRows.size());
+
+        for (int col = 0; col < numCols; col++) {
+            numeric[col] = samplesToCheck > 0;
+            for (int i = 0; i < samplesToCheck && numeric[col]; i++) {
+                String[] row = sampleRows.get(i);
+                if (col >= row.length) {
+                    numeric[col] = false;
+                    break;
+                }
+                if (!NumberParser.isNumber(row[col])) {
+                    numeric[col] = false;
+                }
+            }
+        }
+        return numeric;
+    }
+
+    public String[] getHeaders() {
+        return headers;
+    }
+
+    public int getNumRows() {
+        return numRows;
+    }
+
+    public int getNumCols() {
+        return headers.length;
+    }
+
+    //Get the index of a column by name
+    public int getColumnIndex(String columnName) {
+        for (int i = 0; i < headers.length; i++) {
+            if (headers[i].equalsIgnoreCase(columnName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    //Column types and statistics gathered while the dataset was built
+    public Schema getSchema() {
+        return schema;
+    }
+
+    public boolean isNumeric(int col) {
+        return numeric[col];
+    }
+
+    //Numeric values of a column, this is the stored array so it must not be modified
+    public double[] getNumericColumn(int col) {
+        if (!numeric[col]) {
+            throw new IllegalArgumentException("Column '" + headers[col] + "' is categorical");
+        }
+        return numericColumns[col];
+    }
+
+    //Category codes of a column, this is the stored array so it must not be modified
+    public int[] getCodes(int col) {
+        if (numeric[col]) {
+            throw new IllegalArgumentException("Column '" + headers[col] + "' is numeric");
+        }
+        return codeColumns[col];
+    }
+
+    //Code to value lookup for a categorical column
+    public String[] getDictionary(int col) {
+        if (numeric[col]) {
+            throw new IllegalArgumentException("Column '" + headers[col] + "' is numeric");
+        }
+        return dictionaries[col];
+    }
+
+    //CSV text of the numeric cells that do not print back as their parsed value, keyed by row
+    Map<Integer, String> getOriginalText(int col) {
+        return originals.get(col);
+    }
+
+    //Whether whole numbers of a numeric column print as "37.0" rather than "37"
+    boolean hasDecimalText(int col) {
+        return decimalText[col];
+    }
+
+    //Get a single cell as a String, as it was in the CSV
+    public String getValue(int row, int col) {
+        if (numeric[col]) {
+            String original = originals.get(col).get(row);
+            return original != null ? original : formatNumber(numericColumns[col][row], decimalText[col]);
+        }
+        return dictionaries[col][codeColumns[col][row]];
+    }
+
+    //Rebuild one row as a String array
+    public String[] getRow(int row) {
+        String[] values = new String[headers.length];
+        for (int col = 0; col < headers.length; col++) {
+            values[col] = getValue(row, col);
+        }
+        return values;
+    }
+
+    //Rebuild every row, only meant for code that still needs List<String[]>
+    public List<String[]> toRows() {
+        List<String[]> rows = new ArrayList<>(numRows);
+        for (int i = 0; i < numRows; i++) {
+            rows.add(getRow(i));
+        }
+        return rows;
+    }
+
+    //64-bit hash of the headers, types and every cell, computed once
+    //Two loads of the same data (even through different loaders) give the same value
+    public synchronized long fingerprint() {
+        if (!fingerprinted) {
+            long h = mix(0xCBF29CE484222325L, numRows);
+            for (int col = 0; col < headers.length; col++) {
+                h = mix(h, headers[col].hashCode());
+                if (numeric[col]) {
+                    for (int i = 0; i < numRows; i++) {
+                        h = mix(h, Double.doubleToLongBits(numericColumns[col][i]));
+                    }
+                } else {
+                    // Codes depend on first appearance, so hash the values they stand for
+                    long[] valueHashes = new long[dictionaries[col].length];
+                    for (int c = 0; c < valueHashes.length; c++) {
+                        valueHashes[c] = dictionaries[col][c].hashCode() * 0x9E3779B97F4A7C15L + 1;
+                    }
+                    for (int i = 0; i < numRows; i++) {
+                        h = mix(h, valueHashes[codeColumns[col][i]]);
+                    }
+                }
+            }
+            fingerprint = h;
+            fingerprinted = true;
+        }
+        return fingerprint;
+    }
+
+    private static long mix(long h, long value) {
+        h = (h ^ value) * 0x100000001B3L;
+        return h ^ (h >>> 29);
+    }
+
+    //Whole numbers are printed without a trailing .0 so they look like the CSV, unless decimal
+    static String formatNumber(double value, boolean decimal) {
+        if (!decimal && isWhole(value)) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    // The values the two spellings print differently
+    private static boolean isWhole(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15;
+    }
+
+    //Builder - Fills the column arrays one row at a time
+    //Rows come either as Strings (addRow) or cell by cell from a byte buffer (startRow, addCell,
+    //endRow), and builders filled from consecutive parts of a file join with append
+    public static class Builder {
+        static final byte SPELLING_UNKNOWN = 0;
+        static final byte SPELLING_PLAIN = 1;     // "37"
+        static final byte SPELLING_DECIMAL = 2;   // "37.0"
+        // Double.toString switches to "3.7E7" from 1e7 on
+        private static final int MAX_DECIMAL_DIGITS = 7;
+        private static final int MAX_PLAIN_DIGITS = 15;
+
+        private String[] headers;
+        private boolean[] numeric;
+        private double[][] numericColumns;
+        private int[][] codeColumns;
+        private List<Map<String, Integer>> codeMaps;
+        private List<List<String>> dictionaries;
+        private List<Map<Integer, String>> originals;
+        private byte[] spellings;
+        private int numRows;
+        private int capacity;
+        private int[] nullCounts;
+        private double[] mins;
+        private double[] maxs;
+        private NumberParser parser = new NumberParser();
+
+        public Builder(String[] headers, boolean[] numeric, int expectedRows) {
+            this.headers = headers;
+            this.numeric = numeric;
+            this.capacity = Math.max(16, expectedRows);
+            this.numericColumns = new double[headers.length][];
+            this.codeColumns = new int[headers.length][];
+            this.codeMaps = new ArrayList<>();
+            this.dictionaries = new ArrayList<>();
+            this.originals = new ArrayList<>();
+            this.spellings = new byte[headers.length];
+            this.nullCounts = new int[headers.length];
+            this.mins = new double[headers.length];
+            this.maxs = new double[headers.length];
+            Arrays.fill(mins, Double.POSITIVE_INFINITY);
+            Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+
+            for (int col = 0; col < headers.length; col++) {
+                if (numeric[col]) {
+                    numericColumns[col] = new double[capacity];
+                } else {
+                    codeColumns[col] = new int[capacity];
+                }
+                codeMaps.add(numeric[col] ? null : new HashMap<>());
+                dictionaries.add(numeric[col] ? null : new ArrayList<>());
+                originals.add(numeric[col] ? new HashMap<>() : null);
+            }
+        }
+
+        //Append one parsed row, missing trailing fields are treated as empty
+        public void addRow(String[] row) {
+            startRow();
+            for (int col = 0; col < headers.length; col++) {
+                String value = col < row.length ? row[col] : "";
+                boolean isNull = isNull(value);
+                if (isNull) {
+                    nullCounts[col]++;
+                }
+                if (numeric[col]) {
+                    double parsed = parser.parse(value, 0.0);
+                    setNumber(col, parsed, isNull);
+                    if (!printsAs(col, parsed, value)) {
+                        originals.get(col).put(numRows, value);
+                    }
+                } else {
+                    codeColumns[col][numRows] = codeFor(col, value);
+                }
+            }
+            endRow();
+        }
+
+        //Begin a row filled by addCell, every column must get exactly one cell before endRow
+        void startRow() {
+            ensureCapacity(numRows + 1);
+        }
+
+        //Set one cell of the current row from the already-trimmed bytes [start, end) of buffer
+        //Numbers are parsed from the bytes, only text that would not print back becomes a String
+        void addCell(int col, ByteBuffer buffer, int start, int end, byte[] scratch) {
+            boolean isNull = start == end || (end - start == 1 && buffer.get(start) == '?');
+            if (isNull) {
+                nullCounts[col]++;
+            }
+            if (!numeric[col]) {
+                codeColumns[col][numRows] = codeFor(col, MappedCSVReader.decode(buffer, start, end, scratch));
+                return;
+            }
+
+            double parsed = parser.parse(buffer, start, end, 0.0);
+            setNumber(col, parsed, isNull);
+            byte spelling = wholeSpelling(buffer, start, end);
+            if (spelling != SPELLING_UNKNOWN) {
+                if (spellings[col] == SPELLING_UNKNOWN) {
+                    spellings[col] = spelling;
+                }
+                if (spellings[col] != spelling) {
+                    originals.get(col).put(numRows, MappedCSVReader.decode(buffer, start, end, scratch));
+                }
+                return;
+            }
+            String value = MappedCSVReader.decode(buffer, start, end, scratch);
+            if (!printsAs(col, parsed, value)) {
+                originals.get(col).put(numRows, value);
+            }
+        }
+
+        void endRow() {
+            numRows++;
+        }
+
+        int getNumRows() {
+            return numRows;
+        }
+
+        //Append the rows of part after the rows of this builder, part must have the same columns
+        //Categories keep their first-appearance order, so appending the parts of a file in order
+        //gives the same codes as adding its rows one by one
+        void append(Builder part) {
+            ensureCapacity(numRows + part.numRows);
+            for (int col = 0; col < headers.length; col++) {
+                nullCounts[col] += part.nullCounts[col];
+                if (!numeric[col]) {
+                    List<String> partDictionary = part.dictionaries.get(col);
+                    int[] remap = new int[partDictionary.size()];
+                    for (int c = 0; c < remap.length; c++) {
+                        remap[c] = codeFor(col, partDictionary.get(c));
+                    }
+                    int[] codes = part.codeColumns[col];
+                    for (int i = 0; i < part.numRows; i++) {
+                        codeColumns[col][numRows + i] = remap[codes[i]];
+                    }
+                    continue;
+                }
+
+                double[] values = part.numericColumns[col];
+                System.arraycopy(values, 0, numericColumns[col], numRows, part.numRows);
+                mins[col] = Math.min(mins[col], part.mins[col]);
+                maxs[col] = Math.max(maxs[col], part.maxs[col]);
+                Map<Integer, String> text = originals.get(col);
+                Map<Integer, String> partText = part.originals.get(col);
+                for (Map.Entry<Integer, String> cell : partText.entrySet()) {
+                    text.put(numRows + cell.getKey(), cell.getValue());
+                }
+
+                byte partSpelling = part.spellings[col];
+                if (spellings[col] == SPELLING_UNKNOWN) {
+                    spellings[col] = partSpelling;
+                } else if (partSpelling != SPELLING_UNKNOWN && partSpelling != spellings[col]) {
+                    // The whole numbers part printed its own way now need their text kept
+                    boolean decimal = partSpelling == SPELLING_DECIMAL;
+                    for (int i = 0; i < part.numRows; i++) {
+                        if (isWhole(values[i]) && !partText.containsKey(i)) {
+                            text.put(numRows + i, formatNumber(values[i], decimal));
+                        }
+                    }
+                }
+            }
+            numRows += part.numRows;
+        }
+
+        public Dataset build() {
+            String[][] dicts = new String[headers.length][];
+            boolean[] decimalText = new boolean[headers.length];
+            Schema.ColumnInfo[] info = new Schema.ColumnInfo[headers.length];
+            for (int col = 0; col < headers.length; col++) {
+                if (numeric[col]) {
+                    numericColumns[col] = Arrays.copyOf(numericColumns[col], numRows);
+                    decimalText[col] = spellings[col] == SPELLING_DECIMAL;
+                    boolean empty = nullCounts[col] == numRows;
+                    info[col] = new Schema.ColumnInfo(headers[col], true, nullCounts[col],
+                            empty ? Double.NaN : mins[col], empty ? Double.NaN : maxs[col],
+                            countDistinct(numericColumns[col]));
+                } else {
+                    codeColumns[col] = Arrays.copyOf(codeColumns[col], numRows);
+                    dicts[col] = dictionaries.get(col).toArray(new String[0]);
+                    info[col] = new Schema.ColumnInfo(headers[col], false, nullCounts[col],
+                            Double.NaN, Double.NaN, dicts[col].length);
+                }
+            }
+            return new Dataset(headers, numRows, numeric, numericColumns, codeColumns, dicts, originals, decimalText,
+                    new Schema(info));
+        }
+
+        //Count distinct numbers with one sort of a scratch copy
+        private static int countDistinct(double[] values) {
+            if (values.length == 0) {
+                return 0;
+            }
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            int distinct = 1;
+            for (int i = 1; i < sorted.length; i++) {
+                if (Double.compare(sorted[i], sorted[i - 1]) != 0) {
+                    distinct++;
+                }
+            }
+            return distinct;
+        }
+
+        private void setNumber(int col, double parsed, boolean isNull) {
+            numericColumns[col][numRows] = parsed;
+            if (!isNull) {
+                mins[col] = Math.min(mins[col], parsed);
+                maxs[col] = Math.max(maxs[col], parsed);
+            }
+        }
+
+        // Whether value prints back from parsed, the first whole number fixes the column's spelling
+        private boolean printsAs(int col, double parsed, String value) {
+            if (spellings[col] == SPELLING_UNKNOWN && isWhole(parsed)) {
+                if (formatNumber(parsed, false).equals(value)) {
+                    spellings[col] = SPELLING_PLAIN;
+                } else if (formatNumber(parsed, true).equals(value)) {
+                    spellings[col] = SPELLING_DECIMAL;
+                }
+            }
+            return formatNumber(parsed, spellings[col] == SPELLING_DECIMAL).equals(value);
+        }
+
+        // SPELLING_PLAIN for "37", SPELLING_DECIMAL for "37.0", SPELLING_UNKNOWN for any other text,
+        // which then goes through printsAs; "-0" and leading zeros do not print back either way
+        static byte wholeSpelling(ByteBuffer buffer, int start, int end) {
+            int i = start;
+            if (i < end && buffer.get(i) == '-') {
+                i++;
+            }
+            int digitsStart = i;
+            while (i < end && buffer.get(i) >= '0' && buffer.get(i) <= '9') {
+                i++;
+            }
+            int digits = i - digitsStart;
+            if (digits == 0 || (digits > 1 && buffer.get(digitsStart) == '0')
+                    || (digitsStart > start && digits == 1 && buffer.get(digitsStart) == '0')) {
+                return SPELLING_UNKNOWN;
+            }
+            if (i == end) {
+                return digits <= MAX_PLAIN_DIGITS ? SPELLING_PLAIN : SPELLING_UNKNOWN;
+            }
+            if (end - i == 2 && buffer.get(i) == '.' && buffer.get(i + 1) == '0' && digits <= MAX_DECIMAL_DIGITS) {
+                return SPELLING_DECIMAL;
+            }
+            return SPELLING_UNKNOWN;
+        }
+
+        //Empty cells and the adult dataset's "?" marker count as missing
+        private static boolean isNull(String value) {
+            return value.isEmpty() || value.equals("?");
+        }
+
+        private int codeFor(int col, String value) {
+            Map<String, Integer> codes = codeMaps.get(col);
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = codes.size();
+                codes.put(value, code);
+                dictionaries.get(col).add(value);
+            }
+            return code;
+        }
+
+        private void ensureCapacity(int needed) {
+            if (needed <= capacity) {
+                return;
+            }
+            capacity = Math.max(needed, capacity + (capacity >> 1));
+            for (int col = 0; col < headers.length; col++) {
+                if (numeric[col]) {
+                    numericColumns[col] = Arrays.copyOf(numericColumns[col], capacity);
+                } else {
+                    codeColumns[col] = Arrays.copyOf(codeColumns[col], capacity);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,266 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: DatasetCache.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package preprocessing;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+//DatasetCache - Binary columnar copy of a parsed CSV, stored next to the CSV file
+//Layout: magic, version, fingerprint, row/column counts, then one typed block per column
+//A numeric block is followed by its whole-number spelling and the (row, text) pairs of cells that
+//keep their CSV text
+public class DatasetCache {
+
+    private static final int MAGIC = 0x4D4C4443;   // "MLDC"
+    private static final int VERSION = 3;
+    private static final String EXTENSION = ".mlcache";
+    // The CSV and the cache are read through mappings of at most this many bytes, a single
+    // MappedByteBuffer cannot go past 2GB
+    private static final long MAP_CHUNK = 1L << 30;
+
+    private static final byte TYPE_NUMERIC = 0;
+    private static final byte TYPE_CATEGORICAL = 1;
+
+    //Path of the cache file for a CSV file
+    public static String cachePath(String csvPath) {
+        return csvPath + EXTENSION;
+    }
+
+    //Fingerprint of the CSV: its size and a CRC of every byte
+    //The whole file is read, so any edit is caught even if it keeps the size and modification
+    //time; a CRC runs at memory speed, far faster than parsing the file again
+    public static long fingerprint(String csvPath) throws IOException {
+        CRC32 crc = new CRC32();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(csvPath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAP_CHUNK) {
+                long length = Math.min(MAP_CHUNK, size - position);
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+            }
+            return crc.getValue() * 31 + size;
+        }
+    }
+
+    //Load the cached dataset, or return null if there is no cache or it is out of date
+    public static Dataset read(String csvPath) throws IOException {
+        File cacheFile = new File(cachePath(csvPath));
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ)) {
+            CacheInput buffer = new CacheInput(channel);
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            if (buffer.getLong() != fingerprint(csvPath)) {
+                return null;
+            }
+
+            int numRows = buffer.getInt();
+            int numCols = buffer.getInt();
+            String[] headers = new String[numCols];
+            boolean[] numeric = new boolean[numCols];
+            double[][] numericColumns = new double[numCols][];
+            int[][] codeColumns = new int[numCols][];
+            String[][] dictionaries = new String[numCols][];
+            List<Map<Integer, String>> originals = new ArrayList<>();
+            boolean[] decimalText = new boolean[numCols];
+            Schema.ColumnInfo[] info = new Schema.ColumnInfo[numCols];
+
+            for (int col = 0; col < numCols; col++) {
+                headers[col] = buffer.readString();
+                numeric[col] = buffer.get() == TYPE_NUMERIC;
+                int nullCount = buffer.getInt();
+                double min = buffer.getDouble();
+                double max = buffer.getDouble();
+                int distinct = buffer.getInt();
+                info[col] = new Schema.ColumnInfo(headers[col], numeric[col], nullCount, min, max, distinct);
+
+                // Bulk copy each block out of the mapping
+                if (numeric[col]) {
+                    numericColumns[col] = new double[numRows];
+                    buffer.readDoubles(numericColumns[col]);
+                    decimalText[col] = buffer.get() != 0;
+                    int originalCount = buffer.getInt();
+                    Map<Integer, String> text = new HashMap<>();
+                    for (int k = 0; k < originalCount; k++) {
+                        int row = buffer.getInt();
+                        text.put(row, buffer.readString());
+                    }
+                    originals.add(text);
+                } else {
+                    originals.add(null);
+                    int dictSize = buffer.getInt();
+                    dictionaries[col] = new String[dictSize];
+                    for (int c = 0; c < dictSize; c++) {
+                        dictionaries[col][c] = buffer.readString();
+                    }
+                    codeColumns[col] = new int[numRows];
+                    buffer.readInts(codeColumns[col]);
+                }
+            }
+
+            return new Dataset(headers, numRows, numeric, numericColumns, codeColumns, dictionaries, originals,
+                    decimalText, new Schema(info));
+        } catch (RuntimeException e) {
+            // A truncated or corrupt cache is treated as a miss
+            return null;
+        }
+    }
+
+    //Write the dataset next to the CSV it was parsed from
+    public static void write(String csvPath, Dataset data) throws IOException {
+        long fingerprint = fingerprint(csvPath);
+        File tmpFile = new File(cachePath(csvPath) + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmpFile), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fingerprint);
+            out.writeInt(data.getNumRows());
+            out.writeInt(data.getNumCols());
+
+            Schema schema = data.getSchema();
+            for (int col = 0; col < data.getNumCols(); col++) {
+                Schema.ColumnInfo info = schema.getColumn(col);
+                writeString(out, data.getHeaders()[col]);
+                out.writeByte(data.isNumeric(col) ? TYPE_NUMERIC : TYPE_CATEGORICAL);
+                out.writeInt(info.getNullCount());
+                out.writeDouble(info.getMin());
+                out.writeDouble(info.getMax());
+                out.writeInt(info.getDistinctCount());
+
+                if (data.isNumeric(col)) {
+                    for (double value : data.getNumericColumn(col)) {
+                        out.writeDouble(value);
+                    }
+                    out.writeByte(data.hasDecimalText(col) ? 1 : 0);
+                    Map<Integer, String> text = data.getOriginalText(col);
+                    out.writeInt(text.size());
+                    for (Map.Entry<Integer, String> cell : text.entrySet()) {
+                        out.writeInt(cell.getKey());
+                        writeString(out, cell.getValue());
+                    }
+                } else {
+                    String[] dictionary = data.getDictionary(col);
+                    out.writeInt(dictionary.length);
+                    for (String value : dictionary) {
+                        writeString(out, value);
+                    }
+                    for (int code : data.getCodes(col)) {
+                        out.writeInt(code);
+                    }
+                }
+            }
+        }
+
+        // Replace the old cache only once the new one is complete
+        java.nio.file.Files.move(tmpFile.toPath(), Paths.get(cachePath(csvPath)),
+                java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    //CacheInput - Reads a cache file front to back through a mapping of at most MAP_CHUNK bytes,
+    //which moves forward whenever the next value does not fit in it
+    private static final class CacheInput {
+        private final FileChannel channel;
+        private final long size;
+        private long base;                 // file offset of window position 0
+        private MappedByteBuffer window;
+
+        CacheInput(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            map(0);
+        }
+
+        private void map(long position) throws IOException {
+            base = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_CHUNK, size - position));
+        }
+
+        // Make the next bytes bytes readable from the window, a short file reads as corrupt
+        private MappedByteBuffer need(int bytes) throws IOException {
+            if (window.remaining() < bytes) {
+                long position = base + window.position();
+                if (position + bytes > size) {
+                    throw new BufferUnderflowException();
+                }
+                map(position);
+            }
+            return window;
+        }
+
+        byte get() throws IOException {
+            return need(Byte.BYTES).get();
+        }
+
+        int getInt() throws IOException {
+            return need(Integer.BYTES).getInt();
+        }
+
+        long getLong() throws IOException {
+            return need(Long.BYTES).getLong();
+        }
+
+        double getDouble() throws IOException {
+            return need(Double.BYTES).getDouble();
+        }
+
+        String readString() throws IOException {
+            byte[] bytes = new byte[getInt()];
+            for (int done = 0; done < bytes.length; ) {
+                int n = Math.min(bytes.length - done, need(1).remaining());
+                window.get(bytes, done, n);
+                done += n;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        // Bulk copies, split wherever a block crosses the end of the window
+        void readDoubles(double[] out) throws IOException {
+            for (int done = 0; done < out.length; ) {
+                int n = Math.min(out.length - done, need(Double.BYTES).remaining() / Double.BYTES);
+                window.asDoubleBuffer().get(out, done, n);
+                window.position(window.position() + n * Double.BYTES);
+                done += n;
+            }
+        }
+
+        void readInts(int[] out) throws IOException {
+            for (int done = 0; done < out.length; ) {
+                int n = Math.min(out.length - done, need(Integer.BYTES).remaining() / Integer.BYTES);
+                window.asIntBuffer().get(out, done, n);
+                window.position(window.position() + n * Integer.BYTES);
+                done += n;
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: FeatureHasher.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package preprocessing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import utils.Parallel;
+
+//FeatureHasher - Encodes categorical columns into a fixed number of hashed columns
+//Used like OneHotEncoder, but keeps no dictionary so the width never grows with new categories
+//Each "column=value" pair adds +1 or -1 (from the hash) to one bucket, so collisions tend to cancel
+public class FeatureHasher {
+
+    private int numBuckets;
+    private int numThreads;
+    private String[] originalHeaders;
+    private boolean[] categorical;
+    private int[] featureColumns;
+    private int[] outputCols;
+    private int numNumeric;
+    private List<String> encodedHeaders;
+    private NumberParser parser = new NumberParser();
+
+    //Constructor
+    public FeatureHasher(int numBuckets) {
+        this(numBuckets, Parallel.defaultThreads());
+    }
+
+    public FeatureHasher(int numBuckets, int numThreads) {
+        if (numBuckets <= 0) {
+            throw new IllegalArgumentException("Number of buckets must be positive");
+        }
+        this.numBuckets = numBuckets;
+        this.numThreads = Math.max(1, numThreads);
+        this.encodedHeaders = new ArrayList<>();
+    }
+
+    //Fit on training data, only the column layout is recorded
+    public void fit(String[] headers, List<String[]> trainData, List<Integer> categoricalIndices) {
+        this.originalHeaders = headers;
+        this.featureColumns = null;
+        this.categorical = new boolean[headers.length];
+        for (int colIdx : categoricalIndices) {
+            categorical[colIdx] = true;
+        }
+        buildLayout();
+    }
+
+    //Transform the data, numeric columns come first, then the hashed buckets
+    public double[][] transform(List<String[]> data, List<Integer> categoricalIndices) {
+        if (categorical == null || featureColumns != null) {
+            throw new IllegalStateException("FeatureHasher must be fitted on rows before transform");
+        }
+
+        int numRows = data.size();
+        double[][] transformed = new double[numRows][getNumEncodedColumns()];
+        int[] seeds = columnSeeds();
+
+        Parallel.forRanges(numRows, numThreads, (from, to) -> {
+            for (int rowIdx = from; rowIdx < to; rowIdx++) {
+                String[] row = data.get(rowIdx);
+                double[] out = transformed[rowIdx];
+                for (int colIdx = 0; colIdx < row.length; colIdx++) {
+                    if (categorical[colIdx]) {
+                        int hash = hash(seeds[colIdx], row[colIdx]);
+                        out[numNumeric + bucket(hash)] += sign(hash);
+                    } else {
+                        out[outputCols[colIdx]] = parser.parse(row[colIdx], 0.0);
+                    }
+                }
+            }
+        });
+
+        return transformed;
+    }
+
+    //Fit and transform
+    public double[][] fitTransform(String[] headers, List<String[]> data, List<Integer> categoricalIndices) {
+        fit(headers, data, categoricalIndices);
+        return transform(data, categoricalIndices);
+    }
+
+    //Fit on the feature columns of a columnar Dataset
+    public void fit(Dataset data, int[] featureColumns, int[] rowIndices) {
+        this.originalHeaders = new String[featureColumns.length];
+        this.categorical = new boolean[featureColumns.length];
+        for (int f = 0; f < featureColumns.length; f++) {
+            originalHeaders[f] = data.getHeaders()[featureColumns[f]];
+            categorical[f] = !data.isNumeric(featureColumns[f]);
+        }
+        buildLayout();
+        this.featureColumns = featureColumns;
+    }
+
+    //Transform rows of a columnar Dataset, every dictionary entry is hashed only once
+    public double[][] transform(Dataset data, int[] rowIndices) {
+        if (featureColumns == null) {
+            throw new IllegalStateException("FeatureHasher must be fitted on a Dataset before transform");
+        }
+
+        int[] seeds = columnSeeds();
+        int[][] buckets = new int[featureColumns.length][];
+        double[][] signs = new double[featureColumns.length][];
+        for (int f = 0; f < featureColumns.length; f++) {
+            if (!categorical[f]) {
+                continue;
+            }
+            String[] dictionary = data.getDictionary(featureColumns[f]);
+            buckets[f] = new int[dictionary.length];
+            signs[f] = new double[dictionary.length];
+            for (int c = 0; c < dictionary.length; c++) {
+                int hash = hash(seeds[f], dictionary[c]);
+                buckets[f][c] = numNumeric + bucket(hash);
+                signs[f][c] = sign(hash);
+            }
+        }
+
+        double[][] transformed = new double[rowIndices.length][getNumEncodedColumns()];
+        Parallel.forRanges(rowIndices.length, numThreads, (from, to) -> {
+            for (int f = 0; f < featureColumns.length; f++) {
+                int col = featureColumns[f];
+                if (categorical[f]) {
+                    int[] codes = data.getCodes(col);
+                    for (int r = from; r < to; r++) {
+                        int code = codes[rowIndices[r]];
+                        transformed[r][buckets[f][code]] += signs[f][code];
+                    }
+                } else {
+                    double[] values = data.getNumericColumn(col);
+                    int out = outputCols[f];
+                    for (int r = from; r < to; r++) {
+                        transformed[r][out] = values[rowIndices[r]];
+                    }
+                }
+            }
+        });
+
+        return transformed;
+    }
+
+    //Get the encoded column headers
+    public List<String> getEncodedHeaders() {
+        return encodedHeaders;
+    }
+
+    //Get number of encoded columns, always numeric columns + buckets
+    public int getNumEncodedColumns() {
+        return numNumeric + numBuckets;
+    }
+
+    public int getNumBuckets() {
+        return numBuckets;
+    }
+
+    //Number of numeric cells that could not be parsed and were encoded as 0.0
+    public long getBadCells() {
+        return parser.getBadCells();
+    }
+
+    private void buildLayout() {
+        encodedHeaders.clear();
+        outputCols = new int[originalHeaders.length];
+        numNumeric = 0;
+        for (int i = 0; i < originalHeaders.length; i++) {
+            if (!categorical[i]) {
+                outputCols[i] = numNumeric++;
+                encodedHeaders.add(originalHeaders[i]);
+            } else {
+                outputCols[i] = -1;
+            }
+        }
+        for (int b = 0; b < numBuckets; b++) {
+            encodedHeaders.add("hash_" + b);
+        }
+    }
+
+    //Seed each column with its name so equal values in different columns land apart
+    private int[] columnSeeds() {
+        int[] seeds = new int[originalHeaders.length];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = hash(0x9747B28C, originalHeaders[i]);
+        }
+        return seeds;
+    }
+
+    //FNV-1a over the characters followed by the MurmurHash3 finalizer
+    private static int hash(int seed, String value) {
+        int h = seed ^ 0x811C9DC5;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    //Bucket from the low bits, sign from the top bit
+    private int bucket(int hash) {
+        return (hash & 0x7FFFFFFF) % numBuckets;
+    }
+
+    private static double sign(int hash) {
+        return hash >= 0 ? 1.0 : -1.0;
+    }
+}
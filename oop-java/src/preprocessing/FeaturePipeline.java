@@ -0,0 +1,355 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: FeaturePipeline.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package preprocessing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import utils.Matrix;
+
+//FeaturePipeline - The fitted one-hot encoding and normalization of a Preprocessor, ready for scoring
+//It can be saved to a small binary file and loaded in another process without the training CSV
+//transform(record, out) turns one raw CSV record into the same feature vector Preprocessor builds,
+//transform(batch) does the same for a whole RowBatch streamed by BatchReader
+//Layout: magic, version, feature count, then per feature its name, type and categories,
+//then the encoded width, a normalize flag and the means and stds
+public class FeaturePipeline {
+
+    private static final int MAGIC = 0x4D4C5050;   // "MLPP"
+    private static final int VERSION = 1;
+
+    private static final byte TYPE_NUMERIC = 0;
+    private static final byte TYPE_CATEGORICAL = 1;
+
+    private String[] featureNames;
+    private String[][] categories;
+    private List<Map<String, Integer>> slotMaps;
+    private int[] offsets;
+    private int numEncoded;
+    private boolean normalized;
+    private double[] means;
+    private double[] stds;
+    private double[] invStds; // scaled as (x - mean) * (1 / std), the same rounding as Normalizer
+    private int[] recordColumns;
+    private NumberParser parser = new NumberParser();
+
+    // Encoded value of a one-hot cell that is 0 and one that is 1, normalization included
+    private double[] offValues;
+    private double[] onValues;
+
+    private FeaturePipeline(String[] featureNames, String[][] categories, boolean normalized,
+                            double[] means, double[] stds) {
+        this.featureNames = featureNames;
+        this.categories = categories;
+        this.normalized = normalized;
+        this.slotMaps = new ArrayList<>(featureNames.length);
+        this.offsets = new int[featureNames.length];
+
+        int out = 0;
+        for (int f = 0; f < featureNames.length; f++) {
+            offsets[f] = out;
+            if (categories[f] == null) {
+                slotMaps.add(null);
+                out++;
+                continue;
+            }
+            Map<String, Integer> slots = new HashMap<>();
+            for (int k = 0; k < categories[f].length; k++) {
+                slots.put(categories[f][k], k);
+            }
+            slotMaps.add(slots);
+            out += categories[f].length;
+        }
+        this.numEncoded = out;
+
+        if (means.length != numEncoded || stds.length != numEncoded) {
+            throw new IllegalArgumentException("Expected " + numEncoded + " means and stds but got "
+                    + means.length + " and " + stds.length);
+        }
+        this.means = means;
+        this.stds = stds;
+
+        invStds = new double[numEncoded];
+        offValues = new double[numEncoded];
+        onValues = new double[numEncoded];
+        for (int j = 0; j < numEncoded; j++) {
+            invStds[j] = 1.0 / stds[j];
+            offValues[j] = (0.0 - means[j]) * invStds[j];
+            onValues[j] = (1.0 - means[j]) * invStds[j];
+        }
+
+        // By default a record holds exactly the feature columns, in order
+        recordColumns = new int[featureNames.length];
+        for (int f = 0; f < featureNames.length; f++) {
+            recordColumns[f] = f;
+        }
+    }
+
+    //Capture the fitted state of a Preprocessor after preprocess() has run
+    public static FeaturePipeline fromPreprocessor(Preprocessor preprocessor) {
+        OneHotEncoder encoder = preprocessor.getEncoder();
+        if (encoder == null) {
+            throw new IllegalStateException("Preprocessor must run preprocess() before its pipeline can be saved");
+        }
+
+        String[] names = encoder.getOriginalHeaders().clone();
+        String[][] categories = new String[names.length][];
+        for (int f = 0; f < names.length; f++) {
+            List<String> values = encoder.getUniqueValues(names[f]);
+            if (values != null) {
+                categories[f] = values.toArray(new String[0]);
+            }
+        }
+
+        int width = encoder.getNumEncodedColumns();
+        Normalizer normalizer = preprocessor.getNormalizer();
+        double[] means = new double[width];
+        double[] stds = new double[width];
+        if (normalizer != null) {
+            means = normalizer.getMeans().clone();
+            stds = normalizer.getStds().clone();
+        } else {
+            Arrays.fill(stds, 1.0);
+        }
+        return new FeaturePipeline(names, categories, normalizer != null, means, stds);
+    }
+
+    //Match features to the columns of full CSV records by name, e.g. records that still hold the target
+    public void bind(String[] recordHeaders) {
+        recordColumns = findColumns(recordHeaders);
+    }
+
+    private int[] findColumns(String[] recordHeaders) {
+        int[] columns = new int[featureNames.length];
+        for (int f = 0; f < featureNames.length; f++) {
+            columns[f] = -1;
+            for (int i = 0; i < recordHeaders.length; i++) {
+                if (recordHeaders[i].trim().equalsIgnoreCase(featureNames[f])) {
+                    columns[f] = i;
+                    break;
+                }
+            }
+            if (columns[f] == -1) {
+                throw new IllegalArgumentException("Feature column '" + featureNames[f] + "' not found in record headers");
+            }
+        }
+        return columns;
+    }
+
+    //Encode one record into out, which must have getNumFeatures() entries
+    //Fields are trimmed like DataLoader does, so the cells of a plain line.split(",") work as well
+    //Nothing is allocated for fields without surrounding spaces, unseen categories give an all-zero
+    //block like OneHotEncoder
+    public void transform(String[] record, double[] out) {
+        if (out.length < numEncoded) {
+            throw new IllegalArgumentException("Output needs " + numEncoded + " entries but has " + out.length);
+        }
+
+        for (int f = 0; f < featureNames.length; f++) {
+            int col = recordColumns[f];
+            String value = col < record.length ? record[col].trim() : "";
+            int start = offsets[f];
+            Map<String, Integer> slots = slotMaps.get(f);
+
+            if (slots == null) {
+                out[start] = (parser.parse(value, 0.0) - means[start]) * invStds[start];
+                continue;
+            }
+
+            int width = categories[f].length;
+            System.arraycopy(offValues, start, out, start, width);
+            Integer slot = slots.get(value);
+            if (slot != null) {
+                out[start + slot] = onValues[start + slot];
+            }
+        }
+    }
+
+    //Encode one record into a new array
+    public double[] transform(String[] record) {
+        double[] out = new double[numEncoded];
+        transform(record, out);
+        return out;
+    }
+
+    //Encode every row of a streamed batch into a new batch.size() x getNumFeatures() Matrix
+    //Features are found in the batch by name, so batches of the full CSV work as they are, and
+    //LinearRegression.partialFit can then train on a file one batch at a time
+    public Matrix transform(RowBatch batch) {
+        int[] columns = findColumns(batch.getHeaders());
+        int rows = batch.size();
+        Matrix X = new Matrix(rows, numEncoded);
+        double[] cells = X.getData();
+
+        for (int f = 0; f < featureNames.length; f++) {
+            int col = columns[f];
+            int start = offsets[f];
+            Map<String, Integer> slots = slotMaps.get(f);
+
+            if (slots == null) {
+                double[] values = numbersOf(batch, col);
+                for (int r = 0; r < rows; r++) {
+                    double value = batch.isNumeric(col) ? values[r] : values[batch.getCodes(col)[r]];
+                    cells[r * numEncoded + start] = (value - means[start]) * invStds[start];
+                }
+                continue;
+            }
+
+            // Work out the slot of each stream category once, -1 for categories not seen in training
+            int width = categories[f].length;
+            int[] codeSlots = null;
+            if (!batch.isNumeric(col)) {
+                codeSlots = new int[batch.getNumCategories(col)];
+                for (int c = 0; c < codeSlots.length; c++) {
+                    codeSlots[c] = slots.getOrDefault(batch.getCategory(col, c), -1);
+                }
+            }
+            for (int r = 0; r < rows; r++) {
+                int rowStart = r * numEncoded + start;
+                System.arraycopy(offValues, start, cells, rowStart, width);
+                // A category column the stream read as numbers is matched on the printed value
+                int slot = codeSlots != null ? codeSlots[batch.getCodes(col)[r]]
+                        : slots.getOrDefault(batch.getValue(r, col), -1);
+                if (slot >= 0) {
+                    cells[rowStart + slot] = onValues[start + slot];
+                }
+            }
+        }
+        return X;
+    }
+
+    // The numbers of a batch column, or the parsed value of each category if the stream read it as text
+    private double[] numbersOf(RowBatch batch, int col) {
+        if (batch.isNumeric(col)) {
+            return batch.getNumericColumn(col);
+        }
+        double[] parsed = new double[batch.getNumCategories(col)];
+        for (int c = 0; c < parsed.length; c++) {
+            parsed[c] = parser.parse(batch.getCategory(col, c), 0.0);
+        }
+        return parsed;
+    }
+
+    //Number of values transform writes
+    public int getNumFeatures() {
+        return numEncoded;
+    }
+
+    //Names of the raw columns a record must provide
+    public String[] getFeatureNames() {
+        return featureNames;
+    }
+
+    public boolean isNormalized() {
+        return normalized;
+    }
+
+    //Number of numeric cells that could not be parsed and were encoded as 0.0
+    public long getBadCells() {
+        return parser.getBadCells();
+    }
+
+    //Write the pipeline to a file
+    public void save(String path) throws IOException {
+        File tmpFile = new File(path + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(featureNames.length);
+            for (int f = 0; f < featureNames.length; f++) {
+                writeString(out, featureNames[f]);
+                if (categories[f] == null) {
+                    out.writeByte(TYPE_NUMERIC);
+                } else {
+                    out.writeByte(TYPE_CATEGORICAL);
+                    out.writeInt(categories[f].length);
+                    for (String value : categories[f]) {
+                        writeString(out, value);
+                    }
+                }
+            }
+
+            out.writeInt(numEncoded);
+            out.writeBoolean(normalized);
+            for (int j = 0; j < numEncoded; j++) {
+                out.writeDouble(means[j]);
+                out.writeDouble(stds[j]);
+            }
+        }
+
+        // Replace an old file only once the new one is complete
+        Files.move(tmpFile.toPath(), new File(path).toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    //Read a pipeline written by save()
+    public static FeaturePipeline load(String path) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("'" + path + "' is not a saved feature pipeline");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported feature pipeline version " + version);
+            }
+
+            int numFeatures = in.readInt();
+            String[] names = new String[numFeatures];
+            String[][] categories = new String[numFeatures][];
+            for (int f = 0; f < numFeatures; f++) {
+                names[f] = readString(in);
+                byte type = in.readByte();
+                if (type == TYPE_CATEGORICAL) {
+                    categories[f] = new String[in.readInt()];
+                    for (int k = 0; k < categories[f].length; k++) {
+                        categories[f][k] = readString(in);
+                    }
+                } else if (type != TYPE_NUMERIC) {
+                    throw new IOException("Corrupt feature pipeline: unknown column type " + type);
+                }
+            }
+
+            int width = in.readInt();
+            boolean normalized = in.readBoolean();
+            double[] means = new double[width];
+            double[] stds = new double[width];
+            for (int j = 0; j < width; j++) {
+                means[j] = in.readDouble();
+                stds[j] = in.readDouble();
+            }
+            return new FeaturePipeline(names, categories, normalized, means, stds);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
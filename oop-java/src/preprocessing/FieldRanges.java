@@ -0,0 +1,55 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: FieldRanges.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package preprocessing;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+//FieldRanges - Reusable trimmed start/end offsets of the fields in one CSV line
+class FieldRanges {
+    int[] starts = new int[32];
+    int[] ends = new int[32];
+    int count;
+
+    //Split on commas and trim each field, matching String.split(",") + trim()
+    void split(ByteBuffer buffer, int start, int end) {
+        count = 0;
+        int fieldStart = start;
+        int lastNonEmpty = -1;
+
+        for (int i = start; i <= end; i++) {
+            if (i == end || buffer.get(i) == ',') {
+                if (i > fieldStart) {
+                    lastNonEmpty = count;
+                }
+                add(buffer, fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+
+        // split() drops trailing empty fields, unless there was no comma at all
+        if (count > 1) {
+            count = lastNonEmpty + 1;
+        }
+    }
+
+    private void add(ByteBuffer buffer, int start, int end) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+}
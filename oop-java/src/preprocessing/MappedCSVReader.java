@@ -0,0 +1,349 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: MappedCSVReader.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package preprocessing;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+//MappedCSVReader - Memory-maps a CSV file and parses newline-aligned chunks in parallel
+//Produces the same headers and Dataset as the BufferedReader + split(",") + trim() path
+public class MappedCSVReader {
+
+    // Each mapped chunk has to fit in a single MappedByteBuffer
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+
+    private int numThreads;
+    private String[] headers;
+    private String[] projection;
+    private List<RowFilter> filters = new ArrayList<>();
+    private int[] projectedIndices;
+
+    //Constructor
+    public MappedCSVReader(int numThreads) {
+        if (numThreads <= 0) {
+            throw new IllegalArgumentException("Number of threads must be positive");
+        }
+        this.numThreads = numThreads;
+    }
+
+    //Only keep these columns, in this order (null keeps every column)
+    public void setProjection(String[] columns) {
+        this.projection = columns;
+    }
+
+    //Only keep rows that pass every filter
+    public void setFilters(List<RowFilter> filters) {
+        this.filters = filters;
+    }
+
+    //Read the whole file into a Dataset, headers are available from getHeaders() afterwards
+    //Each chunk fills its own columns straight from the mapped bytes, no String rows are made
+    public Dataset read(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize == 0) {
+                throw new IOException("CSV file is empty");
+            }
+
+            // The header is parsed on its own so the data chunks start on a row
+            long dataStart = readHeader(channel, fileSize);
+            long[] bounds = findChunkBounds(channel, dataStart, fileSize);
+            int numChunks = bounds.length - 1;
+            MappedByteBuffer[] buffers = new MappedByteBuffer[numChunks];
+            for (int c = 0; c < numChunks; c++) {
+                buffers[c] = channel.map(FileChannel.MapMode.READ_ONLY, bounds[c], bounds[c + 1] - bounds[c]);
+            }
+
+            // Column types come from the first rows that pass the filters, like on the String path
+            boolean[] numeric = Dataset.inferNumeric(headers.length, sampleRows(buffers));
+
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(numThreads, Math.max(1, numChunks)));
+            try {
+                List<Future<Dataset.Builder>> futures = new ArrayList<>();
+                for (MappedByteBuffer buffer : buffers) {
+                    futures.add(pool.submit(() -> parseChunk(buffer, numeric)));
+                }
+
+                // Chunks are joined back in file order
+                List<Dataset.Builder> parts = new ArrayList<>();
+                int numRows = 0;
+                for (Future<Dataset.Builder> future : futures) {
+                    Dataset.Builder part = future.get();
+                    parts.add(part);
+                    numRows += part.getNumRows();
+                }
+                Dataset.Builder all = new Dataset.Builder(headers, numeric, numRows);
+                for (Dataset.Builder part : parts) {
+                    all.append(part);
+                }
+                return all.build();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("CSV load was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to parse CSV chunk: " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    //Get the headers from the last read
+    public String[] getHeaders() {
+        return headers;
+    }
+
+    //Parse the header line and return the offset of the first data byte
+    private long readHeader(FileChannel channel, long fileSize) throws IOException {
+        long headerLength = Math.min(fileSize, 64 * 1024);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerLength);
+
+        int end = 0;
+        while (end < headerLength && buffer.get(end) != '\n' && buffer.get(end) != '\r') {
+            end++;
+        }
+        if (end == headerLength && headerLength < fileSize) {
+            throw new IOException("CSV header line is too long");
+        }
+
+        FieldRanges ranges = new FieldRanges();
+        ranges.split(buffer, 0, end);
+        byte[] scratch = new byte[end];
+        String[] fileHeaders = new String[ranges.count];
+        for (int i = 0; i < ranges.count; i++) {
+            fileHeaders[i] = decode(buffer, ranges.starts[i], ranges.ends[i], scratch);
+        }
+        bindColumns(fileHeaders);
+
+        // Skip the line terminator (\n, \r or \r\n)
+        long next = end;
+        if (next < headerLength && buffer.get((int) next) == '\r') {
+            next++;
+        }
+        if (next < headerLength && buffer.get((int) next) == '\n') {
+            next++;
+        }
+        return next;
+    }
+
+    //Resolve the projection and filter columns against the file header
+    private void bindColumns(String[] fileHeaders) {
+        for (RowFilter filter : filters) {
+            filter.bind(fileHeaders);
+        }
+        if (projection == null) {
+            headers = fileHeaders;
+            projectedIndices = null;
+            return;
+        }
+
+        projectedIndices = resolveProjection(fileHeaders, projection);
+        headers = new String[projection.length];
+        for (int p = 0; p < projection.length; p++) {
+            headers[p] = fileHeaders[projectedIndices[p]];
+        }
+    }
+
+    //Map projected column names to their positions in the file header
+    static int[] resolveProjection(String[] fileHeaders, String[] projection) {
+        int[] indices = new int[projection.length];
+        for (int p = 0; p < projection.length; p++) {
+            indices[p] = -1;
+            for (int i = 0; i < fileHeaders.length; i++) {
+                if (fileHeaders[i].equalsIgnoreCase(projection[p].trim())) {
+                    indices[p] = i;
+                    break;
+                }
+            }
+            if (indices[p] == -1) {
+                throw new IllegalArgumentException("Column '" + projection[p] + "' not found");
+            }
+        }
+        return indices;
+    }
+
+    //Pick chunk boundaries so every chunk starts right after a newline
+    private long[] findChunkBounds(FileChannel channel, long dataStart, long fileSize) throws IOException {
+        long dataSize = fileSize - dataStart;
+        int targetChunks = (int) Math.max(numThreads * 4L, dataSize / MAX_CHUNK_BYTES + 1);
+        long chunkSize = Math.max(1, dataSize / targetChunks);
+
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(dataStart);
+        long pos = dataStart;
+        java.nio.ByteBuffer probe = java.nio.ByteBuffer.allocate(8192);
+
+        while (true) {
+            long guess = pos + chunkSize;
+            if (guess >= fileSize) {
+                break;
+            }
+
+            // Walk forward to the next newline
+            long next = -1;
+            long scan = guess;
+            while (next == -1 && scan < fileSize) {
+                probe.clear();
+                int read = channel.read(probe, scan);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        next = scan + i + 1;
+                        break;
+                    }
+                }
+                scan += read;
+            }
+
+            if (next == -1 || next >= fileSize) {
+                break;
+            }
+            if (next - pos > MAX_CHUNK_BYTES) {
+                throw new IOException("CSV line is too long to map");
+            }
+            bounds.add(next);
+            pos = next;
+        }
+
+        if (fileSize - pos > MAX_CHUNK_BYTES) {
+            throw new IOException("CSV line is too long to map");
+        }
+        bounds.add(fileSize);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    //RowHandler - Gets each kept line of a chunk, returns false to stop early
+    private interface RowHandler {
+        boolean row(FieldRanges ranges, byte[] scratch);
+    }
+
+    //Walk the lines of one mapped chunk, scratch is always long enough for any field of the line
+    private void forEachRow(MappedByteBuffer buffer, RowHandler handler) {
+        FieldRanges ranges = new FieldRanges();
+        byte[] scratch = new byte[256];
+        int limit = buffer.limit();
+        int lineStart = 0;
+
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n' && buffer.get(lineEnd) != '\r') {
+                lineEnd++;
+            }
+
+            if (lineEnd - lineStart > scratch.length) {
+                scratch = new byte[lineEnd - lineStart];
+            }
+            ranges.split(buffer, lineStart, lineEnd);
+
+            // Filters run on the raw bytes, so rejected rows are never decoded
+            if (passesFilters(buffer, ranges) && !handler.row(ranges, scratch)) {
+                return;
+            }
+
+            // Skip the line terminator (\n, \r or \r\n)
+            lineStart = lineEnd;
+            if (lineStart < limit && buffer.get(lineStart) == '\r') {
+                lineStart++;
+            }
+            if (lineStart < limit && buffer.get(lineStart) == '\n') {
+                lineStart++;
+            }
+        }
+    }
+
+    //Decode the first rows kept, as many as Dataset.inferNumeric looks at
+    private List<String[]> sampleRows(MappedByteBuffer[] buffers) {
+        List<String[]> sample = new ArrayList<>();
+        for (MappedByteBuffer buffer : buffers) {
+            forEachRow(buffer, (ranges, scratch) -> {
+                sample.add(decodeRow(buffer, ranges, scratch));
+                return sample.size() < Dataset.TYPE_SAMPLE_SIZE;
+            });
+            if (sample.size() >= Dataset.TYPE_SAMPLE_SIZE) {
+                break;
+            }
+        }
+        return sample;
+    }
+
+    //Fill the columns of one chunk, missing projected or trailing fields are empty
+    private Dataset.Builder parseChunk(MappedByteBuffer buffer, boolean[] numeric) {
+        Dataset.Builder part = new Dataset.Builder(headers, numeric, 0);
+        forEachRow(buffer, (ranges, scratch) -> {
+            part.startRow();
+            for (int p = 0; p < headers.length; p++) {
+                int col = projectedIndices == null ? p : projectedIndices[p];
+                if (col < ranges.count) {
+                    part.addCell(p, buffer, ranges.starts[col], ranges.ends[col], scratch);
+                } else {
+                    part.addCell(p, buffer, 0, 0, scratch);
+                }
+            }
+            part.endRow();
+            return true;
+        });
+        return part;
+    }
+
+    private boolean passesFilters(MappedByteBuffer buffer, FieldRanges ranges) {
+        for (RowFilter filter : filters) {
+            int col = filter.getColumnIndex();
+            boolean present = col < ranges.count;
+            int start = present ? ranges.starts[col] : 0;
+            int end = present ? ranges.ends[col] : 0;
+            if (!filter.matches(buffer, start, end)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Decode the kept fields of one line, missing projected fields become ""
+    private String[] decodeRow(MappedByteBuffer buffer, FieldRanges ranges, byte[] scratch) {
+        if (projectedIndices == null) {
+            String[] row = new String[ranges.count];
+            for (int i = 0; i < ranges.count; i++) {
+                row[i] = decode(buffer, ranges.starts[i], ranges.ends[i], scratch);
+            }
+            return row;
+        }
+
+        String[] row = new String[projectedIndices.length];
+        for (int p = 0; p < projectedIndices.length; p++) {
+            int col = projectedIndices[p];
+            row[p] = col < ranges.count ? decode(buffer, ranges.starts[col], ranges.ends[col], scratch) : "";
+        }
+        return row;
+    }
+
+    //Decode one already-trimmed field straight from the mapped bytes
+    static String decode(java.nio.ByteBuffer buffer, int start, int end, byte[] scratch) {
+        int length = end - start;
+        if (length == 0) {
+            return "";
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -6,76 +6,338 @@
 //--------------------------------------------------------
 package preprocessing;
 
+import utils.FeatureMatrix;
+import utils.FloatMatrix;
+import utils.Matrix;
+import utils.OffHeapMatrix;
+import utils.Parallel;
+import utils.SparseMatrix;
+
 //Normalizer - Z-score normalization for numeric features
 public class Normalizer {
     
     private double[] means;
     private double[] stds;
     private int numFeatures;
+    private Moments moments;
+    private int numThreads = Parallel.defaultThreads();
+    
+    //Constructor
+    public Normalizer() {
+    }
+    
+    //Build an already fitted normalizer from known means and standard deviations
+    public Normalizer(double[] means, double[] stds) {
+        if (means.length != stds.length) {
+            throw new IllegalArgumentException("Means and stds must have the same length");
+        }
+        this.means = means;
+        this.stds = stds;
+        this.numFeatures = means.length;
+    }
+    
+    //Threads used by fit, 1 keeps everything on the calling thread
+    public void setNumThreads(int numThreads) {
+        this.numThreads = Math.max(1, numThreads);
+    }
     
     //Fit the normalizer on training data, compute the  means and standard deviations)
+    //One pass over the rows, each block of rows is summarized on its own thread and then merged
     public void fit(double[][] X) {
         if (X == null || X.length == 0) {
             throw new IllegalArgumentException("Data cannot be empty");
         }
         
-        int numSamples = X.length;
-        numFeatures = X[0].length;
+        moments = summarize(X);
+        numFeatures = moments.getNumFeatures();
+        updateFromMoments();
         
-        means = new double[numFeatures];
-        stds = new double[numFeatures];
+        //System.out.println("Normalization fitted on " + numFeatures + " features");
+    }
+    
+    //Fit on any feature matrix, e.g. a FloatMatrix, the statistics are still kept in double
+    public void fit(FeatureMatrix X) {
+        if (X == null || X.getNumRows() == 0) {
+            throw new IllegalArgumentException("Data cannot be empty");
+        }
         
-        // Computes the means
-        for (int j = 0; j < numFeatures; j++) {
-            double sum = 0.0;
-            for (int i = 0; i < numSamples; i++) {
-                sum += X[i][j];
-            }
-            means[j] = sum / numSamples;
+        moments = summarize(X);
+        numFeatures = moments.getNumFeatures();
+        updateFromMoments();
+    }
+    
+    //Fit from statistics that were gathered elsewhere, e.g. one Moments per file chunk
+    public void fit(Moments stats) {
+        if (stats.getCount() == 0) {
+            throw new IllegalArgumentException("Data cannot be empty");
+        }
+        moments = stats.copy();
+        numFeatures = moments.getNumFeatures();
+        updateFromMoments();
+    }
+    
+    //Add another batch of rows to an already fitted normalizer
+    public void partialFit(double[][] batch) {
+        if (moments == null && means != null) {
+            throw new IllegalStateException("Normalizer built from fixed means and stds cannot be updated");
+        }
+        if (batch == null || batch.length == 0) {
+            return;
+        }
+        
+        Moments update = summarize(batch);
+        if (moments == null) {
+            moments = update;
+        } else {
+            moments.merge(update);
+        }
+        numFeatures = moments.getNumFeatures();
+        updateFromMoments();
+    }
+    
+    //Statistics the normalizer is currently fitted on, null if it was built from fixed values
+    public Moments getMoments() {
+        return moments;
+    }
+    
+    //Summarize the rows in fixed-size blocks, merged in block order so the result depends neither
+    //on timing nor on the number of threads
+    private Moments summarize(double[][] X) {
+        int cols = X[0].length;
+        int blocks = Parallel.fixedBlockCount(X.length);
+        Moments[] parts = new Moments[blocks];
+        
+        Parallel.forBlocks(X.length, blocks, numThreads, (block, from, to) -> {
+            Moments part = new Moments(cols);
+            part.add(X, from, to);
+            parts[block] = part;
+        });
+        
+        for (int b = 1; b < blocks; b++) {
+            parts[0].merge(parts[b]);
+        }
+        return parts[0];
+    }
+    
+    private Moments summarize(FeatureMatrix X) {
+        int cols = X.getNumCols();
+        int blocks = Parallel.fixedBlockCount(X.getNumRows());
+        Moments[] parts = new Moments[blocks];
+        
+        Parallel.forBlocks(X.getNumRows(), blocks, numThreads, (block, from, to) -> {
+            Moments part = new Moments(cols);
+            part.add(X, from, to);
+            parts[block] = part;
+        });
+        
+        for (int b = 1; b < blocks; b++) {
+            parts[0].merge(parts[b]);
         }
+        return parts[0];
+    }
+    
+    private void updateFromMoments() {
+        means = moments.getMeans().clone();
+        stds = moments.getStds();
         
-        // Computes the standard deviations
+        // Avoid division by zero
         for (int j = 0; j < numFeatures; j++) {
-            double sumSquaredDiff = 0.0;
-            for (int i = 0; i < numSamples; i++) {
-                double diff = X[i][j] - means[j];
-                sumSquaredDiff += diff * diff;
-            }
-            stds[j] = Math.sqrt(sumSquaredDiff / numSamples);
-            
-            // Avoid division by zero
             if (stds[j] < 1e-10) {
                 stds[j] = 1.0;
             }
         }
-        
-        //System.out.println("Normalization fitted on " + numFeatures + " features");
     }
     
-    //Transform the data using fitted means and standard deviations
+    //Transform the data using fitted means and standard deviations, X is left unchanged
     public double[][] transform(double[][] X) {
-        if (means == null || stds == null) {
-            throw new IllegalStateException("Normalizer must be fitted before transform");
-        }
+        checkFitted();
         
         int numSamples = X.length;
         double[][] normalized = new double[numSamples][numFeatures];
+        double[] invStds = inverseStds();
         
-        for (int i = 0; i < numSamples; i++) {
-            for (int j = 0; j < numFeatures; j++) {
-                normalized[i][j] = (X[i][j] - means[j]) / stds[j];
+        Parallel.forRanges(numSamples, numThreads, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                scaleRow(X[i], normalized[i], invStds);
             }
-        }
+        });
         
         return normalized;
     }
     
+    //Transform X in place, no new matrix is allocated
+    public double[][] transformInPlace(double[][] X) {
+        checkFitted();
+        
+        double[] invStds = inverseStds();
+        Parallel.forRanges(X.length, numThreads, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                scaleRow(X[i], X[i], invStds);
+            }
+        });
+        
+        return X;
+    }
+    
+    //Transform a Matrix in place over its flat data
+    public Matrix transformInPlace(Matrix X) {
+        checkFitted();
+        checkColumns(X);
+        
+        double[] invStds = inverseStds();
+        double[] data = X.getData();
+        Parallel.forRanges(X.getNumRows(), numThreads, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int offset = X.rowOffset(i);
+                for (int j = 0; j < numFeatures; j++) {
+                    data[offset + j] = (data[offset + j] - means[j]) * invStds[j];
+                }
+            }
+        });
+        
+        return X;
+    }
+    
+    //Transform an OffHeapMatrix in place, a row at a time through a heap buffer per thread
+    public OffHeapMatrix transformInPlace(OffHeapMatrix X) {
+        checkFitted();
+        checkColumns(X);
+        
+        double[] invStds = inverseStds();
+        Parallel.forRanges(X.getNumRows(), numThreads, (from, to) -> {
+            double[] row = new double[numFeatures];
+            for (int i = from; i < to; i++) {
+                X.getRow(i, row);
+                scaleRow(row, row, invStds);
+                X.setRow(i, row);
+            }
+        });
+        
+        return X;
+    }
+    
+    //Transform whichever layout the preprocessor built in place
+    public FeatureMatrix transformInPlace(FeatureMatrix X) {
+        if (X instanceof Matrix) {
+            return transformInPlace((Matrix) X);
+        }
+        if (X instanceof FloatMatrix) {
+            return transformInPlace((FloatMatrix) X);
+        }
+        if (X instanceof OffHeapMatrix) {
+            return transformInPlace((OffHeapMatrix) X);
+        }
+        if (X instanceof SparseMatrix) {
+            return transformInPlace((SparseMatrix) X);
+        }
+        throw new IllegalArgumentException("Cannot normalize a " + X.getClass().getSimpleName() + " in place");
+    }
+    
+    //Transform a FloatMatrix in place, each value is scaled in double and rounded once
+    public FloatMatrix transformInPlace(FloatMatrix X) {
+        checkFitted();
+        checkColumns(X);
+        
+        double[] invStds = inverseStds();
+        float[] data = X.getData();
+        Parallel.forRanges(X.getNumRows(), numThreads, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int offset = X.rowOffset(i);
+                for (int j = 0; j < numFeatures; j++) {
+                    data[offset + j] = (float) ((data[offset + j] - means[j]) * invStds[j]);
+                }
+            }
+        });
+        
+        return X;
+    }
+    
+    //Transform a SparseMatrix in place over its stored values
+    //The cells it does not store stay 0, so every mean must be 0, see withoutCentering()
+    public SparseMatrix transformInPlace(SparseMatrix X) {
+        checkFitted();
+        checkColumns(X);
+        for (int j = 0; j < numFeatures; j++) {
+            if (means[j] != 0.0) {
+                throw new IllegalStateException("A SparseMatrix can only be scaled, centering would fill in its zeros");
+            }
+        }
+        
+        double[] invStds = inverseStds();
+        int[] rowPtr = X.getRowPtr();
+        int[] colIndices = X.getColIndices();
+        double[] values = X.getValues();
+        Parallel.forRanges(X.getNumRows(), numThreads, (from, to) -> {
+            for (int k = rowPtr[from]; k < rowPtr[to]; k++) {
+                values[k] = values[k] * invStds[colIndices[k]];
+            }
+        });
+        
+        return X;
+    }
+    
+    //Fitted normalizer with the same stds and every mean at 0: it only scales, so a zero stays 0
+    //Used for sparse matrices; the bias of a linear model takes up the shift and KNN distances
+    //do not depend on it
+    public Normalizer withoutCentering() {
+        checkFitted();
+        Normalizer scaled = new Normalizer(new double[numFeatures], stds.clone());
+        scaled.numThreads = numThreads;
+        return scaled;
+    }
+    
     //Fit and transform
     public double[][] fitTransform(double[][] X) {
         fit(X);
         return transform(X);
     }
     
+    //Fit and transform X in place
+    public double[][] fitTransformInPlace(double[][] X) {
+        fit(X);
+        return transformInPlace(X);
+    }
+    
+    private void scaleRow(double[] row, double[] out, double[] invStds) {
+        if (row.length != numFeatures) {
+            throw new IllegalArgumentException("Expected " + numFeatures + " features but got " + row.length);
+        }
+        for (int j = 0; j < numFeatures; j++) {
+            out[j] = (row[j] - means[j]) * invStds[j];
+        }
+    }
+    
+    private double[] inverseStds() {
+        double[] invStds = new double[numFeatures];
+        for (int j = 0; j < numFeatures; j++) {
+            invStds[j] = 1.0 / stds[j];
+        }
+        return invStds;
+    }
+    
+    private void checkColumns(FeatureMatrix X) {
+        if (X.getNumCols() != numFeatures) {
+            throw new IllegalArgumentException("Expected " + numFeatures + " features but got " + X.getNumCols());
+        }
+    }
+    
+    private void checkFitted() {
+        if (means == null || stds == null) {
+            throw new IllegalStateException("Normalizer must be fitted before transform");
+        }
+    }
+    
+    //Independent copy with the same fitted state, later fits of either leave the other alone
+    public Normalizer copy() {
+        Normalizer copy = new Normalizer();
+        copy.means = means == null ? null : means.clone();
+        copy.stds = stds == null ? null : stds.clone();
+        copy.numFeatures = numFeatures;
+        copy.moments = moments == null ? null : moments.copy();
+        copy.numThreads = numThreads;
+        return copy;
+    }
+    
     //Get the computed means
     public double[] getMeans() {
         return means;
@@ -85,4 +347,98 @@ public class Normalizer {
     public double[] getStds() {
         return stds;
     }
+    
+    //Moments - Count, mean and sum of squared deviations per feature (Welford)
+    //Two Moments over disjoint rows merge exactly into the Moments of all rows (Chan et al.)
+    public static class Moments {
+        private long count;
+        private double[] mean;
+        private double[] m2;
+        
+        public Moments(int numFeatures) {
+            this.mean = new double[numFeatures];
+            this.m2 = new double[numFeatures];
+        }
+        
+        //Add one row
+        public void add(double[] row) {
+            count++;
+            double inv = 1.0 / count;
+            for (int j = 0; j < mean.length; j++) {
+                double delta = row[j] - mean[j];
+                mean[j] += delta * inv;
+                m2[j] += delta * (row[j] - mean[j]);
+            }
+        }
+        
+        //Add the rows [from, to)
+        public void add(double[][] X, int from, int to) {
+            for (int i = from; i < to; i++) {
+                add(X[i]);
+            }
+        }
+        
+        //Add the rows [from, to) of any feature matrix
+        public void add(FeatureMatrix X, int from, int to) {
+            double[] row = new double[X.getNumCols()];
+            for (int i = from; i < to; i++) {
+                X.getRow(i, row);
+                add(row);
+            }
+        }
+        
+        //Fold other into this
+        public void merge(Moments other) {
+            if (other.mean.length != mean.length) {
+                throw new IllegalArgumentException("Cannot merge statistics of " + other.mean.length
+                        + " features into " + mean.length);
+            }
+            if (other.count == 0) {
+                return;
+            }
+            if (count == 0) {
+                count = other.count;
+                mean = other.mean.clone();
+                m2 = other.m2.clone();
+                return;
+            }
+            
+            double total = count + other.count;
+            double weight = other.count / total;
+            double cross = (double) count * other.count / total;
+            for (int j = 0; j < mean.length; j++) {
+                double delta = other.mean[j] - mean[j];
+                mean[j] += delta * weight;
+                m2[j] += other.m2[j] + delta * delta * cross;
+            }
+            count += other.count;
+        }
+        
+        public Moments copy() {
+            Moments copy = new Moments(mean.length);
+            copy.merge(this);
+            return copy;
+        }
+        
+        public long getCount() {
+            return count;
+        }
+        
+        public int getNumFeatures() {
+            return mean.length;
+        }
+        
+        public double[] getMeans() {
+            return mean;
+        }
+        
+        //Population standard deviations, a new array
+        public double[] getStds() {
+            double[] stds = new double[mean.length];
+            for (int j = 0; j < mean.length; j++) {
+                stds[j] = count == 0 ? 0.0 : Math.sqrt(m2[j] / count);
+            }
+            return stds;
+        }
+    }
 }
@@ -0,0 +1,206 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: NumberParser.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package preprocessing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+//NumberParser - Parses decimal numbers from Strings or buffer slices without allocating
+//Cells that are not numbers are counted instead of throwing NumberFormatException
+public class NumberParser {
+
+    // Powers of ten that a double holds exactly
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // A mantissa up to 15 digits times an exact power of ten rounds correctly
+    private static final int MAX_FAST_DIGITS = 15;
+
+    private final AtomicLong badCells = new AtomicLong();
+
+    //Parse a String cell, returning fallback (and counting it) if it is not a number
+    public double parse(CharSequence text, double fallback) {
+        return parseRange(text, 0, text.length(), fallback);
+    }
+
+    //Parse the bytes [start, end) of a buffer, returning fallback (and counting it) if it is not a number
+    public double parse(ByteBuffer buffer, int start, int end, double fallback) {
+        return parseRange(buffer, start, end, fallback);
+    }
+
+    //Check a cell without touching the bad-cell counter
+    public static boolean isNumber(CharSequence text) {
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+        return !Double.isNaN(fastParse(text, start, end)) || parseSpecial(text, start, end) != null;
+    }
+
+    //Number of cells that could not be parsed so far
+    public long getBadCells() {
+        return badCells.get();
+    }
+
+    public void resetBadCells() {
+        badCells.set(0);
+    }
+
+    private double parseRange(Object src, int start, int end, double fallback) {
+        while (start < end && ch(src, start) <= ' ') {
+            start++;
+        }
+        while (end > start && ch(src, end - 1) <= ' ') {
+            end--;
+        }
+
+        if (start < end) {
+            double value = fastParse(src, start, end);
+            if (!Double.isNaN(value)) {
+                return value;
+            }
+            Double special = parseSpecial(src, start, end);
+            if (special != null) {
+                return special;
+            }
+        }
+
+        badCells.incrementAndGet();
+        return fallback;
+    }
+
+    //Parse [sign] digits [. digits] [e [sign] digits], or return NaN if the text has another shape
+    private static double fastParse(Object src, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        char c = ch(src, i);
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int significant = 0;
+        int scale = 0;
+        boolean anyDigits = false;
+
+        while (i < end && isDigit(ch(src, i))) {
+            anyDigits = true;
+            significant = addDigit(significant, mantissa, ch(src, i));
+            if (significant <= 18) {
+                mantissa = mantissa * 10 + (ch(src, i) - '0');
+            } else {
+                scale++;
+            }
+            i++;
+        }
+
+        if (i < end && ch(src, i) == '.') {
+            i++;
+            while (i < end && isDigit(ch(src, i))) {
+                anyDigits = true;
+                significant = addDigit(significant, mantissa, ch(src, i));
+                if (significant <= 18) {
+                    mantissa = mantissa * 10 + (ch(src, i) - '0');
+                    scale--;
+                }
+                i++;
+            }
+        }
+
+        if (!anyDigits) {
+            return Double.NaN;
+        }
+
+        if (i < end && (ch(src, i) == 'e' || ch(src, i) == 'E')) {
+            i++;
+            boolean negativeExp = false;
+            if (i < end && (ch(src, i) == '-' || ch(src, i) == '+')) {
+                negativeExp = ch(src, i) == '-';
+                i++;
+            }
+            if (i == end) {
+                return Double.NaN;
+            }
+            int exponent = 0;
+            while (i < end && isDigit(ch(src, i))) {
+                exponent = Math.min(exponent * 10 + (ch(src, i) - '0'), 100000);
+                i++;
+            }
+            scale += negativeExp ? -exponent : exponent;
+        }
+
+        if (i != end) {
+            return Double.NaN;
+        }
+
+        double value;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (significant <= MAX_FAST_DIGITS && Math.abs(scale) < POW10.length) {
+            value = scale >= 0 ? mantissa * POW10[scale] : mantissa / POW10[-scale];
+        } else {
+            // Long or extreme numbers are rare, so exact rounding is left to the JDK
+            value = Double.parseDouble(slice(src, start, end));
+            return value;
+        }
+        return negative ? -value : value;
+    }
+
+    //Leading zeros are not significant
+    private static int addDigit(int significant, long mantissa, char c) {
+        return (mantissa == 0 && c == '0' && significant == 0) ? 0 : significant + 1;
+    }
+
+    //Forms Double.parseDouble accepts but the fast path does not (NaN, Infinity, hex, 1.0f)
+    private static Double parseSpecial(Object src, int start, int end) {
+        boolean candidate = false;
+        for (int i = start; i < end && !candidate; i++) {
+            char c = ch(src, i);
+            candidate = c == 'N' || c == 'I' || c == 'x' || c == 'X'
+                    || ((i == end - 1) && (c == 'f' || c == 'F' || c == 'd' || c == 'D'));
+        }
+        if (!candidate) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(slice(src, start, end));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static char ch(Object src, int i) {
+        if (src instanceof ByteBuffer) {
+            return (char) (((ByteBuffer) src).get(i) & 0xFF);
+        }
+        return ((CharSequence) src).charAt(i);
+    }
+
+    private static String slice(Object src, int start, int end) {
+        if (src instanceof ByteBuffer) {
+            byte[] bytes = new byte[end - start];
+            ((ByteBuffer) src).get(start, bytes, 0, bytes.length);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+        return ((CharSequence) src).subSequence(start, end).toString();
+    }
+}
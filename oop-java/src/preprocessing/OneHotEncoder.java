@@ -8,6 +8,8 @@ package preprocessing;
 
 import java.util.*;
 
+import utils.SparseMatrix;
+
 //OneHotEncoder
 public class OneHotEncoder {
     
@@ -15,6 +17,8 @@ public class OneHotEncoder {
     private Map<String, List<String>> uniqueValues;
     private String[] originalHeaders;
     private List<String> encodedHeaders;
+    private int[] featureColumns;
+    private NumberParser parser = new NumberParser();
     
     public OneHotEncoder() {
         encodingMaps = new HashMap<>();
@@ -25,6 +29,10 @@ public class OneHotEncoder {
     //Fit the encoder on training data
     public void fit(String[] headers, List<String[]> trainData, List<Integer> categoricalIndices) {
         this.originalHeaders = headers;
+        this.featureColumns = null;
+        encodingMaps.clear();
+        uniqueValues.clear();
+        encodedHeaders.clear();
         
         for (int colIdx : categoricalIndices) {
             String columnName = headers[colIdx];
@@ -47,8 +55,9 @@ public class OneHotEncoder {
         }
         
         // Build new headers
+        boolean[] categorical = categoricalMask(headers.length, categoricalIndices);
         for (int i = 0; i < headers.length; i++) {
-            if (categoricalIndices.contains(i)) {
+            if (categorical[i]) {
                 String columnName = headers[i];
                 List<String> values = uniqueValues.get(columnName);
                 for (String value : values) {
@@ -70,45 +79,316 @@ public class OneHotEncoder {
         int numCols = encodedHeaders.size();
         double[][] transformed = new double[numRows][numCols];
         
+        boolean[] categorical = categoricalMask(originalHeaders.length, categoricalIndices);
+        List<Map<String, Integer>> valueMaps = columnMaps(categorical);
+        int[] offsets = outputOffsets(categorical);
+        
         for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
             String[] row = data.get(rowIdx);
-            int outputCol = 0;
             
             for (int colIdx = 0; colIdx < row.length; colIdx++) {
-                if (categoricalIndices.contains(colIdx)) {
-                    String columnName = originalHeaders[colIdx];
-                    String value = row[colIdx];
-                    List<String> values = uniqueValues.get(columnName);
-                    
-                    // Create a one-hot vector
-                    for (String possibleValue : values) {
-                        transformed[rowIdx][outputCol++] = value.equals(possibleValue) ? 1.0 : 0.0;
+                if (categorical[colIdx]) {
+                    // Only the matching column is set, the rest stay 0.0
+                    Integer slot = valueMaps.get(colIdx).get(row[colIdx]);
+                    if (slot != null) {
+                        transformed[rowIdx][offsets[colIdx] + slot] = 1.0;
                     }
                 } else {
                     // Keep the numeric value
-                    try {
-                        transformed[rowIdx][outputCol++] = Double.parseDouble(row[colIdx]);
-                    } catch (NumberFormatException e) {
-                        transformed[rowIdx][outputCol++] = 0.0;
+                    transformed[rowIdx][offsets[colIdx]] = parser.parse(row[colIdx], 0.0);
+                }
+            }
+        }
+        
+        return transformed;
+    }
+    
+    //Transform into a CSR matrix, only non-zero cells are stored
+    //A first pass parses the numeric cells and counts the entries of each row, so the CSR arrays
+    //are allocated at exactly the number of non-zero cells
+    public SparseMatrix transformSparse(List<String[]> data, List<Integer> categoricalIndices) {
+        int numRows = data.size();
+        boolean[] categorical = categoricalMask(originalHeaders.length, categoricalIndices);
+        List<Map<String, Integer>> valueMaps = columnMaps(categorical);
+        int[] offsets = outputOffsets(categorical);
+        int numNumeric = originalHeaders.length - categoricalIndices.size();
+        
+        int[] rowPtr = new int[numRows + 1];
+        double[] numbers = new double[numRows * numNumeric];
+        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
+            String[] row = data.get(rowIdx);
+            int count = 0;
+            for (int colIdx = 0, k = rowIdx * numNumeric; colIdx < row.length; colIdx++) {
+                if (categorical[colIdx]) {
+                    if (valueMaps.get(colIdx).containsKey(row[colIdx])) {
+                        count++;
                     }
+                } else {
+                    numbers[k] = parser.parse(row[colIdx], 0.0);
+                    if (numbers[k++] != 0.0) {
+                        count++;
+                    }
+                }
+            }
+            rowPtr[rowIdx + 1] = rowPtr[rowIdx] + count;
+        }
+        
+        int[] colIndices = new int[rowPtr[numRows]];
+        double[] values = new double[colIndices.length];
+        int nnz = 0;
+        for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
+            String[] row = data.get(rowIdx);
+            for (int colIdx = 0, k = rowIdx * numNumeric; colIdx < row.length; colIdx++) {
+                if (categorical[colIdx]) {
+                    Integer slot = valueMaps.get(colIdx).get(row[colIdx]);
+                    if (slot != null) {
+                        colIndices[nnz] = offsets[colIdx] + slot;
+                        values[nnz++] = 1.0;
+                    }
+                } else if (numbers[k++] != 0.0) {
+                    colIndices[nnz] = offsets[colIdx];
+                    values[nnz++] = numbers[k - 1];
+                }
+            }
+        }
+        
+        return new SparseMatrix(numRows, encodedHeaders.size(), rowPtr, colIndices, values);
+    }
+    
+    private static boolean[] categoricalMask(int numCols, List<Integer> categoricalIndices) {
+        boolean[] categorical = new boolean[numCols];
+        for (int colIdx : categoricalIndices) {
+            categorical[colIdx] = true;
+        }
+        return categorical;
+    }
+    
+    //Encoding map per source column, null for numeric columns
+    private List<Map<String, Integer>> columnMaps(boolean[] categorical) {
+        List<Map<String, Integer>> maps = new ArrayList<>(categorical.length);
+        for (int i = 0; i < categorical.length; i++) {
+            maps.add(categorical[i] ? encodingMaps.get(originalHeaders[i]) : null);
+        }
+        return maps;
+    }
+    
+    //First output column of every source column
+    private int[] outputOffsets(boolean[] categorical) {
+        int[] offsets = new int[categorical.length];
+        int outputCol = 0;
+        for (int i = 0; i < categorical.length; i++) {
+            offsets[i] = outputCol;
+            outputCol += categorical[i] ? encodingMaps.get(originalHeaders[i]).size() : 1;
+        }
+        return offsets;
+    }
+    
+    //Fit the encoder on the training rows of a columnar Dataset
+    public void fit(Dataset data, int[] featureColumns, int[] rowIndices) {
+        this.featureColumns = featureColumns;
+        this.originalHeaders = new String[featureColumns.length];
+        encodingMaps.clear();
+        uniqueValues.clear();
+        encodedHeaders.clear();
+        
+        for (int f = 0; f < featureColumns.length; f++) {
+            int col = featureColumns[f];
+            String columnName = data.getHeaders()[col];
+            originalHeaders[f] = columnName;
+            
+            if (data.isNumeric(col)) {
+                encodedHeaders.add(columnName);
+                continue;
+            }
+            
+            // Mark which codes show up in the training rows
+            int[] codes = data.getCodes(col);
+            String[] dictionary = data.getDictionary(col);
+            boolean[] seen = new boolean[dictionary.length];
+            for (int row : rowIndices) {
+                seen[codes[row]] = true;
+            }
+            
+            List<String> uniqueList = new ArrayList<>();
+            for (int c = 0; c < dictionary.length; c++) {
+                if (seen[c]) {
+                    uniqueList.add(dictionary[c]);
+                }
+            }
+            Collections.sort(uniqueList);
+            uniqueValues.put(columnName, uniqueList);
+            
+            Map<String, Integer> valueMap = new HashMap<>();
+            for (int i = 0; i < uniqueList.size(); i++) {
+                valueMap.put(uniqueList.get(i), i);
+                encodedHeaders.add(columnName + "_" + uniqueList.get(i));
+            }
+            encodingMaps.put(columnName, valueMap);
+        }
+    }
+    
+    //Transform rows of a columnar Dataset, categories not seen in fit become all zeros
+    public double[][] transform(Dataset data, int[] rowIndices) {
+        if (featureColumns == null) {
+            throw new IllegalStateException("OneHotEncoder must be fitted on a Dataset before transform");
+        }
+        
+        int numCols = encodedHeaders.size();
+        double[][] transformed = new double[rowIndices.length][numCols];
+        
+        int outputCol = 0;
+        for (int f = 0; f < featureColumns.length; f++) {
+            int col = featureColumns[f];
+            
+            if (data.isNumeric(col)) {
+                double[] values = data.getNumericColumn(col);
+                for (int r = 0; r < rowIndices.length; r++) {
+                    transformed[r][outputCol] = values[rowIndices[r]];
+                }
+                outputCol++;
+                continue;
+            }
+            
+            // Look up each dictionary entry once, then map codes straight to output columns
+            int[] slots = codeSlots(data, f);
+            
+            int[] codes = data.getCodes(col);
+            for (int r = 0; r < rowIndices.length; r++) {
+                int slot = slots[codes[rowIndices[r]]];
+                if (slot >= 0) {
+                    transformed[r][outputCol + slot] = 1.0;
                 }
             }
+            outputCol += blockWidth(data, f);
         }
         
         return transformed;
     }
     
+    //Transform rows of a columnar Dataset into a CSR matrix
+    //Entries are counted column by column first, then each row's entries are filled in through a
+    //cursor per row; features go left to right, so the columns of a row come out ascending
+    public SparseMatrix transformSparse(Dataset data, int[] rowIndices) {
+        if (featureColumns == null) {
+            throw new IllegalStateException("OneHotEncoder must be fitted on a Dataset before transform");
+        }
+        
+        int numFeatures = featureColumns.length;
+        int[] offsets = new int[numFeatures];
+        int[][] slots = new int[numFeatures][];
+        int outputCol = 0;
+        for (int f = 0; f < numFeatures; f++) {
+            offsets[f] = outputCol;
+            if (!data.isNumeric(featureColumns[f])) {
+                slots[f] = codeSlots(data, f);
+            }
+            outputCol += blockWidth(data, f);
+        }
+        
+        int numRows = rowIndices.length;
+        int[] rowPtr = new int[numRows + 1];
+        for (int f = 0; f < numFeatures; f++) {
+            int col = featureColumns[f];
+            for (int r = 0; r < numRows; r++) {
+                if (slots[f] == null ? data.getNumericColumn(col)[rowIndices[r]] != 0.0
+                        : slots[f][data.getCodes(col)[rowIndices[r]]] >= 0) {
+                    rowPtr[r + 1]++;
+                }
+            }
+        }
+        for (int r = 0; r < numRows; r++) {
+            rowPtr[r + 1] += rowPtr[r];
+        }
+        
+        int[] colIndices = new int[rowPtr[numRows]];
+        double[] values = new double[colIndices.length];
+        int[] next = Arrays.copyOf(rowPtr, numRows);
+        for (int f = 0; f < numFeatures; f++) {
+            int col = featureColumns[f];
+            if (slots[f] == null) {
+                double[] column = data.getNumericColumn(col);
+                for (int r = 0; r < numRows; r++) {
+                    double value = column[rowIndices[r]];
+                    if (value != 0.0) {
+                        colIndices[next[r]] = offsets[f];
+                        values[next[r]++] = value;
+                    }
+                }
+            } else {
+                int[] codes = data.getCodes(col);
+                for (int r = 0; r < numRows; r++) {
+                    int slot = slots[f][codes[rowIndices[r]]];
+                    if (slot >= 0) {
+                        colIndices[next[r]] = offsets[f] + slot;
+                        values[next[r]++] = 1.0;
+                    }
+                }
+            }
+        }
+        
+        return new SparseMatrix(numRows, outputCol, rowPtr, colIndices, values);
+    }
+    
+    //Number of output columns for a feature fitted with fit(Dataset, ...)
+    int blockWidth(Dataset data, int feature) {
+        if (data.isNumeric(featureColumns[feature])) {
+            return 1;
+        }
+        return encodingMaps.get(originalHeaders[feature]).size();
+    }
+    
+    //Position inside its one-hot block for every code of a categorical feature, -1 if unseen in fit
+    int[] codeSlots(Dataset data, int feature) {
+        Map<String, Integer> valueMap = encodingMaps.get(originalHeaders[feature]);
+        String[] dictionary = data.getDictionary(featureColumns[feature]);
+        int[] slots = new int[dictionary.length];
+        for (int c = 0; c < dictionary.length; c++) {
+            slots[c] = valueMap.getOrDefault(dictionary[c], -1);
+        }
+        return slots;
+    }
+    
     //Fit and transform
     public double[][] fitTransform(String[] headers, List<String[]> data, List<Integer> categoricalIndices) {
         fit(headers, data, categoricalIndices);
         return transform(data, categoricalIndices);
     }
     
+    //Independent copy with the same fitted state, refitting either leaves the other alone
+    public OneHotEncoder copy() {
+        OneHotEncoder copy = new OneHotEncoder();
+        for (Map.Entry<String, Map<String, Integer>> entry : encodingMaps.entrySet()) {
+            copy.encodingMaps.put(entry.getKey(), new HashMap<>(entry.getValue()));
+        }
+        for (Map.Entry<String, List<String>> entry : uniqueValues.entrySet()) {
+            copy.uniqueValues.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        copy.originalHeaders = originalHeaders == null ? null : originalHeaders.clone();
+        copy.encodedHeaders.addAll(encodedHeaders);
+        copy.featureColumns = featureColumns == null ? null : featureColumns.clone();
+        return copy;
+    }
+    
+    //Names of the columns the encoder was fitted on, in input order
+    String[] getOriginalHeaders() {
+        return originalHeaders;
+    }
+    
+    //Categories of a column in output order, null for a numeric column
+    List<String> getUniqueValues(String columnName) {
+        return uniqueValues.get(columnName);
+    }
+    
     //Get the encoded column headers
     public List<String> getEncodedHeaders() {
         return encodedHeaders;
     }
     
+    //Number of numeric cells that could not be parsed and were encoded as 0.0
+    public long getBadCells() {
+        return parser.getBadCells();
+    }
+    
     //Get number of encoded columns
     public int getNumEncodedColumns() {
         return encodedHeaders.size();
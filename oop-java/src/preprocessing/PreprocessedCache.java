@@ -0,0 +1,179 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: PreprocessedCache.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package preprocessing;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import utils.FeatureMatrix;
+import utils.FloatMatrix;
+import utils.Matrix;
+
+//PreprocessedCache - Keeps finished train/test matrices so a Preprocessor can skip the work next time
+//Entries are keyed by (dataset fingerprint, target, train ratio, seed, normalize, float32) and the least
+//recently used ones are dropped once the total size passes the memory budget
+//The cache keeps its own copy of everything and hands out a fresh copy on every hit, so a caller
+//that normalizes a matrix in place or refits the encoder cannot change what later callers get
+//Only on-heap matrices (Matrix, FloatMatrix) are cached: Preprocessor skips the cache for off-heap
+//storage, whose point is to keep the matrices out of the heap this cache lives in
+public class PreprocessedCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeBytes;
+    private long hits;
+    private long misses;
+
+    //Constructor, maxBytes is the budget for all cached matrices together
+    public PreprocessedCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache budget must be positive");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    //A copy of the cached entry, or null on a miss
+    synchronized Entry get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.copy();
+    }
+
+    //Store a copy of an entry, anything larger than the whole budget is not cached
+    synchronized void put(Key key, Entry entry) {
+        if (entry.sizeBytes > maxBytes) {
+            return;
+        }
+        entry = entry.copy();
+        Entry old = entries.put(key, entry);
+        if (old != null) {
+            sizeBytes -= old.sizeBytes;
+        }
+        sizeBytes += entry.sizeBytes;
+
+        // Iteration order is least recently used first
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (sizeBytes > maxBytes && it.hasNext()) {
+            Map.Entry<Key, Entry> eldest = it.next();
+            if (eldest.getValue() == entry) {
+                continue;
+            }
+            sizeBytes -= eldest.getValue().sizeBytes;
+            it.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        sizeBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    //Key - Everything that decides what Preprocessor.preprocess produces
+    static final class Key {
+        private final long datasetFingerprint;
+        private final String targetColumn;
+        private final double trainRatio;
+        private final long seed;
+        private final boolean normalize;
+        private final boolean float32;
+
+        Key(long datasetFingerprint, String targetColumn, double trainRatio, long seed, boolean normalize,
+            boolean float32) {
+            this.datasetFingerprint = datasetFingerprint;
+            this.targetColumn = targetColumn.toLowerCase();
+            this.trainRatio = trainRatio;
+            this.seed = seed;
+            this.normalize = normalize;
+            this.float32 = float32;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return datasetFingerprint == other.datasetFingerprint
+                    && targetColumn.equals(other.targetColumn)
+                    && Double.compare(trainRatio, other.trainRatio) == 0
+                    && seed == other.seed
+                    && normalize == other.normalize
+                    && float32 == other.float32;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(datasetFingerprint, targetColumn, trainRatio, seed, normalize, float32);
+        }
+    }
+
+    //Entry - The matrices and the fitted encoder/normalizer of one preprocess run
+    static final class Entry {
+        final FeatureMatrix X_train;
+        final FeatureMatrix X_test;
+        final double[] y_train;
+        final double[] y_test;
+        final OneHotEncoder encoder;
+        final Normalizer normalizer;
+        final long sizeBytes;
+
+        Entry(FeatureMatrix X_train, FeatureMatrix X_test, double[] y_train, double[] y_test,
+              OneHotEncoder encoder, Normalizer normalizer) {
+            if (!isCacheable(X_train) || !isCacheable(X_test)) {
+                throw new IllegalArgumentException("Only Matrix and FloatMatrix can be cached");
+            }
+            this.X_train = X_train;
+            this.X_test = X_test;
+            this.y_train = y_train;
+            this.y_test = y_test;
+            this.encoder = encoder;
+            this.normalizer = normalizer;
+            this.sizeBytes = X_train.getSizeBytes() + X_test.getSizeBytes()
+                    + 8L * (y_train.length + y_test.length);
+        }
+
+        static boolean isCacheable(FeatureMatrix X) {
+            return X instanceof Matrix || X instanceof FloatMatrix;
+        }
+
+        //Deep copy, nothing is shared with this entry
+        Entry copy() {
+            return new Entry(copyOf(X_train), copyOf(X_test), y_train.clone(), y_test.clone(),
+                    encoder.copy(), normalizer == null ? null : normalizer.copy());
+        }
+
+        private static FeatureMatrix copyOf(FeatureMatrix X) {
+            return X instanceof Matrix ? ((Matrix) X).copy() : ((FloatMatrix) X).copy();
+        }
+    }
+}
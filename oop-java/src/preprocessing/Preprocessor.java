@@ -6,19 +6,37 @@
 //--------------------------------------------------------
 package preprocessing;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import utils.FeatureMatrix;
+import utils.FloatMatrix;
+import utils.Matrix;
+import utils.OffHeapMatrix;
+import utils.Parallel;
+
 //Preprocessor
-public class Preprocessor {
+//Off-heap feature matrices hold native memory or a spill file until close() is called
+public class Preprocessor implements AutoCloseable {
+    
+    // Rows encoded on the heap at a time before they are copied off-heap
+    private static final int OFF_HEAP_BLOCK_ROWS = 4096;
     
     private DataLoader dataLoader;
     private TrainTestSplitter splitter;
     private OneHotEncoder encoder;
     private Normalizer normalizer;
+    private PreprocessedCache cache;
+    private boolean float32;
+    private boolean offHeap;
+    private boolean sparse;
+    private Path spillDirectory;
+    private int numThreads = Parallel.defaultThreads();
     
-    private double[][] X_train;
-    private double[][] X_test;
+    private FeatureMatrix X_train;
+    private FeatureMatrix X_test;
     private double[] y_train;
     private double[] y_test;
     
@@ -31,10 +49,74 @@ public class Preprocessor {
         this.dataLoader = dataLoader;
     }
     
+    //Share finished matrices with other Preprocessors through a cache, null turns it off
+    public void setCache(PreprocessedCache cache) {
+        this.cache = cache;
+    }
+    
+    //Store the feature matrices as float32 (FloatMatrix), statistics are still computed in double
+    public void setFloat32(boolean float32) {
+        this.float32 = float32;
+    }
+    
+    //Store the feature matrices outside the heap (OffHeapMatrix) so they add no GC work
+    //Direct memory is still capped near -Xmx, set a spill directory to go beyond it
+    //Off-heap matrices are always double and are never put in the cache
+    public void setOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+    
+    //Store the feature matrices as CSR (SparseMatrix), only the non-zero cells of the one-hot blocks
+    //Sparse matrices are double and on the heap, they are not cached and float32 and off-heap do not
+    //apply; normalizing only scales them (Normalizer.withoutCentering), centering would fill them in
+    public void setSparse(boolean sparse) {
+        this.sparse = sparse;
+    }
+    
+    //Threads the preprocessing and the Normalizer it fits may use, e.g. a share of a cross-validation pool
+    public void setNumThreads(int numThreads) {
+        this.numThreads = Math.max(1, numThreads);
+    }
+    
+    //Back the off-heap matrices with temporary files in directory, null keeps them in direct memory
+    public void setSpillDirectory(Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+        if (spillDirectory != null) {
+            this.offHeap = true;
+        }
+    }
+    
     // The preprocessing pipeline
     public void preprocess(String targetColumn, double trainRatio, long seed, boolean normalize) {
+        close();
         this.targetColumn = targetColumn;
         
+        // Read straight from the columnar copy when the loader built one
+        Dataset data = dataLoader.getDataset();
+        if (data != null) {
+            // Off-heap matrices are never cached, a cached copy would sit on the heap they are kept off,
+            // and neither are sparse ones, the cache only copies dense layouts
+            if (cache == null || offHeap || sparse) {
+                preprocessDataset(data, trainRatio, seed, normalize);
+                return;
+            }
+            
+            PreprocessedCache.Key key = new PreprocessedCache.Key(data.fingerprint(), targetColumn, trainRatio, seed, normalize, float32);
+            PreprocessedCache.Entry entry = cache.get(key);
+            if (entry == null) {
+                preprocessDataset(data, trainRatio, seed, normalize);
+                cache.put(key, new PreprocessedCache.Entry(X_train, X_test, y_train, y_test, encoder, normalizer));
+            } else {
+                X_train = entry.X_train;
+                X_test = entry.X_test;
+                y_train = entry.y_train;
+                y_test = entry.y_test;
+                encoder = entry.encoder;
+                normalizer = entry.normalizer;
+            }
+            return;
+        }
+        
         //System.out.println("\n=== Starting Preprocessing ===");
         
         // Verify that the  data is loaded
@@ -84,38 +166,239 @@ public class Preprocessor {
         
         //System.out.println("Performing one-hot encoding...");
         encoder = new OneHotEncoder();
-        X_train = encoder.fitTransform(headersNoTarget, trainDataNoTarget, adjustedCategoricalIndices);
-        X_test = encoder.transform(testDataNoTarget, adjustedCategoricalIndices);
+        if (sparse) {
+            encoder.fit(headersNoTarget, trainDataNoTarget, adjustedCategoricalIndices);
+            X_train = encoder.transformSparse(trainDataNoTarget, adjustedCategoricalIndices);
+            X_test = encoder.transformSparse(testDataNoTarget, adjustedCategoricalIndices);
+            normalizeMatrices(normalize);
+            return;
+        }
+        double[][] encodedTrain = encoder.fitTransform(headersNoTarget, trainDataNoTarget, adjustedCategoricalIndices);
+        double[][] encodedTest = encoder.transform(testDataNoTarget, adjustedCategoricalIndices);
         
         if (normalize) {
             //System.out.println("Applying z-score normalization...");
             normalizer = new Normalizer();
-            X_train = normalizer.fitTransform(X_train);
-            X_test = normalizer.transform(X_test);
+            normalizer.setNumThreads(numThreads);
+            // The encoded matrices are ours, so normalize them without another copy
+            normalizer.fitTransformInPlace(encodedTrain);
+            normalizer.transformInPlace(encodedTest);
         }
+        X_train = toFeatureMatrix(encodedTrain);
+        X_test = toFeatureMatrix(encodedTest);
         
         //System.out.println("\n=== Preprocessing Complete ===");
-        //System.out.println("Training set: " + X_train.length + " samples" + X_train[0].length + " features");
-        //System.out.println("Test set: " + X_test.length + " samples " + X_test[0].length + " features");
+        //System.out.println("Training set: " + X_train.getNumRows() + " samples" + X_train.getNumCols() + " features");
+        //System.out.println("Test set: " + X_test.getNumRows() + " samples " + X_test.getNumCols() + " features");
         //System.out.println("==============================\n");
     }
     
     
+    //Same pipeline as preprocess(), but working on Dataset columns and row indices
+    private void preprocessDataset(Dataset data, double trainRatio, long seed, boolean normalize) {
+        if (data.getNumRows() == 0) {
+            throw new IllegalStateException("No data loaded in DataLoader");
+        }
+        
+        splitter = new TrainTestSplitter(seed);
+        splitter.splitIndices(data.getNumRows(), trainRatio);
+        preprocessRows(data, splitter.getTrainIndices(), splitter.getTestIndices(), normalize);
+    }
+    
+    //Preprocess with train and test rows chosen by the caller, e.g. one cross-validation fold
+    //The loader must hold a Dataset, rows are read through the indices and never copied
+    public void preprocessFold(String targetColumn, int[] trainRows, int[] testRows, boolean normalize) {
+        close();
+        this.targetColumn = targetColumn;
+        Dataset data = dataLoader.getDataset();
+        if (data == null) {
+            throw new IllegalStateException("Fold preprocessing needs a DataLoader with a Dataset");
+        }
+        if (trainRows.length == 0) {
+            throw new IllegalArgumentException("Training rows cannot be empty");
+        }
+        preprocessRows(data, trainRows, testRows, normalize);
+    }
+    
+    private void preprocessRows(Dataset data, int[] trainRows, int[] testRows, boolean normalize) {
+        int targetIndex = data.getColumnIndex(targetColumn);
+        if (targetIndex == -1) {
+            throw new IllegalArgumentException("Target column '" + targetColumn + "' not found");
+        }
+        
+        y_train = extractTarget(data, targetIndex, trainRows);
+        y_test = extractTarget(data, targetIndex, testRows);
+        
+        // Every column except the target is a feature
+        int[] featureColumns = new int[data.getNumCols() - 1];
+        int idx = 0;
+        for (int i = 0; i < data.getNumCols(); i++) {
+            if (i != targetIndex) {
+                featureColumns[idx++] = i;
+            }
+        }
+        
+        encoder = new OneHotEncoder();
+        encoder.fit(data, featureColumns, trainRows);
+        fusedTransform(data, featureColumns, trainRows, testRows, normalize);
+    }
+    
+    //Encode straight from the Dataset columns into the final matrices, then normalize them in place
+    //The Normalizer is fitted on the encoded train rows like on the row path, so its Moments are kept
+    //and it can still take more rows with partialFit
+    private void fusedTransform(Dataset data, int[] featureColumns, int[] trainRows, int[] testRows, boolean normalize) {
+        if (sparse) {
+            X_train = encoder.transformSparse(data, trainRows);
+            X_test = encoder.transformSparse(data, testRows);
+            normalizeMatrices(normalize);
+            return;
+        }
+        
+        int numFeatures = encoder.getNumEncodedColumns();
+        int[] offsets = new int[featureColumns.length];
+        int[][] slots = new int[featureColumns.length][];
+        
+        int offset = 0;
+        for (int f = 0; f < featureColumns.length; f++) {
+            offsets[f] = offset;
+            if (data.isNumeric(featureColumns[f])) {
+                offset++;
+            } else {
+                slots[f] = encoder.codeSlots(data, f);
+                offset += encoder.blockWidth(data, f);
+            }
+        }
+        
+        X_train = buildMatrix(data, featureColumns, trainRows, offsets, slots, numFeatures);
+        X_test = buildMatrix(data, featureColumns, testRows, offsets, slots, numFeatures);
+        normalizeMatrices(normalize);
+    }
+    
+    //Fit the Normalizer on X_train and scale both matrices in place, or drop it if normalize is off
+    private void normalizeMatrices(boolean normalize) {
+        normalizer = null;
+        if (!normalize) {
+            return;
+        }
+        normalizer = new Normalizer();
+        normalizer.setNumThreads(numThreads);
+        normalizer.fit(X_train);
+        if (sparse) {
+            normalizer = normalizer.withoutCentering();
+        }
+        normalizer.transformInPlace(X_train);
+        normalizer.transformInPlace(X_test);
+    }
+    
+    //Write the rows in the configured storage
+    //Off-heap output is written a block of rows at a time, so the heap only ever holds one block
+    private FeatureMatrix buildMatrix(Dataset data, int[] featureColumns, int[] rows, int[] offsets, int[][] slots,
+                                      int numFeatures) {
+        if (!offHeap) {
+            return writeRows(data, featureColumns, rows, offsets, slots, numFeatures, float32);
+        }
+        
+        OffHeapMatrix X = spillDirectory == null ? OffHeapMatrix.allocate(rows.length, numFeatures)
+                : OffHeapMatrix.createTemp(spillDirectory, rows.length, numFeatures);
+        for (int from = 0; from < rows.length; from += OFF_HEAP_BLOCK_ROWS) {
+            int to = Math.min(rows.length, from + OFF_HEAP_BLOCK_ROWS);
+            int[] blockRows = Arrays.copyOfRange(rows, from, to);
+            X.setRows(from, writeRows(data, featureColumns, blockRows, offsets, slots, numFeatures, false));
+        }
+        return X;
+    }
+    
+    //Wrap an encoded double[][] from the row path in the configured storage
+    private FeatureMatrix toFeatureMatrix(double[][] encoded) {
+        if (offHeap) {
+            return OffHeapMatrix.copyOf(Matrix.fromArray(encoded), spillDirectory);
+        }
+        return float32 ? FloatMatrix.fromArray(encoded) : Matrix.fromArray(encoded);
+    }
+    
+    //Fill the preallocated flat output column by column
+    //Raw encoded values are written, the Normalizer scales them afterwards in the same storage
+    private FeatureMatrix writeRows(Dataset data, int[] featureColumns, int[] rows, int[] offsets, int[][] slots,
+                                    int numFeatures, boolean asFloat) {
+        Matrix dense = asFloat ? null : new Matrix(rows.length, numFeatures);
+        FloatMatrix compact = asFloat ? new FloatMatrix(rows.length, numFeatures) : null;
+        double[] cells = asFloat ? null : dense.getData();
+        float[] floatCells = asFloat ? compact.getData() : null;
+        int stride = numFeatures;
+        
+        for (int f = 0; f < featureColumns.length; f++) {
+            int col = featureColumns[f];
+            int out = offsets[f];
+            
+            if (data.isNumeric(col)) {
+                double[] values = data.getNumericColumn(col);
+                for (int r = 0, idx = out; r < rows.length; r++, idx += stride) {
+                    store(cells, floatCells, idx, values[rows[r]]);
+                }
+                continue;
+            }
+            
+            // The new arrays are already 0, only the row's category gets its 1
+            int[] codes = data.getCodes(col);
+            for (int r = 0; r < rows.length; r++) {
+                int slot = slots[f][codes[rows[r]]];
+                if (slot >= 0) {
+                    store(cells, floatCells, r * stride + out + slot, 1.0);
+                }
+            }
+        }
+        return asFloat ? compact : dense;
+    }
+    
+    //Write one cell into whichever of the two arrays is in use
+    private static void store(double[] cells, float[] floatCells, int idx, double value) {
+        if (cells != null) {
+            cells[idx] = value;
+        } else {
+            floatCells[idx] = (float) value;
+        }
+    }
+    
+    // Extract the target from a Dataset column for the given rows
+    private double[] extractTarget(Dataset data, int targetIndex, int[] rowIndices) {
+        double[] target = new double[rowIndices.length];
+        
+        if (data.isNumeric(targetIndex)) {
+            double[] values = data.getNumericColumn(targetIndex);
+            for (int i = 0; i < rowIndices.length; i++) {
+                target[i] = values[rowIndices[i]];
+            }
+        } else {
+            // Work out the label of each category once
+            String[] dictionary = data.getDictionary(targetIndex);
+            double[] labels = new double[dictionary.length];
+            for (int c = 0; c < dictionary.length; c++) {
+                labels[c] = dictionary[c].contains(">") ? 1.0 : 0.0;
+            }
+            
+            int[] codes = data.getCodes(targetIndex);
+            for (int i = 0; i < rowIndices.length; i++) {
+                target[i] = labels[codes[rowIndices[i]]];
+            }
+        }
+        
+        return target;
+    }
+    
     // Extract the target variable and convert to numeric if needed
     private double[] extractTarget(List<String[]> data, int targetIndex) {
         double[] target = new double[data.size()];
         
         // Check if the target is already numeric
-        boolean isNumeric = true;
-        try {
-            Double.parseDouble(data.get(0)[targetIndex]);
-        } catch (NumberFormatException e) {
-            isNumeric = false;
-        }
+        boolean isNumeric = NumberParser.isNumber(data.get(0)[targetIndex]);
         
         if (isNumeric) {
+            NumberParser parser = new NumberParser();
             for (int i = 0; i < data.size(); i++) {
-                target[i] = Double.parseDouble(data.get(i)[targetIndex]);
+                target[i] = parser.parse(data.get(i)[targetIndex], 0.0);
+            }
+            if (parser.getBadCells() > 0) {
+                System.err.println("Warning: " + parser.getBadCells() + " target values could not be parsed. Using 0.0");
             }
         } else {
             for (int i = 0; i < data.size(); i++) {
@@ -177,9 +460,28 @@ public class Preprocessor {
         return unique.size();
     }
     
+    //Release the off-heap matrices of the last run and delete their spill files
+    //Heap matrices are left to the garbage collector, running preprocess() again calls this first
+    @Override
+    public void close() {
+        if (X_train instanceof OffHeapMatrix) {
+            ((OffHeapMatrix) X_train).close();
+        }
+        if (X_test instanceof OffHeapMatrix) {
+            ((OffHeapMatrix) X_test).close();
+        }
+    }
+    
     // Getters
-    public double[][] getXTrain() { return X_train; }
-    public double[][] getXTest() { return X_test; }
+    public OneHotEncoder getEncoder() { return encoder; }
+    public Normalizer getNormalizer() { return normalizer; }
+    public String getTargetColumn() { return targetColumn; }
+    public FeatureMatrix getXTrainMatrix() { return X_train; }
+    public FeatureMatrix getXTestMatrix() { return X_test; }
+    
+    //double[][] copies of the matrices, for code that has not moved to FeatureMatrix
+    public double[][] getXTrain() { return X_train.toArray(); }
+    public double[][] getXTest() { return X_test.toArray(); }
     public double[] getYTrain() { return y_train; }
     public double[] getYTest() { return y_test; }
 }
@@ -0,0 +1,120 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: RowBatch.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package preprocessing;
+
+import java.util.List;
+
+//RowBatch - A fixed-size block of rows stored by column
+//BatchReader refills the same buffers for every batch, so copy anything that must outlive the next call
+public class RowBatch {
+
+    private String[] headers;
+    private boolean[] numeric;
+    private double[][] numericColumns;
+    private int[][] codeColumns;
+    private List<List<String>> dictionaries;
+    private boolean[] decimalText;
+    private int capacity;
+    private int size;
+    private long firstRow;
+
+    RowBatch(String[] headers, boolean[] numeric, List<List<String>> dictionaries, int capacity) {
+        this.headers = headers;
+        this.numeric = numeric;
+        this.dictionaries = dictionaries;
+        this.capacity = capacity;
+        this.numericColumns = new double[headers.length][];
+        this.codeColumns = new int[headers.length][];
+        this.decimalText = new boolean[headers.length];
+
+        for (int col = 0; col < headers.length; col++) {
+            if (numeric[col]) {
+                numericColumns[col] = new double[capacity];
+            } else {
+                codeColumns[col] = new int[capacity];
+            }
+        }
+    }
+
+    public String[] getHeaders() {
+        return headers;
+    }
+
+    //Number of rows filled in this batch
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    //Position of the first row of this batch in the whole stream
+    public long getFirstRow() {
+        return firstRow;
+    }
+
+    public boolean isNumeric(int col) {
+        return numeric[col];
+    }
+
+    //Numeric buffer of a column, only the first size() entries belong to this batch
+    public double[] getNumericColumn(int col) {
+        if (!numeric[col]) {
+            throw new IllegalArgumentException("Column '" + headers[col] + "' is categorical");
+        }
+        return numericColumns[col];
+    }
+
+    //Code buffer of a column, only the first size() entries belong to this batch
+    public int[] getCodes(int col) {
+        if (numeric[col]) {
+            throw new IllegalArgumentException("Column '" + headers[col] + "' is numeric");
+        }
+        return codeColumns[col];
+    }
+
+    //Category for a code, codes stay the same across batches of one stream
+    public String getCategory(int col, int code) {
+        return dictionaries.get(col).get(code);
+    }
+
+    //Number of categories seen so far in a column
+    public int getNumCategories(int col) {
+        return dictionaries.get(col).size();
+    }
+
+    //Get a single cell as a String, numbers print like Dataset.getValue prints them
+    //Only the numbers are kept, so text that does not print back ("?", "1.50") comes out as its value
+    public String getValue(int row, int col) {
+        if (numeric[col]) {
+            return Dataset.formatNumber(numericColumns[col][row], decimalText[col]);
+        }
+        return getCategory(col, codeColumns[col][row]);
+    }
+
+    void reset(long firstRow) {
+        this.firstRow = firstRow;
+        this.size = 0;
+    }
+
+    void setDecimalText(int col, boolean decimal) {
+        decimalText[col] = decimal;
+    }
+
+    void setNumeric(int col, double value) {
+        numericColumns[col][size] = value;
+    }
+
+    void setCode(int col, int code) {
+        codeColumns[col][size] = code;
+    }
+
+    void commitRow() {
+        size++;
+    }
+}
@@ -0,0 +1,118 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: RowFilter.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package preprocessing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+//RowFilter - A simple "column op value" predicate checked while a CSV is parsed
+//Supported operators: == != > >= < <=, e.g. "native.country == United-States" or "age > 30"
+public class RowFilter {
+
+    private static final String[] OPERATORS = {"==", "!=", ">=", "<=", ">", "<"};
+
+    private String column;
+    private String operator;
+    private String value;
+    private byte[] valueBytes;
+    private double numericValue;
+    private int columnIndex = -1;
+    private NumberParser parser = new NumberParser();
+
+    //Constructor
+    public RowFilter(String column, String operator, String value) {
+        this.column = column.trim();
+        this.operator = operator;
+        this.value = value.trim();
+        this.valueBytes = this.value.getBytes(StandardCharsets.UTF_8);
+
+        if (isNumericOperator()) {
+            try {
+                numericValue = Double.parseDouble(this.value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Filter value '" + value + "' is not a number");
+            }
+        }
+    }
+
+    //Parse an expression like "age > 30"
+    public static RowFilter parse(String expression) {
+        for (String op : OPERATORS) {
+            int idx = expression.indexOf(op);
+            if (idx > 0) {
+                return new RowFilter(expression.substring(0, idx), op, expression.substring(idx + op.length()));
+            }
+        }
+        throw new IllegalArgumentException("Could not parse filter '" + expression + "'");
+    }
+
+    //Look up the column this filter reads
+    public void bind(String[] headers) {
+        columnIndex = -1;
+        for (int i = 0; i < headers.length; i++) {
+            if (headers[i].equalsIgnoreCase(column)) {
+                columnIndex = i;
+                break;
+            }
+        }
+        if (columnIndex == -1) {
+            throw new IllegalArgumentException("Filter column '" + column + "' not found");
+        }
+    }
+
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    //Check a row that has already been split
+    public boolean matches(String[] row) {
+        String field = columnIndex < row.length ? row[columnIndex] : "";
+        if (!isNumericOperator()) {
+            return field.equals(value) == operator.equals("==");
+        }
+        return compare(parser.parse(field, Double.NaN));
+    }
+
+    //Check a trimmed field straight from a byte buffer
+    public boolean matches(ByteBuffer buffer, int start, int end) {
+        if (!isNumericOperator()) {
+            return bytesEqual(buffer, start, end) == operator.equals("==");
+        }
+        return compare(parser.parse(buffer, start, end, Double.NaN));
+    }
+
+    private boolean bytesEqual(ByteBuffer buffer, int start, int end) {
+        if (end - start != valueBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < valueBytes.length; i++) {
+            if (buffer.get(start + i) != valueBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Cells that are not numbers come in as NaN and never match
+    private boolean compare(double x) {
+        switch (operator) {
+            case ">":  return x > numericValue;
+            case ">=": return x >= numericValue;
+            case "<":  return x < numericValue;
+            default:   return x <= numericValue;
+        }
+    }
+
+    private boolean isNumericOperator() {
+        return !operator.equals("==") && !operator.equals("!=");
+    }
+
+    @Override
+    public String toString() {
+        return column + " " + operator + " " + value;
+    }
+}
@@ -0,0 +1,89 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: Schema.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package preprocessing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Schema - Column types and statistics worked out once while the data is loaded
+public class Schema {
+
+    private ColumnInfo[] columns;
+
+    public Schema(ColumnInfo[] columns) {
+        this.columns = columns;
+    }
+
+    //Number of columns
+    public int size() {
+        return columns.length;
+    }
+
+    //Get column metadata by index
+    public ColumnInfo getColumn(int index) {
+        return columns[index];
+    }
+
+    //Get column metadata by name, or null if there is no such column
+    public ColumnInfo getColumn(String name) {
+        for (ColumnInfo column : columns) {
+            if (column.getName().equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    //Get all column names that are numeric
+    public List<String> getNumericColumns() {
+        List<String> names = new ArrayList<>();
+        for (ColumnInfo column : columns) {
+            if (column.isNumeric()) {
+                names.add(column.getName());
+            }
+        }
+        return names;
+    }
+
+    //Get all column names that are categorical
+    public List<String> getCategoricalColumns() {
+        List<String> names = new ArrayList<>();
+        for (ColumnInfo column : columns) {
+            if (!column.isNumeric()) {
+                names.add(column.getName());
+            }
+        }
+        return names;
+    }
+
+    //ColumnInfo - Metadata for one column
+    public static class ColumnInfo {
+        private String name;
+        private boolean numeric;
+        private int nullCount;
+        private double min;
+        private double max;
+        private int distinctCount;
+
+        public ColumnInfo(String name, boolean numeric, int nullCount, double min, double max, int distinctCount) {
+            this.name = name;
+            this.numeric = numeric;
+            this.nullCount = nullCount;
+            this.min = min;
+            this.max = max;
+            this.distinctCount = distinctCount;
+        }
+
+        // Getters, min and max are NaN for categorical columns
+        public String getName() { return name; }
+        public boolean isNumeric() { return numeric; }
+        public int getNullCount() { return nullCount; }
+        public double getMin() { return min; }
+        public double getMax() { return max; }
+        public int getDistinctCount() { return distinctCount; }
+    }
+}
@@ -6,16 +6,21 @@
 //--------------------------------------------------------
 package preprocessing;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.RandomAccess;
 
 //TrainTestSplitter
 public class TrainTestSplitter {
     
     private List<String[]> trainData;
     private List<String[]> testData;
+    private int[] trainIndices;
+    private int[] testIndices;
     private Random random;
     
     //Constructor
@@ -24,25 +29,193 @@ public class TrainTestSplitter {
     }
     
     //Split data into train and test sets
+    //Only an int[] permutation is shuffled, train and test are read-only views over data
     public void split(List<String[]> data, double trainRatio) {
-        if (trainRatio <= 0 || trainRatio >= 1) {
-            throw new IllegalArgumentException("Train ratio must be between 0 and 1");
+        splitIndices(data.size(), trainRatio);
+        trainData = new IndexView<>(data, trainIndices);
+        testData = new IndexView<>(data, testIndices);
+        
+        //System.out.println("Train/Test Split:");
+        //System.out.println("  Training samples: " + trainData.size());
+        //System.out.println("  Testing samples: " + testData.size());
+    }
+    
+    //Split row indices 0..numRows-1 instead of the rows themselves
+    //Uses the same swaps as Collections.shuffle, so seeds give the same split as before
+    public void splitIndices(int numRows, double trainRatio) {
+        checkRatio(trainRatio);
+        
+        int[] order = new int[numRows];
+        for (int i = 0; i < numRows; i++) {
+            order[i] = i;
+        }
+        shuffle(order);
+        
+        int trainSize = (int) (numRows * trainRatio);
+        trainIndices = Arrays.copyOfRange(order, 0, trainSize);
+        testIndices = Arrays.copyOfRange(order, trainSize, numRows);
+    }
+    
+    //Stratified split of rows, every label keeps (about) the same share in train and test
+    public void splitStratified(List<String[]> data, int labelColumn, double trainRatio) {
+        Map<String, Integer> classIds = new HashMap<>();
+        int[] labels = new int[data.size()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = classIds.computeIfAbsent(data.get(i)[labelColumn], k -> classIds.size());
+        }
+        
+        splitStratifiedIndices(labels, trainRatio);
+        trainData = new IndexView<>(data, trainIndices);
+        testData = new IndexView<>(data, testIndices);
+    }
+    
+    //Stratified split of row indices, labels[i] is the class id (>= 0) of row i
+    //Each class is shuffled on its own and cut at trainRatio, the leftover rows from rounding
+    //go to the classes with the largest remainders so the train size matches splitIndices()
+    public void splitStratifiedIndices(int[] labels, double trainRatio) {
+        checkRatio(trainRatio);
+        int numRows = labels.length;
+        
+        // Group rows by class with a counting sort, keeping the original order inside a class
+        int numClasses = 0;
+        for (int label : labels) {
+            if (label < 0) {
+                throw new IllegalArgumentException("Class ids must not be negative");
+            }
+            numClasses = Math.max(numClasses, label + 1);
+        }
+        int[] starts = new int[numClasses + 1];
+        for (int label : labels) {
+            starts[label + 1]++;
+        }
+        for (int c = 0; c < numClasses; c++) {
+            starts[c + 1] += starts[c];
+        }
+        int[] grouped = new int[numRows];
+        int[] fill = Arrays.copyOf(starts, numClasses);
+        for (int i = 0; i < numRows; i++) {
+            grouped[fill[labels[i]]++] = i;
         }
         
-        // Create a copy and shuffle
-        List<String[]> shuffled = new ArrayList<>(data);
-        Collections.shuffle(shuffled, random);
+        // Class c gets size * trainSize / numRows rows, worked out in integers so the rounded
+        // quotas never add up to more than trainSize (floors of size * trainRatio can)
+        int trainSize = (int) (numRows * trainRatio);
+        int[] classTrain = new int[numClasses];
+        long[] remainders = new long[numClasses];
+        int assigned = 0;
+        for (int c = 0; c < numClasses; c++) {
+            long share = (long) (starts[c + 1] - starts[c]) * trainSize;
+            classTrain[c] = (int) (share / numRows);
+            remainders[c] = share % numRows;
+            assigned += classTrain[c];
+        }
+        for (; assigned < trainSize; assigned++) {
+            int best = 0;
+            for (int c = 1; c < numClasses; c++) {
+                if (remainders[c] > remainders[best]) {
+                    best = c;
+                }
+            }
+            classTrain[best]++;
+            remainders[best] = -1;
+        }
         
-        // Calculate the split point
-        int trainSize = (int) (shuffled.size() * trainRatio);
+        trainIndices = new int[trainSize];
+        testIndices = new int[numRows - trainSize];
+        int trainPos = 0;
+        int testPos = 0;
+        for (int c = 0; c < numClasses; c++) {
+            int size = starts[c + 1] - starts[c];
+            shuffle(grouped, starts[c], size);
+            System.arraycopy(grouped, starts[c], trainIndices, trainPos, classTrain[c]);
+            System.arraycopy(grouped, starts[c] + classTrain[c], testIndices, testPos, size - classTrain[c]);
+            trainPos += classTrain[c];
+            testPos += size - classTrain[c];
+        }
         
-        // Split the data
-        trainData = new ArrayList<>(shuffled.subList(0, trainSize));
-        testData = new ArrayList<>(shuffled.subList(trainSize, shuffled.size()));
+        // Mix the classes back together so neither set is sorted by label
+        shuffle(trainIndices);
+        shuffle(testIndices);
+    }
+    
+    //Shuffle rows 0..numRows-1 and deal them into k folds of nearly equal size
+    //Returns the test rows of each fold, the train rows of fold f are all the other folds
+    public int[][] foldIndices(int numRows, int k) {
+        checkFolds(numRows, k);
         
-        //System.out.println("Train/Test Split:");
-        //System.out.println("  Training samples: " + trainData.size());
-        //System.out.println("  Testing samples: " + testData.size());
+        int[] order = new int[numRows];
+        for (int i = 0; i < numRows; i++) {
+            order[i] = i;
+        }
+        shuffle(order);
+        
+        int[][] folds = new int[k][];
+        for (int f = 0; f < k; f++) {
+            folds[f] = Arrays.copyOfRange(order, (int) ((long) numRows * f / k), (int) ((long) numRows * (f + 1) / k));
+        }
+        return folds;
+    }
+    
+    //Like foldIndices, but every fold gets (about) the same share of each class
+    public int[][] stratifiedFoldIndices(int[] labels, int k) {
+        checkFolds(labels.length, k);
+        
+        // Shuffle once, then deal the rows of each class round-robin so every fold sees every class
+        int[] order = new int[labels.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        shuffle(order);
+        
+        Map<Integer, Integer> nextFold = new HashMap<>();
+        int[] foldOf = new int[labels.length];
+        int[] sizes = new int[k];
+        for (int i : order) {
+            // Start each class one fold later so the remainders do not all land in fold 0
+            int fold = nextFold.computeIfAbsent(labels[i], c -> nextFold.size() % k);
+            nextFold.put(labels[i], (fold + 1) % k);
+            foldOf[i] = fold;
+            sizes[fold]++;
+        }
+        
+        int[][] folds = new int[k][];
+        for (int f = 0; f < k; f++) {
+            folds[f] = new int[sizes[f]];
+        }
+        int[] fill = new int[k];
+        for (int i : order) {
+            folds[foldOf[i]][fill[foldOf[i]]++] = i;
+        }
+        return folds;
+    }
+    
+    //All rows outside fold f, in fold order
+    public static int[] trainRowsForFold(int[][] folds, int f) {
+        int size = 0;
+        for (int g = 0; g < folds.length; g++) {
+            if (g != f) {
+                size += folds[g].length;
+            }
+        }
+        int[] rows = new int[size];
+        int pos = 0;
+        for (int g = 0; g < folds.length; g++) {
+            if (g != f) {
+                System.arraycopy(folds[g], 0, rows, pos, folds[g].length);
+                pos += folds[g].length;
+            }
+        }
+        return rows;
+    }
+    
+    //Get training row indices from splitIndices()
+    public int[] getTrainIndices() {
+        return trainIndices;
+    }
+    
+    //Get testing row indices from splitIndices()
+    public int[] getTestIndices() {
+        return testIndices;
     }
     
     //Get training data
@@ -66,14 +239,58 @@ public class TrainTestSplitter {
     
     //Extract a numeric column as double array
     public static double[] extractNumericColumn(List<String[]> data, int columnIndex) {
+        NumberParser parser = new NumberParser();
         double[] column = new double[data.size()];
         for (int i = 0; i < data.size(); i++) {
-            try {
-                column[i] = Double.parseDouble(data.get(i)[columnIndex]);
-            } catch (NumberFormatException e) {
-                column[i] = 0.0;
-            }
+            column[i] = parser.parse(data.get(i)[columnIndex], 0.0);
         }
         return column;
     }
+    
+    private static void checkFolds(int numRows, int k) {
+        if (k < 2 || k > numRows) {
+            throw new IllegalArgumentException("Number of folds must be between 2 and the number of rows");
+        }
+    }
+    
+    private static void checkRatio(double trainRatio) {
+        if (trainRatio <= 0 || trainRatio >= 1) {
+            throw new IllegalArgumentException("Train ratio must be between 0 and 1");
+        }
+    }
+    
+    private void shuffle(int[] values) {
+        shuffle(values, 0, values.length);
+    }
+    
+    //Fisher-Yates on values[from, from + length), same swap order as Collections.shuffle
+    private void shuffle(int[] values, int from, int length) {
+        for (int i = length; i > 1; i--) {
+            int j = random.nextInt(i);
+            int temp = values[from + i - 1];
+            values[from + i - 1] = values[from + j];
+            values[from + j] = temp;
+        }
+    }
+    
+    //IndexView - Read-only list of the source rows at the given indices, nothing is copied
+    private static class IndexView<T> extends AbstractList<T> implements RandomAccess {
+        private final List<T> source;
+        private final int[] indices;
+        
+        IndexView(List<T> source, int[] indices) {
+            this.source = source;
+            this.indices = indices;
+        }
+        
+        @Override
+        public T get(int i) {
+            return source.get(indices[i]);
+        }
+        
+        @Override
+        public int size() {
+            return indices.length;
+        }
+    }
 }
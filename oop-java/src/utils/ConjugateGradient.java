@@ -0,0 +1,134 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: ConjugateGradient.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package utils;
+
+import java.util.Arrays;
+
+//ConjugateGradient - Solves A x = b for symmetric positive definite A using only products A v
+//A is never formed, so it can be X^T X + lambda I applied as X^T (X v) + lambda v over dense or
+//sparse rows, and each iteration costs one pass over the data
+//A diagonal (Jacobi) preconditioner evens out columns on very different scales, and the
+//iterations stop as soon as |b - A x| <= tolerance * |b|
+public final class ConjugateGradient {
+
+    //Operator - Writes A v into out, out comes in filled with 0's
+    public interface Operator {
+        void apply(double[] v, double[] out);
+    }
+
+    //Result - x and how the iterations went
+    public static final class Result {
+        private final double[] x;
+        private final int iterations;
+        private final double relativeResidual;
+        private final boolean converged;
+
+        Result(double[] x, int iterations, double relativeResidual, boolean converged) {
+            this.x = x;
+            this.iterations = iterations;
+            this.relativeResidual = relativeResidual;
+            this.converged = converged;
+        }
+
+        public double[] getX() {
+            return x;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        //|b - A x| / |b| at the last iterate
+        public double getRelativeResidual() {
+            return relativeResidual;
+        }
+
+        public boolean isConverged() {
+            return converged;
+        }
+    }
+
+    private ConjugateGradient() {
+    }
+
+    //Solve A x = b from x = 0, diagonal holds diag(A) (null for no preconditioner)
+    public static Result solve(Operator A, double[] b, double[] diagonal, double tolerance, int maxIterations) {
+        int n = b.length;
+        if (diagonal != null && diagonal.length != n) {
+            throw new IllegalArgumentException("Diagonal has " + diagonal.length + " values but b has " + n);
+        }
+        if (!(tolerance > 0.0)) {
+            throw new IllegalArgumentException("Tolerance must be positive");
+        }
+
+        // M^-1 for the Jacobi preconditioner, a zero diagonal entry is left unscaled
+        double[] inverse = new double[n];
+        for (int i = 0; i < n; i++) {
+            inverse[i] = diagonal == null || diagonal[i] == 0.0 ? 1.0 : 1.0 / diagonal[i];
+        }
+
+        double[] x = new double[n];
+        double[] r = b.clone();
+        double[] z = new double[n];
+        double[] p = new double[n];
+        double[] Ap = new double[n];
+
+        double bNorm = Math.sqrt(dot(b, b));
+        if (bNorm == 0.0) {
+            return new Result(x, 0, 0.0, true);
+        }
+        double threshold = tolerance * bNorm;
+
+        for (int i = 0; i < n; i++) {
+            z[i] = inverse[i] * r[i];
+            p[i] = z[i];
+        }
+        double rz = dot(r, z);
+        double rNorm = bNorm;
+
+        int iteration = 0;
+        while (iteration < maxIterations) {
+            Arrays.fill(Ap, 0.0);
+            A.apply(p, Ap);
+            double pAp = dot(p, Ap);
+            if (!(pAp > 0.0)) {
+                // A is not positive definite along p, or p is already 0
+                break;
+            }
+            double alpha = rz / pAp;
+            for (int i = 0; i < n; i++) {
+                x[i] += alpha * p[i];
+                r[i] -= alpha * Ap[i];
+            }
+            iteration++;
+
+            rNorm = Math.sqrt(dot(r, r));
+            if (rNorm <= threshold) {
+                break;
+            }
+
+            for (int i = 0; i < n; i++) {
+                z[i] = inverse[i] * r[i];
+            }
+            double rzNext = dot(r, z);
+            double beta = rzNext / rz;
+            rz = rzNext;
+            for (int i = 0; i < n; i++) {
+                p[i] = z[i] + beta * p[i];
+            }
+        }
+        return new Result(x, iteration, rNorm / bNorm, rNorm <= threshold);
+    }
+
+    private static double dot(double[] u, double[] v) {
+        double sum = 0.0;
+        for (int i = 0; i < u.length; i++) {
+            sum += u[i] * v[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,55 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: FeatureMatrix.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package utils;
+
+//FeatureMatrix - Row access shared by every feature matrix layout the models can train on
+//Implementations keep their own storage (double, float, ...) but always compute and return double
+public interface FeatureMatrix {
+
+    int getNumRows();
+
+    int getNumCols();
+
+    double get(int i, int j);
+
+    //Copy row i into out
+    void getRow(int i, double[] out);
+
+    //init + row i . w, added left to right starting from init
+    double rowDot(int i, double[] w, double init);
+
+    //acc += scale * row i
+    void addRowTo(int i, double scale, double[] acc);
+
+    //Squared Euclidean distance between row i and x
+    double squaredDistance(int i, double[] x);
+
+    //Bytes used by the stored values
+    long getSizeBytes();
+
+    //Sum of squares of every column, e.g. the diagonal of X^T X
+    default double[] columnSumsOfSquares() {
+        double[] sums = new double[getNumCols()];
+        double[] row = new double[getNumCols()];
+        for (int i = 0; i < getNumRows(); i++) {
+            getRow(i, row);
+            for (int j = 0; j < row.length; j++) {
+                sums[j] += row[j] * row[j];
+            }
+        }
+        return sums;
+    }
+
+    //Copy into a new double[][], for code that has not moved to FeatureMatrix
+    default double[][] toArray() {
+        double[][] X = new double[getNumRows()][getNumCols()];
+        for (int i = 0; i < X.length; i++) {
+            getRow(i, X[i]);
+        }
+        return X;
+    }
+}
@@ -0,0 +1,148 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: FloatMatrix.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package utils;
+
+//FloatMatrix - Dense matrix stored row-major in one float[]
+//Half the memory and bandwidth of Matrix, every sum is still accumulated in double
+public class FloatMatrix implements FeatureMatrix {
+
+    private int numRows;
+    private int numCols;
+    private float[] data;
+
+    //Constructor, all zeros
+    public FloatMatrix(int numRows, int numCols) {
+        this(numRows, numCols, new float[checkedSize(numRows, numCols)]);
+    }
+
+    //Wrap an existing row-major array, nothing is copied
+    public FloatMatrix(int numRows, int numCols, float[] data) {
+        if (data.length != checkedSize(numRows, numCols)) {
+            throw new IllegalArgumentException("Expected " + (long) numRows * numCols + " values but got " + data.length);
+        }
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.data = data;
+    }
+
+    //Round every value of a FeatureMatrix to float
+    public static FloatMatrix from(FeatureMatrix X) {
+        FloatMatrix m = new FloatMatrix(X.getNumRows(), X.getNumCols());
+        double[] row = new double[m.numCols];
+        for (int i = 0; i < m.numRows; i++) {
+            X.getRow(i, row);
+            int offset = i * m.numCols;
+            for (int j = 0; j < m.numCols; j++) {
+                m.data[offset + j] = (float) row[j];
+            }
+        }
+        return m;
+    }
+
+    //Independent copy of the whole matrix
+    public FloatMatrix copy() {
+        return new FloatMatrix(numRows, numCols, data.clone());
+    }
+
+    //Round a double[][] to float
+    public static FloatMatrix fromArray(double[][] X) {
+        int rows = X.length;
+        int cols = rows == 0 ? 0 : X[0].length;
+        FloatMatrix m = new FloatMatrix(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            if (X[i].length != cols) {
+                throw new IllegalArgumentException("Row " + i + " has " + X[i].length + " values, expected " + cols);
+            }
+            for (int j = 0; j < cols; j++) {
+                m.data[i * cols + j] = (float) X[i][j];
+            }
+        }
+        return m;
+    }
+
+    @Override
+    public int getNumRows() {
+        return numRows;
+    }
+
+    @Override
+    public int getNumCols() {
+        return numCols;
+    }
+
+    //The backing row-major array
+    public float[] getData() {
+        return data;
+    }
+
+    //Index of the first cell of row i in getData()
+    public int rowOffset(int i) {
+        return i * numCols;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return data[i * numCols + j];
+    }
+
+    public void set(int i, int j, double value) {
+        data[i * numCols + j] = (float) value;
+    }
+
+    @Override
+    public void getRow(int i, double[] out) {
+        int offset = i * numCols;
+        for (int j = 0; j < numCols; j++) {
+            out[j] = data[offset + j];
+        }
+    }
+
+    @Override
+    public double rowDot(int i, double[] w, double init) {
+        double sum = init;
+        int offset = i * numCols;
+        for (int j = 0; j < numCols; j++) {
+            sum += w[j] * data[offset + j];
+        }
+        return sum;
+    }
+
+    @Override
+    public void addRowTo(int i, double scale, double[] acc) {
+        int offset = i * numCols;
+        for (int j = 0; j < numCols; j++) {
+            acc[j] += scale * data[offset + j];
+        }
+    }
+
+    @Override
+    public double squaredDistance(int i, double[] x) {
+        double sum = 0.0;
+        int offset = i * numCols;
+        for (int j = 0; j < numCols; j++) {
+            double diff = x[j] - data[offset + j];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public long getSizeBytes() {
+        return 4L * data.length;
+    }
+
+    private static int checkedSize(int numRows, int numCols) {
+        if (numRows < 0 || numCols < 0) {
+            throw new IllegalArgumentException("Matrix dimensions cannot be negative");
+        }
+        long size = (long) numRows * numCols;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Matrix of " + numRows + " x " + numCols + " is too large for one array");
+        }
+        return (int) size;
+    }
+}
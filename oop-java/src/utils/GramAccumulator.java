@@ -0,0 +1,384 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: GramAccumulator.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+//GramAccumulator - Upper triangle of the Gram matrix of the rows [1, x, y]
+//One pass gives n, sum(x), sum(y), X^T X, X^T y and y^T y, everything a linear least-squares
+//fit needs, without keeping any rows
+//Rows are summed in blocks on separate threads, each into its own accumulator, and the blocks
+//are added together in a fixed order at the end
+//Accumulators over disjoint rows merge into the accumulator of all rows, and one can be saved and
+//loaded so a later run only has to add the new rows
+//Every row is stored shifted by the first row it saw (the 1 column is not shifted), so features
+//with a large mean keep their digits and centered sums come out without cancellation; the raw
+//sums are put back together from the shifted ones when asked for
+//File layout: magic, version, feature count, row count, the shift, then the packed upper triangle
+//row by row
+public class GramAccumulator {
+
+    private static final int MAGIC = 0x4D4C4753;   // "MLGS"
+    private static final int VERSION = 2;
+
+    // Rows copied into one tile before it is folded into the sums
+    private static final int TILE_ROWS = 256;
+    // Columns per cache block, a 64 x 64 block of sums is 32KB and stays in L1 for the whole tile
+    private static final int TILE_COLS = 64;
+
+    private final int numFeatures;
+    private final int size;         // numFeatures + 2: the 1 column, the features, then y
+    private final double[][] upper; // upper[a][b - a] holds sum((z_a - K_a) * (z_b - K_b)) for b >= a
+    private double[] shift;         // K, the first row seen as [0, x, y], null while empty
+    private long count;
+    private int numThreads = Parallel.defaultThreads();
+
+    //Constructor, all sums start at 0
+    public GramAccumulator(int numFeatures) {
+        if (numFeatures < 0) {
+            throw new IllegalArgumentException("Number of features cannot be negative");
+        }
+        this.numFeatures = numFeatures;
+        this.size = numFeatures + 2;
+        this.upper = newUpper(size);
+    }
+
+    //Threads used by add, 1 keeps everything on the calling thread
+    public void setNumThreads(int numThreads) {
+        this.numThreads = Math.max(1, numThreads);
+    }
+
+    //Add every row of X with its target
+    public void add(FeatureMatrix X, double[] y) {
+        add(X, y, 0, X.getNumRows());
+    }
+
+    //Add the rows [from, to) of X with their targets, e.g. the part of the training rows that is
+    //not held out for validation; the rest can go into another accumulator and be merged later
+    public void add(FeatureMatrix X, double[] y, int from, int to) {
+        if (X.getNumCols() != numFeatures) {
+            throw new IllegalArgumentException("Expected " + numFeatures + " features but got " + X.getNumCols());
+        }
+        if (y.length != X.getNumRows()) {
+            throw new IllegalArgumentException("X has " + X.getNumRows() + " rows but y has " + y.length + " values");
+        }
+        if (from < 0 || to > X.getNumRows() || from > to) {
+            throw new IllegalArgumentException("Rows [" + from + ", " + to + ") are outside the " + X.getNumRows() + " rows of X");
+        }
+
+        int n = to - from;
+        if (n == 0) {
+            return;
+        }
+        if (shift == null) {
+            shift = new double[size];
+            double[] first = new double[numFeatures];
+            X.getRow(from, first);
+            System.arraycopy(first, 0, shift, 1, numFeatures);
+            shift[size - 1] = y[from];
+        }
+        int blocks = Parallel.blockCount(n, numThreads);
+        double[][][] partials = new double[blocks][][];
+
+        Parallel.forBlocks(n, blocks, (block, blockFrom, blockTo) -> {
+            double[][] acc = newUpper(size);
+            accumulate(X, y, from + blockFrom, from + blockTo, acc);
+            partials[block] = acc;
+        });
+
+        for (double[][] partial : partials) {
+            addUpper(upper, partial);
+        }
+        count += n;
+    }
+
+    //Sum the rows [from, to) into acc, one tile of rows at a time
+    //Each block of sums takes the rank-1 updates of every row in the tile while it is in cache,
+    //and the innermost loop runs over contiguous b so the JIT can vectorize it
+    private void accumulate(FeatureMatrix X, double[] y, int from, int to, double[][] acc) {
+        double[][] tile = new double[Math.min(TILE_ROWS, to - from)][size];
+        double[] row = new double[numFeatures];
+
+        for (int start = from; start < to; start += TILE_ROWS) {
+            int len = Math.min(TILE_ROWS, to - start);
+
+            // Copy the rows in as [1, x - K, y - K]
+            for (int r = 0; r < len; r++) {
+                double[] z = tile[r];
+                X.getRow(start + r, row);
+                z[0] = 1.0;
+                for (int j = 0; j < numFeatures; j++) {
+                    z[j + 1] = row[j] - shift[j + 1];
+                }
+                z[size - 1] = y[start + r] - shift[size - 1];
+            }
+
+            // Only block pairs on or above the diagonal, so only the upper triangle is computed
+            for (int aBlock = 0; aBlock < size; aBlock += TILE_COLS) {
+                int aEnd = Math.min(size, aBlock + TILE_COLS);
+                for (int bBlock = aBlock; bBlock < size; bBlock += TILE_COLS) {
+                    int bEnd = Math.min(size, bBlock + TILE_COLS);
+                    // Four rows per sweep, so each sum is loaded and stored once per four updates
+                    int r = 0;
+                    for (; r + 3 < len; r += 4) {
+                        double[] z0 = tile[r];
+                        double[] z1 = tile[r + 1];
+                        double[] z2 = tile[r + 2];
+                        double[] z3 = tile[r + 3];
+                        for (int a = aBlock; a < aEnd; a++) {
+                            double z0a = z0[a];
+                            double z1a = z1[a];
+                            double z2a = z2[a];
+                            double z3a = z3[a];
+                            double[] accA = acc[a];
+                            for (int b = Math.max(a, bBlock); b < bEnd; b++) {
+                                accA[b - a] += z0a * z0[b] + z1a * z1[b] + z2a * z2[b] + z3a * z3[b];
+                            }
+                        }
+                    }
+                    for (; r < len; r++) {
+                        double[] z = tile[r];
+                        for (int a = aBlock; a < aEnd; a++) {
+                            double za = z[a];
+                            double[] accA = acc[a];
+                            for (int b = Math.max(a, bBlock); b < bEnd; b++) {
+                                accA[b - a] += za * z[b];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    //Fold the sums of other, gathered over different rows, into this
+    public void merge(GramAccumulator other) {
+        if (other.numFeatures != numFeatures) {
+            throw new IllegalArgumentException("Cannot merge statistics of " + other.numFeatures
+                    + " features into " + numFeatures);
+        }
+        if (other.count == 0) {
+            return;
+        }
+        if (shift == null) {
+            shift = other.shift.clone();
+            addUpper(upper, other.upper);
+            count += other.count;
+            return;
+        }
+
+        // Move the sums of other onto this shift: with d = K_other - K,
+        // sum((z - K)_a (z - K)_b) = S_ab + d_a S_b + d_b S_a + n d_a d_b, S the sums of other
+        double[] delta = new double[size];
+        for (int a = 1; a < size; a++) {
+            delta[a] = other.shift[a] - shift[a];
+        }
+        double[] otherSums = other.upper[0];
+        double otherCount = other.count;
+        for (int a = 0; a < size; a++) {
+            double[] t = upper[a];
+            double[] s = other.upper[a];
+            for (int b = a; b < size; b++) {
+                t[b - a] += s[b - a] + delta[a] * otherSums[b] + delta[b] * otherSums[a]
+                        + otherCount * delta[a] * delta[b];
+            }
+        }
+        count += other.count;
+    }
+
+    public GramAccumulator copy() {
+        GramAccumulator copy = new GramAccumulator(numFeatures);
+        copy.numThreads = numThreads;
+        copy.merge(this);
+        return copy;
+    }
+
+    //Write the sums to a file
+    public void save(String path) throws IOException {
+        File tmpFile = new File(path + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(numFeatures);
+            out.writeLong(count);
+            for (int a = 0; a < size; a++) {
+                out.writeDouble(shift == null ? 0.0 : shift[a]);
+            }
+            for (double[] u : upper) {
+                for (double value : u) {
+                    out.writeDouble(value);
+                }
+            }
+        }
+
+        // Replace an old file only once the new one is complete
+        Files.move(tmpFile.toPath(), new File(path).toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    //Read sums written by save()
+    public static GramAccumulator load(String path) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("'" + path + "' is not saved regression statistics");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported regression statistics version " + version);
+            }
+
+            int numFeatures = in.readInt();
+            if (numFeatures < 0) {
+                throw new IOException("Corrupt regression statistics: " + numFeatures + " features");
+            }
+            GramAccumulator stats = new GramAccumulator(numFeatures);
+            stats.count = in.readLong();
+            stats.shift = new double[stats.size];
+            for (int a = 0; a < stats.size; a++) {
+                stats.shift[a] = in.readDouble();
+            }
+            if (stats.count == 0) {
+                stats.shift = null;
+            }
+            for (double[] u : stats.upper) {
+                for (int k = 0; k < u.length; k++) {
+                    u[k] = in.readDouble();
+                }
+            }
+            return stats;
+        }
+    }
+
+    private static double[][] newUpper(int size) {
+        double[][] u = new double[size][];
+        for (int a = 0; a < size; a++) {
+            u[a] = new double[size - a];
+        }
+        return u;
+    }
+
+    private static void addUpper(double[][] target, double[][] source) {
+        for (int a = 0; a < target.length; a++) {
+            double[] t = target[a];
+            double[] s = source[a];
+            for (int k = 0; k < t.length; k++) {
+                t[k] += s[k];
+            }
+        }
+    }
+
+    public int getNumFeatures() {
+        return numFeatures;
+    }
+
+    //Number of rows added
+    public long getCount() {
+        return count;
+    }
+
+    //[1, x]^T [1, x] as a square (d+1) x (d+1) array, index 0 is the bias
+    //Only the upper triangle is filled, which is all LinearSolver reads
+    public double[][] getXTX() {
+        int d1 = numFeatures + 1;
+        double[][] XTX = new double[d1][d1];
+        for (int a = 0; a < d1; a++) {
+            for (int b = a; b < d1; b++) {
+                XTX[a][b] = raw(a, b);
+            }
+        }
+        return XTX;
+    }
+
+    //[1, x]^T y, index 0 is sum(y)
+    public double[] getXTy() {
+        int d1 = numFeatures + 1;
+        double[] XTy = new double[d1];
+        for (int a = 0; a < d1; a++) {
+            XTy[a] = raw(a, size - 1);
+        }
+        return XTy;
+    }
+
+    public double getSumY() {
+        return raw(0, size - 1);
+    }
+
+    public double getSumYSquared() {
+        return raw(size - 1, size - 1);
+    }
+
+    //Mean of every feature, 0's while empty
+    public double[] getMeans() {
+        double[] means = new double[numFeatures];
+        for (int j = 0; j < numFeatures; j++) {
+            means[j] = mean(j + 1);
+        }
+        return means;
+    }
+
+    public double getMeanY() {
+        return mean(size - 1);
+    }
+
+    //sum((x - mean(x)) (x - mean(x))^T) as a square d x d array, only the upper triangle filled
+    //Taken from the shifted sums, so it keeps its digits when the means are large
+    public double[][] getCenteredXTX() {
+        double[][] C = new double[numFeatures][numFeatures];
+        for (int a = 0; a < numFeatures; a++) {
+            for (int b = a; b < numFeatures; b++) {
+                C[a][b] = centered(a + 1, b + 1);
+            }
+        }
+        return C;
+    }
+
+    //sum((x - mean(x)) (y - mean(y)))
+    public double[] getCenteredXTy() {
+        double[] c = new double[numFeatures];
+        for (int a = 0; a < numFeatures; a++) {
+            c[a] = centered(a + 1, size - 1);
+        }
+        return c;
+    }
+
+    // sum(z_a z_b) = S_ab + K_a S_b + K_b S_a + n K_a K_b, with S the shifted sums and S_0 = n
+    private double raw(int a, int b) {
+        double sum = upper[a][b - a];
+        if (shift == null) {
+            return sum;
+        }
+        double[] sums = upper[0];
+        return sum + shift[a] * sums[b] + shift[b] * sums[a] + count * shift[a] * shift[b];
+    }
+
+    // sum((z_a - mean_a) (z_b - mean_b)) = S_ab - S_a S_b / n, small S_a since K is one of the rows
+    private double centered(int a, int b) {
+        if (count == 0) {
+            return 0.0;
+        }
+        double[] sums = upper[0];
+        return upper[a][b - a] - sums[a] * sums[b] / count;
+    }
+
+    private double mean(int a) {
+        if (count == 0) {
+            return 0.0;
+        }
+        return shift[a] + upper[0][a] / count;
+    }
+}
@@ -0,0 +1,289 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: LinearSolver.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package utils;
+
+//LinearSolver - Solves symmetric systems A x = b by factorisation, never by forming an inverse
+//Cholesky is tried first, LDL^T takes over when A is not safely positive definite, and a
+//column-pivoted QR handles matrices that are singular or too ill-conditioned for either
+//Only the upper triangle of A (A[i][j] with j >= i) is read
+public final class LinearSolver {
+
+    // How far above rounding noise a Cholesky pivot must be, see tolerance()
+    private static final double CHOLESKY_MARGIN = 16.0;
+
+    //Method - The factorisation that produced a solution, EIGEN is the ridge path of LinearRegression
+    //and CONJUGATE_GRADIENT its iterative solver, which never forms X^T X
+    public enum Method { CHOLESKY, LDLT, QR, EIGEN, CONJUGATE_GRADIENT }
+
+    //Solution - x and how it was found
+    public static final class Solution {
+        private final double[] x;
+        private final Method method;
+
+        Solution(double[] x, Method method) {
+            this.x = x;
+            this.method = method;
+        }
+
+        public double[] getX() {
+            return x;
+        }
+
+        public Method getMethod() {
+            return method;
+        }
+    }
+
+    private LinearSolver() {
+    }
+
+    //Solve A x = b for symmetric A
+    public static Solution solveSymmetric(double[][] A, double[] b) {
+        if (A.length != b.length) {
+            throw new IllegalArgumentException("Matrix has " + A.length + " rows but b has " + b.length + " values");
+        }
+
+        double[][] L = cholesky(A);
+        if (L != null) {
+            return new Solution(choleskySolve(L, b), Method.CHOLESKY);
+        }
+
+        double[] D = new double[A.length];
+        L = ldlt(A, D);
+        if (L != null) {
+            return new Solution(ldltSolve(L, D, b), Method.LDLT);
+        }
+
+        return new Solution(qrSolve(A, b), Method.QR);
+    }
+
+    //Lower triangular L with A = L L^T, or null if a pivot is not clearly positive
+    public static double[][] cholesky(double[][] A) {
+        int n = A.length;
+        double tolerance = tolerance(n);
+        double[][] L = new double[n][];
+
+        for (int j = 0; j < n; j++) {
+            L[j] = new double[j + 1];
+            double[] Lj = L[j];
+
+            // Off-diagonal entries of row j, each a dot product of two rows of L
+            for (int k = 0; k < j; k++) {
+                double[] Lk = L[k];
+                double sum = A[k][j];
+                for (int m = 0; m < k; m++) {
+                    sum -= Lj[m] * Lk[m];
+                }
+                Lj[k] = sum / Lk[k];
+            }
+
+            double pivot = A[j][j];
+            for (int m = 0; m < j; m++) {
+                pivot -= Lj[m] * Lj[m];
+            }
+            if (!(pivot > CHOLESKY_MARGIN * tolerance * Math.abs(A[j][j]))) {
+                return null;
+            }
+            Lj[j] = Math.sqrt(pivot);
+        }
+        return L;
+    }
+
+    //Solve L L^T x = b
+    public static double[] choleskySolve(double[][] L, double[] b) {
+        int n = L.length;
+        double[] x = b.clone();
+
+        // Forward: L z = b
+        for (int i = 0; i < n; i++) {
+            double[] Li = L[i];
+            double sum = x[i];
+            for (int k = 0; k < i; k++) {
+                sum -= Li[k] * x[k];
+            }
+            x[i] = sum / Li[i];
+        }
+
+        // Back: L^T x = z, walking the rows of L so the inner loop stays contiguous
+        for (int i = n - 1; i >= 0; i--) {
+            double[] Li = L[i];
+            x[i] /= Li[i];
+            for (int k = 0; k < i; k++) {
+                x[k] -= Li[k] * x[i];
+            }
+        }
+        return x;
+    }
+
+    //Unit lower triangular L and diagonal D (written into D) with A = L D L^T, or null on a zero pivot
+    //A pivot only has to stand clear of the rounding noise of its own sum, without the margin
+    //Cholesky keeps, so a positive semi-definite A that Cholesky turns down can still factor here
+    public static double[][] ldlt(double[][] A, double[] D) {
+        int n = A.length;
+        double tolerance = tolerance(n);
+        double[][] L = new double[n][];
+
+        for (int j = 0; j < n; j++) {
+            L[j] = new double[j + 1];
+            double[] Lj = L[j];
+
+            for (int k = 0; k < j; k++) {
+                double[] Lk = L[k];
+                double sum = A[k][j];
+                for (int m = 0; m < k; m++) {
+                    sum -= Lj[m] * D[m] * Lk[m];
+                }
+                Lj[k] = sum / D[k];
+            }
+
+            double pivot = A[j][j];
+            for (int m = 0; m < j; m++) {
+                pivot -= Lj[m] * Lj[m] * D[m];
+            }
+            if (!(Math.abs(pivot) > tolerance * Math.abs(A[j][j]))) {
+                return null;
+            }
+            D[j] = pivot;
+            Lj[j] = 1.0;
+        }
+        return L;
+    }
+
+    //Solve L D L^T x = b
+    public static double[] ldltSolve(double[][] L, double[] D, double[] b) {
+        int n = L.length;
+        double[] x = b.clone();
+
+        for (int i = 0; i < n; i++) {
+            double[] Li = L[i];
+            double sum = x[i];
+            for (int k = 0; k < i; k++) {
+                sum -= Li[k] * x[k];
+            }
+            x[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            x[i] /= D[i];
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            double[] Li = L[i];
+            for (int k = 0; k < i; k++) {
+                x[k] -= Li[k] * x[i];
+            }
+        }
+        return x;
+    }
+
+    //Least-squares solution by Householder QR with column pivoting
+    //Directions whose R diagonal is negligible are dropped, so a singular A still gives a usable x
+    public static double[] qrSolve(double[][] A, double[] b) {
+        int n = A.length;
+
+        // Full symmetric copy, stored by column so each Householder step works on contiguous arrays
+        double[][] cols = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j < n; j++) {
+                cols[j][i] = A[i][j];
+                cols[i][j] = A[i][j];
+            }
+        }
+        double[] qtb = b.clone();
+        int[] perm = new int[n];
+        for (int j = 0; j < n; j++) {
+            perm[j] = j;
+        }
+
+        double rankTolerance = tolerance(n);
+        int rank = 0;
+        double firstPivot = 0.0;
+        for (int k = 0; k < n; k++) {
+            // Bring forward the remaining column with the largest norm below row k
+            int best = k;
+            double bestNorm = -1.0;
+            for (int j = k; j < n; j++) {
+                double norm = 0.0;
+                for (int i = k; i < n; i++) {
+                    norm += cols[j][i] * cols[j][i];
+                }
+                if (norm > bestNorm) {
+                    bestNorm = norm;
+                    best = j;
+                }
+            }
+            double[] tmp = cols[k];
+            cols[k] = cols[best];
+            cols[best] = tmp;
+            int p = perm[k];
+            perm[k] = perm[best];
+            perm[best] = p;
+
+            double alpha = Math.sqrt(bestNorm);
+            if (k == 0) {
+                firstPivot = alpha;
+            }
+            if (alpha <= rankTolerance * firstPivot) {
+                break;
+            }
+            rank++;
+
+            // Householder vector v = x + sign(x_k) |x| e_k, kept in cols[k][k..n)
+            double[] v = cols[k];
+            if (v[k] > 0) {
+                alpha = -alpha;
+            }
+            v[k] -= alpha;
+            double vNorm2 = 0.0;
+            for (int i = k; i < n; i++) {
+                vNorm2 += v[i] * v[i];
+            }
+
+            for (int j = k + 1; j < n; j++) {
+                reflect(v, vNorm2, cols[j], k, n);
+            }
+            reflect(v, vNorm2, qtb, k, n);
+
+            // The reflected column k is alpha e_k
+            v[k] = alpha;
+        }
+
+        // Back substitution on the leading rank x rank block of R, the rest of x stays 0
+        double[] z = new double[n];
+        for (int i = rank - 1; i >= 0; i--) {
+            double sum = qtb[i];
+            for (int j = i + 1; j < rank; j++) {
+                sum -= cols[j][i] * z[j];
+            }
+            z[i] = sum / cols[i][i];
+        }
+
+        double[] x = new double[n];
+        for (int j = 0; j < n; j++) {
+            x[perm[j]] = z[j];
+        }
+        return x;
+    }
+
+    // Rounding error of an n-term sum, relative: a pivot below this share of its diagonal
+    // (or an R diagonal below this share of the first one) carries no information
+    // Cholesky asks for CHOLESKY_MARGIN times more, its square root doubles the relative error of a
+    // small pivot, and anything it turns down still has LDL^T and QR to fall back on
+    private static double tolerance(int n) {
+        return Math.max(1, n) * Math.ulp(1.0);
+    }
+
+    // u -= 2 v (v . u) / (v . v) on the rows [k, n)
+    private static void reflect(double[] v, double vNorm2, double[] u, int k, int n) {
+        double dot = 0.0;
+        for (int i = k; i < n; i++) {
+            dot += v[i] * u[i];
+        }
+        double factor = 2.0 * dot / vNorm2;
+        for (int i = k; i < n; i++) {
+            u[i] -= factor * v[i];
+        }
+    }
+}
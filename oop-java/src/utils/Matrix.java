@@ -0,0 +1,194 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: Matrix.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package utils;
+
+//Matrix - Dense matrix stored row-major in one double[]
+//Cell (i, j) lives at data[i * numCols + j], so a row is a contiguous slice starting at rowOffset(i)
+public class Matrix implements FeatureMatrix {
+
+    private int numRows;
+    private int numCols;
+    private double[] data;
+
+    //Constructor, all zeros
+    public Matrix(int numRows, int numCols) {
+        this(numRows, numCols, new double[checkedSize(numRows, numCols)]);
+    }
+
+    //Wrap an existing row-major array, nothing is copied
+    public Matrix(int numRows, int numCols, double[] data) {
+        if (data.length != checkedSize(numRows, numCols)) {
+            throw new IllegalArgumentException("Expected " + (long) numRows * numCols + " values but got " + data.length);
+        }
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.data = data;
+    }
+
+    //Copy a double[][] into a new Matrix
+    public static Matrix fromArray(double[][] X) {
+        int rows = X.length;
+        int cols = rows == 0 ? 0 : X[0].length;
+        Matrix m = new Matrix(rows, cols);
+        for (int i = 0; i < rows; i++) {
+            if (X[i].length != cols) {
+                throw new IllegalArgumentException("Row " + i + " has " + X[i].length + " values, expected " + cols);
+            }
+            System.arraycopy(X[i], 0, m.data, i * cols, cols);
+        }
+        return m;
+    }
+
+    //Copy into a new double[][], for code that has not moved to Matrix
+    @Override
+    public double[][] toArray() {
+        double[][] X = new double[numRows][numCols];
+        for (int i = 0; i < numRows; i++) {
+            System.arraycopy(data, i * numCols, X[i], 0, numCols);
+        }
+        return X;
+    }
+
+    @Override
+    public int getNumRows() {
+        return numRows;
+    }
+
+    @Override
+    public int getNumCols() {
+        return numCols;
+    }
+
+    //The backing row-major array
+    public double[] getData() {
+        return data;
+    }
+
+    //Index of the first cell of row i in getData()
+    public int rowOffset(int i) {
+        return i * numCols;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return data[i * numCols + j];
+    }
+
+    public void set(int i, int j, double value) {
+        data[i * numCols + j] = value;
+    }
+
+    //Copy row i into out
+    @Override
+    public void getRow(int i, double[] out) {
+        System.arraycopy(data, i * numCols, out, 0, numCols);
+    }
+
+    //Copy column j into out
+    public void getColumn(int j, double[] out) {
+        for (int i = 0, idx = j; i < numRows; i++, idx += numCols) {
+            out[i] = data[idx];
+        }
+    }
+
+    //Dot product of row i with w
+    public double rowDot(int i, double[] w) {
+        return rowDot(i, w, 0.0);
+    }
+
+    @Override
+    public double rowDot(int i, double[] w, double init) {
+        double sum = init;
+        int offset = i * numCols;
+        for (int j = 0; j < numCols; j++) {
+            sum += w[j] * data[offset + j];
+        }
+        return sum;
+    }
+
+    @Override
+    public void addRowTo(int i, double scale, double[] acc) {
+        int offset = i * numCols;
+        for (int j = 0; j < numCols; j++) {
+            acc[j] += scale * data[offset + j];
+        }
+    }
+
+    @Override
+    public double squaredDistance(int i, double[] x) {
+        double sum = 0.0;
+        int offset = i * numCols;
+        for (int j = 0; j < numCols; j++) {
+            double diff = x[j] - data[offset + j];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    @Override
+    public long getSizeBytes() {
+        return 8L * data.length;
+    }
+
+    //X * w
+    public double[] multiply(double[] w) {
+        if (w.length != numCols) {
+            throw new IllegalArgumentException("Vector length " + w.length + " does not match " + numCols + " columns");
+        }
+        double[] result = new double[numRows];
+        for (int i = 0; i < numRows; i++) {
+            result[i] = rowDot(i, w);
+        }
+        return result;
+    }
+
+    //X^T * v, walking the rows in storage order
+    public double[] transposeMultiply(double[] v) {
+        if (v.length != numRows) {
+            throw new IllegalArgumentException("Vector length " + v.length + " does not match " + numRows + " rows");
+        }
+        double[] result = new double[numCols];
+        for (int i = 0; i < numRows; i++) {
+            int offset = i * numCols;
+            for (int j = 0; j < numCols; j++) {
+                result[j] += data[offset + j] * v[i];
+            }
+        }
+        return result;
+    }
+
+    //Column-major view of the same storage, nothing is copied
+    //Call toMatrix() on it for a contiguous copy, e.g. for per-feature statistics over many passes
+    public TransposedMatrix transpose() {
+        return new TransposedMatrix(this);
+    }
+
+    //Independent copy of the whole matrix
+    public Matrix copy() {
+        return new Matrix(numRows, numCols, data.clone());
+    }
+
+    //New matrix holding the given rows in the given order
+    public Matrix selectRows(int[] rows) {
+        Matrix m = new Matrix(rows.length, numCols);
+        for (int r = 0; r < rows.length; r++) {
+            System.arraycopy(data, rows[r] * numCols, m.data, r * numCols, numCols);
+        }
+        return m;
+    }
+
+    private static int checkedSize(int numRows, int numCols) {
+        if (numRows < 0 || numCols < 0) {
+            throw new IllegalArgumentException("Matrix dimensions cannot be negative");
+        }
+        long size = (long) numRows * numCols;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Matrix of " + numRows + " x " + numCols + " is too large for one array");
+        }
+        return (int) size;
+    }
+}
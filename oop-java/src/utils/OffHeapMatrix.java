@@ -0,0 +1,221 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: OffHeapMatrix.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//OffHeapMatrix - Dense row-major double matrix kept outside the Java heap
+//Values live in direct buffers or in a memory-mapped file, and never add to GC work
+//Direct buffers are capped by -XX:MaxDirectMemorySize, which defaults to -Xmx, so only the
+//file-backed matrices (map, createTemp) can hold a training set larger than the heap limit
+//One buffer holds at most 2GB, so rows are spread over chunks of whole rows
+public class OffHeapMatrix implements FeatureMatrix, AutoCloseable {
+
+    // Largest chunk, kept well under the 2GB limit of a single buffer
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+
+    private int numRows;
+    private int numCols;
+    private int rowsPerChunk;
+    private DoubleBuffer[] chunks;
+    private FileChannel channel;
+    private Path file;
+    private boolean deleteOnClose;
+
+    private OffHeapMatrix(int numRows, int numCols) {
+        if (numRows < 0 || numCols < 0) {
+            throw new IllegalArgumentException("Matrix dimensions cannot be negative");
+        }
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.rowsPerChunk = (int) Math.max(1, Math.min(numRows, MAX_CHUNK_BYTES / (8L * Math.max(1, numCols))));
+        this.chunks = new DoubleBuffer[numRows == 0 ? 0 : (numRows + rowsPerChunk - 1) / rowsPerChunk];
+    }
+
+    //All zeros in direct (native) memory, freed when the matrix is garbage collected
+    public static OffHeapMatrix allocate(int numRows, int numCols) {
+        OffHeapMatrix m = new OffHeapMatrix(numRows, numCols);
+        for (int c = 0; c < m.chunks.length; c++) {
+            m.chunks[c] = ByteBuffer.allocateDirect((int) m.chunkBytes(c)).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+        return m;
+    }
+
+    //Backed by file, which is created or grown to numRows x numCols doubles and kept after close
+    //An existing file of the right size is opened with its values, e.g. one written by an earlier run
+    public static OffHeapMatrix map(Path file, int numRows, int numCols) {
+        OffHeapMatrix m = new OffHeapMatrix(numRows, numCols);
+        m.file = file;
+        try {
+            m.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long position = 0;
+            for (int c = 0; c < m.chunks.length; c++) {
+                long bytes = m.chunkBytes(c);
+                m.chunks[c] = m.channel.map(FileChannel.MapMode.READ_WRITE, position, bytes)
+                        .order(ByteOrder.nativeOrder()).asDoubleBuffer();
+                position += bytes;
+            }
+        } catch (IOException e) {
+            m.close();
+            throw new UncheckedIOException("Could not map " + file, e);
+        }
+        return m;
+    }
+
+    //Backed by a new temporary file in directory, the file is deleted on close
+    public static OffHeapMatrix createTemp(Path directory, int numRows, int numCols) {
+        Path file;
+        try {
+            file = Files.createTempFile(directory, "features", ".bin");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create a spill file in " + directory, e);
+        }
+        file.toFile().deleteOnExit();
+        OffHeapMatrix m = map(file, numRows, numCols);
+        m.deleteOnClose = true;
+        return m;
+    }
+
+    //Copy any feature matrix off the heap, directory null means direct memory instead of a file
+    public static OffHeapMatrix copyOf(FeatureMatrix X, Path directory) {
+        OffHeapMatrix m = directory == null ? allocate(X.getNumRows(), X.getNumCols())
+                : createTemp(directory, X.getNumRows(), X.getNumCols());
+        m.setRows(0, X);
+        return m;
+    }
+
+    private long chunkBytes(int c) {
+        int rows = Math.min(rowsPerChunk, numRows - c * rowsPerChunk);
+        return 8L * rows * numCols;
+    }
+
+    private DoubleBuffer chunk(int i) {
+        if (chunks == null) {
+            throw new IllegalStateException("OffHeapMatrix is closed");
+        }
+        return chunks[i / rowsPerChunk];
+    }
+
+    private int offsetInChunk(int i) {
+        return (i % rowsPerChunk) * numCols;
+    }
+
+    @Override
+    public int getNumRows() {
+        return numRows;
+    }
+
+    @Override
+    public int getNumCols() {
+        return numCols;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return chunk(i).get(offsetInChunk(i) + j);
+    }
+
+    public void set(int i, int j, double value) {
+        chunk(i).put(offsetInChunk(i) + j, value);
+    }
+
+    @Override
+    public void getRow(int i, double[] out) {
+        chunk(i).get(offsetInChunk(i), out, 0, numCols);
+    }
+
+    //Overwrite row i with values
+    public void setRow(int i, double[] values) {
+        chunk(i).put(offsetInChunk(i), values, 0, numCols);
+    }
+
+    //Copy every row of block into the rows starting at firstRow
+    public void setRows(int firstRow, FeatureMatrix block) {
+        if (block.getNumCols() != numCols) {
+            throw new IllegalArgumentException("Block has " + block.getNumCols() + " columns, expected " + numCols);
+        }
+        double[] row = new double[numCols];
+        for (int r = 0; r < block.getNumRows(); r++) {
+            block.getRow(r, row);
+            setRow(firstRow + r, row);
+        }
+    }
+
+    @Override
+    public double rowDot(int i, double[] w, double init) {
+        DoubleBuffer buffer = chunk(i);
+        int offset = offsetInChunk(i);
+        double sum = init;
+        for (int j = 0; j < numCols; j++) {
+            sum += w[j] * buffer.get(offset + j);
+        }
+        return sum;
+    }
+
+    @Override
+    public void addRowTo(int i, double scale, double[] acc) {
+        DoubleBuffer buffer = chunk(i);
+        int offset = offsetInChunk(i);
+        for (int j = 0; j < numCols; j++) {
+            acc[j] += scale * buffer.get(offset + j);
+        }
+    }
+
+    @Override
+    public double squaredDistance(int i, double[] x) {
+        DoubleBuffer buffer = chunk(i);
+        int offset = offsetInChunk(i);
+        double sum = 0.0;
+        for (int j = 0; j < numCols; j++) {
+            double diff = x[j] - buffer.get(offset + j);
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    //Bytes stored off the heap
+    @Override
+    public long getSizeBytes() {
+        return 8L * numRows * numCols;
+    }
+
+    public boolean isFileBacked() {
+        return file != null;
+    }
+
+    //The backing file, null for direct memory
+    public Path getFile() {
+        return file;
+    }
+
+    //Release the buffers and the file, the matrix cannot be used afterwards
+    //Direct and mapped memory is returned once the buffers are garbage collected
+    @Override
+    public void close() {
+        chunks = null;
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            if (deleteOnClose) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not release " + file, e);
+        } finally {
+            channel = null;
+        }
+    }
+}
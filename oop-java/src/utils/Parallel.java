@@ -0,0 +1,133 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: Parallel.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+//Parallel - Splits a row range into contiguous blocks and runs them on a fixed thread pool
+public class Parallel {
+
+    // Below this many rows per thread the pool costs more than it saves
+    private static final int MIN_ROWS_PER_THREAD = 1024;
+    // Rows per block when results must not depend on the number of threads
+    private static final int FIXED_BLOCK_ROWS = 4096;
+
+    //Work on the rows [from, to)
+    public interface RangeTask {
+        void run(int from, int to);
+    }
+
+    //Work on block number block, which covers the rows [from, to)
+    public interface BlockTask {
+        void run(int block, int from, int to);
+    }
+
+    private Parallel() {
+    }
+
+    //Number of threads to use when the caller does not say
+    public static int defaultThreads() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    //How many blocks numRows should be cut into for numThreads, at least 1
+    public static int blockCount(int numRows, int numThreads) {
+        return Math.max(1, Math.min(numThreads, numRows / MIN_ROWS_PER_THREAD));
+    }
+
+    //How many blocks of FIXED_BLOCK_ROWS rows cover numRows, at least 1
+    //The blocks depend only on numRows, so per-block sums merged in block order give the same
+    //bits on every machine however many threads run them
+    public static int fixedBlockCount(int numRows) {
+        return Math.max(1, (numRows + FIXED_BLOCK_ROWS - 1) / FIXED_BLOCK_ROWS);
+    }
+
+    //Run task over [0, numRows) in at most numThreads blocks, small inputs run on the calling thread
+    public static void forRanges(int numRows, int numThreads, RangeTask task) {
+        forBlocks(numRows, blockCount(numRows, numThreads), (block, from, to) -> task.run(from, to));
+    }
+
+    //Run task on exactly numBlocks contiguous blocks, one thread each
+    //Block b always gets the same rows, so per-block results can be combined in a fixed order
+    public static void forBlocks(int numRows, int numBlocks, BlockTask task) {
+        forBlocks(numRows, numBlocks, numBlocks, task);
+    }
+
+    //Run task on numBlocks contiguous blocks with at most numThreads threads
+    public static void forBlocks(int numRows, int numBlocks, int numThreads, BlockTask task) {
+        try (Pool pool = new Pool(Math.min(Math.max(1, numBlocks), numThreads))) {
+            pool.forBlocks(numRows, numBlocks, task);
+        }
+    }
+
+    //Pool - A fixed thread pool kept across many forBlocks calls, e.g. one per solver iteration
+    //Create it once outside the loop and close it when done; with one thread it runs every block
+    //on the calling thread and starts no threads at all
+    public static class Pool implements AutoCloseable {
+
+        private ExecutorService executor;
+
+        public Pool(int numThreads) {
+            if (numThreads > 1) {
+                executor = Executors.newFixedThreadPool(numThreads);
+            }
+        }
+
+        //Same blocks as Parallel.forBlocks, block b always gets the same rows
+        public void forBlocks(int numRows, int numBlocks, BlockTask task) {
+            numBlocks = Math.max(1, numBlocks);
+            int chunk = (numRows + numBlocks - 1) / numBlocks;
+            if (executor == null || numBlocks == 1) {
+                for (int b = 0; b < numBlocks; b++) {
+                    int from = Math.min(numRows, b * chunk);
+                    task.run(b, from, Math.min(numRows, from + chunk));
+                }
+                return;
+            }
+
+            List<Future<?>> futures = new ArrayList<>();
+            try {
+                for (int b = 0; b < numBlocks; b++) {
+                    int block = b;
+                    int from = Math.min(numRows, b * chunk);
+                    int to = Math.min(numRows, from + chunk);
+                    futures.add(executor.submit(() -> task.run(block, from, to)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while processing rows", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException("Failed to process rows", cause);
+            } finally {
+                // A failed block leaves the others to finish or be cancelled before the next call
+                for (Future<?> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: SparseMatrix.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package utils;
+
+import java.util.Arrays;
+
+//SparseMatrix - Compressed sparse row (CSR) matrix
+//Row i holds the entries rowPtr[i] .. rowPtr[i + 1] - 1 of colIndices and values, columns ascending
+//As a FeatureMatrix every row operation only touches the stored entries
+public class SparseMatrix implements FeatureMatrix {
+
+    private int numRows;
+    private int numCols;
+    private int[] rowPtr;
+    private int[] colIndices;
+    private double[] values;
+
+    //Constructor, the arrays are used as given
+    public SparseMatrix(int numRows, int numCols, int[] rowPtr, int[] colIndices, double[] values) {
+        if (rowPtr.length != numRows + 1) {
+            throw new IllegalArgumentException("rowPtr must have numRows + 1 entries");
+        }
+        if (colIndices.length < rowPtr[numRows] || values.length < rowPtr[numRows]) {
+            throw new IllegalArgumentException("colIndices and values must hold rowPtr[numRows] entries");
+        }
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.rowPtr = rowPtr;
+        this.colIndices = colIndices;
+        this.values = values;
+    }
+
+    @Override
+    public int getNumRows() {
+        return numRows;
+    }
+
+    @Override
+    public int getNumCols() {
+        return numCols;
+    }
+
+    //Number of stored entries
+    public int getNonZeros() {
+        return rowPtr[numRows];
+    }
+
+    public int[] getRowPtr() {
+        return rowPtr;
+    }
+
+    public int[] getColIndices() {
+        return colIndices;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    //Get a single cell, binary search inside the row
+    @Override
+    public double get(int row, int col) {
+        int lo = rowPtr[row];
+        int hi = rowPtr[row + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (colIndices[mid] < col) {
+                lo = mid + 1;
+            } else if (colIndices[mid] > col) {
+                hi = mid - 1;
+            } else {
+                return values[mid];
+            }
+        }
+        return 0.0;
+    }
+
+    //Dot product of one row with a dense vector
+    public double dotRow(int row, double[] x) {
+        double sum = 0.0;
+        for (int k = rowPtr[row]; k < rowPtr[row + 1]; k++) {
+            sum += values[k] * x[colIndices[k]];
+        }
+        return sum;
+    }
+
+    @Override
+    public void getRow(int i, double[] out) {
+        Arrays.fill(out, 0, numCols, 0.0);
+        for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+            out[colIndices[k]] = values[k];
+        }
+    }
+
+    @Override
+    public double rowDot(int i, double[] w, double init) {
+        double sum = init;
+        for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+            sum += w[colIndices[k]] * values[k];
+        }
+        return sum;
+    }
+
+    @Override
+    public void addRowTo(int i, double scale, double[] acc) {
+        for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+            acc[colIndices[k]] += scale * values[k];
+        }
+    }
+
+    //(x_j - v)^2 on the stored entries and x_j^2 on the columns between them, walked in column order
+    //Every term is a square, so the sum never cancels below 0
+    @Override
+    public double squaredDistance(int i, double[] x) {
+        double sum = 0.0;
+        int j = 0;
+        for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+            int col = colIndices[k];
+            for (; j < col; j++) {
+                sum += x[j] * x[j];
+            }
+            double diff = x[col] - values[k];
+            sum += diff * diff;
+            j = col + 1;
+        }
+        for (; j < numCols; j++) {
+            sum += x[j] * x[j];
+        }
+        return sum;
+    }
+
+    @Override
+    public double[] columnSumsOfSquares() {
+        double[] sums = new double[numCols];
+        for (int k = 0; k < rowPtr[numRows]; k++) {
+            sums[colIndices[k]] += values[k] * values[k];
+        }
+        return sums;
+    }
+
+    @Override
+    public long getSizeBytes() {
+        return getMemoryBytes();
+    }
+
+    @Override
+    public double[][] toArray() {
+        return toDense();
+    }
+
+    //Matrix-vector product
+    public double[] multiply(double[] x) {
+        if (x.length != numCols) {
+            throw new IllegalArgumentException("Vector length " + x.length + " does not match " + numCols + " columns");
+        }
+        double[] result = new double[numRows];
+        for (int i = 0; i < numRows; i++) {
+            result[i] = dotRow(i, x);
+        }
+        return result;
+    }
+
+    //Expand to a dense matrix, for models that only take double[][]
+    public double[][] toDense() {
+        double[][] dense = new double[numRows][numCols];
+        for (int i = 0; i < numRows; i++) {
+            for (int k = rowPtr[i]; k < rowPtr[i + 1]; k++) {
+                dense[i][colIndices[k]] = values[k];
+            }
+        }
+        return dense;
+    }
+
+    //Approximate memory used by the arrays, in bytes
+    public long getMemoryBytes() {
+        return 4L * rowPtr.length + 4L * colIndices.length + 8L * values.length;
+    }
+}
@@ -0,0 +1,123 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: SymmetricEigen.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package utils;
+
+//SymmetricEigen - Eigenvalues and eigenvectors of a symmetric matrix, A = V diag(values) V^T
+//Cyclic Jacobi: every off-diagonal entry is rotated to zero in turn until the matrix is diagonal
+//Slower than a tridiagonal QR for large matrices, but simple and accurate to the last few bits
+//Only the upper triangle of A (A[i][j] with j >= i) is read
+public class SymmetricEigen {
+
+    // Jacobi converges quadratically, real matrices need well under this many sweeps
+    private static final int MAX_SWEEPS = 100;
+
+    private final double[] values;
+    private final double[][] vectors;   // vectors[k] is the eigenvector of values[k]
+
+    //Decompose A
+    public SymmetricEigen(double[][] A) {
+        int n = A.length;
+        double[][] a = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            if (A[i].length != n) {
+                throw new IllegalArgumentException("Matrix must be square");
+            }
+            for (int j = i; j < n; j++) {
+                a[i][j] = A[i][j];
+                a[j][i] = A[i][j];
+            }
+        }
+        double[][] v = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            v[i][i] = 1.0;
+        }
+
+        double norm = 0.0;
+        for (double[] row : a) {
+            for (double x : row) {
+                norm += x * x;
+            }
+        }
+        double threshold = Math.ulp(1.0) * Math.ulp(1.0) * norm;
+
+        for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+            double off = 0.0;
+            for (int p = 0; p < n; p++) {
+                for (int q = p + 1; q < n; q++) {
+                    off += a[p][q] * a[p][q];
+                }
+            }
+            if (off <= threshold) {
+                break;
+            }
+
+            for (int p = 0; p < n; p++) {
+                for (int q = p + 1; q < n; q++) {
+                    if (a[p][q] != 0.0) {
+                        rotate(a, v, p, q);
+                    }
+                }
+            }
+        }
+
+        values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = a[i][i];
+        }
+        vectors = v;
+    }
+
+    //Rotate in the (p, q) plane so a[p][q] becomes 0, and apply the same rotation to the vectors
+    private static void rotate(double[][] a, double[][] v, int p, int q) {
+        double theta = (a[q][q] - a[p][p]) / (2.0 * a[p][q]);
+        double t = Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1.0));
+        if (theta == 0.0) {
+            t = 1.0;
+        }
+        double c = 1.0 / Math.sqrt(t * t + 1.0);
+        double s = t * c;
+        int n = a.length;
+
+        // Columns p and q, then rows p and q: A' = J^T A J
+        for (int k = 0; k < n; k++) {
+            double akp = a[k][p];
+            double akq = a[k][q];
+            a[k][p] = c * akp - s * akq;
+            a[k][q] = s * akp + c * akq;
+        }
+        double[] ap = a[p];
+        double[] aq = a[q];
+        for (int k = 0; k < n; k++) {
+            double apk = ap[k];
+            double aqk = aq[k];
+            ap[k] = c * apk - s * aqk;
+            aq[k] = s * apk + c * aqk;
+        }
+        ap[q] = 0.0;
+        aq[p] = 0.0;
+
+        // Eigenvectors are kept as rows, so both updates run over contiguous arrays
+        double[] vp = v[p];
+        double[] vq = v[q];
+        for (int k = 0; k < n; k++) {
+            double vpk = vp[k];
+            double vqk = vq[k];
+            vp[k] = c * vpk - s * vqk;
+            vq[k] = s * vpk + c * vqk;
+        }
+    }
+
+    //Eigenvalues, in no particular order
+    public double[] getValues() {
+        return values;
+    }
+
+    //Eigenvectors as rows, getVectors()[k] goes with getValues()[k]
+    public double[][] getVectors() {
+        return vectors;
+    }
+}
@@ -0,0 +1,106 @@
+//NAME: Nicole Flanders
+//ASGT: Class Project
+//ORGN: CSUB- CMPS 3500
+//FILE: TransposedMatrix.java
+//DATE: 10/17/2026
+//--------------------------------------------------------
+package utils;
+
+//TransposedMatrix - Column-major view of a Matrix, sharing its double[]
+//Row i of the view is column i of the matrix, so cell (i, j) lives at data[j * numRows + i]
+//Nothing is copied and writes to the matrix show through; use toMatrix() for a contiguous copy
+public class TransposedMatrix implements FeatureMatrix {
+
+    private Matrix source;
+    private double[] data;
+    // Stride between consecutive cells of a view row, the row length of the source
+    private int stride;
+
+    TransposedMatrix(Matrix source) {
+        this.source = source;
+        this.data = source.getData();
+        this.stride = source.getNumCols();
+    }
+
+    @Override
+    public int getNumRows() {
+        return source.getNumCols();
+    }
+
+    @Override
+    public int getNumCols() {
+        return source.getNumRows();
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return data[j * stride + i];
+    }
+
+    public void set(int i, int j, double value) {
+        data[j * stride + i] = value;
+    }
+
+    @Override
+    public void getRow(int i, double[] out) {
+        int n = getNumCols();
+        for (int j = 0, idx = i; j < n; j++, idx += stride) {
+            out[j] = data[idx];
+        }
+    }
+
+    @Override
+    public double rowDot(int i, double[] w, double init) {
+        double sum = init;
+        int n = getNumCols();
+        for (int j = 0, idx = i; j < n; j++, idx += stride) {
+            sum += w[j] * data[idx];
+        }
+        return sum;
+    }
+
+    @Override
+    public void addRowTo(int i, double scale, double[] acc) {
+        int n = getNumCols();
+        for (int j = 0, idx = i; j < n; j++, idx += stride) {
+            acc[j] += scale * data[idx];
+        }
+    }
+
+    @Override
+    public double squaredDistance(int i, double[] x) {
+        double sum = 0.0;
+        int n = getNumCols();
+        for (int j = 0, idx = i; j < n; j++, idx += stride) {
+            double diff = x[j] - data[idx];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    //Bytes of the shared storage, the view adds none of its own
+    @Override
+    public long getSizeBytes() {
+        return source.getSizeBytes();
+    }
+
+    //The matrix this view reads
+    public Matrix transpose() {
+        return source;
+    }
+
+    //Row-major copy of the transpose, for work that reads whole columns many times
+    public Matrix toMatrix() {
+        int rows = getNumRows();
+        int cols = getNumCols();
+        Matrix t = new Matrix(rows, cols);
+        double[] out = t.getData();
+        for (int j = 0; j < cols; j++) {
+            int offset = j * stride;
+            for (int i = 0; i < rows; i++) {
+                out[i * cols + j] = data[offset + i];
+            }
+        }
+        return t;
+    }
+}